@@ -0,0 +1,115 @@
+package frc.taurus.hal;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import com.google.flatbuffers.FlatBufferBuilder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import frc.taurus.joystick.Controller;
+import frc.taurus.joystick.generated.AxisVector;
+import frc.taurus.joystick.generated.ButtonVector;
+import frc.taurus.joystick.generated.JoystickStatus;
+import frc.taurus.messages.FlatBufferPool;
+import frc.taurus.messages.MessageQueue;
+import frc.taurus.util.Clock;
+
+/**
+ * Building a JoystickStatus message the way ControllerHAL.JoystickStatusWriter
+ * does, with the Joystick reads replaced by fixed values.
+ *
+ * buildJoystickStatus() allocates a new builder every time (the old way),
+ * buildJoystickStatusPooled() borrows one from a FlatBufferPool, with a
+ * reader that keeps up with the queue.  Compare gc.alloc.rate.norm.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JoystickStatusBenchmark {
+
+  float[] rawAxes = new float[Controller.maxNumAxes];
+  boolean[] rawButtons = new boolean[Controller.maxNumButtons];
+  int bufferSize = 0;
+
+  float[] axes = new float[Controller.maxNumAxes];
+  boolean[] buttons = new boolean[Controller.maxNumButtons];
+
+  MessageQueue<ByteBuffer> queue = new MessageQueue<ByteBuffer>();
+  MessageQueue<ByteBuffer>.QueueReader reader = queue.makeReader();
+  FlatBufferPool pool = new FlatBufferPool(queue);
+
+  @Setup
+  public void setup() {
+    Clock.useSystemTime();  // no FPGA clock on a desktop JVM
+    for (int k = 0; k < rawAxes.length; k++) {
+      rawAxes[k] = 0.1f * k;
+    }
+    for (int k = 0; k < rawButtons.length; k++) {
+      rawButtons[k] = (k % 3 == 0);
+    }
+  }
+
+  @Benchmark
+  public ByteBuffer buildJoystickStatus() {
+    float[] axes = new float[Controller.maxNumAxes];
+    for (int k = 0; k < axes.length; k++) {
+      axes[k] = rawAxes[k];
+    }
+
+    boolean[] buttons = new boolean[Controller.maxNumButtons];
+    for (int k = 0; k < buttons.length; k++) {
+      buttons[k] = rawButtons[k];
+    }
+
+    FlatBufferBuilder builder = new FlatBufferBuilder(bufferSize);
+    JoystickStatus.startJoystickStatus(builder);
+    JoystickStatus.addTimestamp(builder, Clock.getTimestamp());
+    JoystickStatus.addPort(builder, 0);
+    JoystickStatus.addAxes(builder, AxisVector.createAxisVector(builder, axes));
+    JoystickStatus.addButtons(builder, ButtonVector.createButtonVector(builder, buttons));
+    JoystickStatus.addPov(builder, -1);
+    int offset = JoystickStatus.endJoystickStatus(builder);
+
+    JoystickStatus.finishJoystickStatusBuffer(builder, offset);
+    ByteBuffer bb = builder.dataBuffer();
+    bufferSize = Math.max(bufferSize, bb.remaining());
+    return bb;
+  }
+
+  @Benchmark
+  public ByteBuffer buildJoystickStatusPooled() {
+    for (int k = 0; k < rawAxes.length; k++) {
+      axes[k] = rawAxes[k];
+    }
+    for (int k = 0; k < rawButtons.length; k++) {
+      buttons[k] = rawButtons[k];
+    }
+
+    FlatBufferBuilder builder = pool.borrow();
+    JoystickStatus.startJoystickStatus(builder);
+    JoystickStatus.addTimestamp(builder, Clock.getTimestamp());
+    JoystickStatus.addPort(builder, 0);
+    JoystickStatus.addAxes(builder, AxisVector.createAxisVector(builder, axes));
+    JoystickStatus.addButtons(builder, ButtonVector.createButtonVector(builder, buttons));
+    JoystickStatus.addPov(builder, -1);
+    int offset = JoystickStatus.endJoystickStatus(builder);
+
+    JoystickStatus.finishJoystickStatusBuffer(builder, offset);
+    pool.write(builder);
+
+    return reader.read().get();
+  }
+}
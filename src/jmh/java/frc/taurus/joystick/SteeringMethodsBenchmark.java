@@ -0,0 +1,56 @@
+package frc.taurus.joystick;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Steering calculations run once per loop by DriverControls
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SteeringMethodsBenchmark {
+
+  static final int kNumSamples = 1024;  // power of 2
+
+  SteeringMethods steeringMethods;
+  double[] throttle = new double[kNumSamples];
+  double[] turn = new double[kNumSamples];
+  int k = 0;
+
+  @Setup
+  public void setup() {
+    steeringMethods = new SteeringMethods(0.05, SteeringMethods.NonLinearityEnum.SQUARED,
+                                          0.05, SteeringMethods.NonLinearityEnum.SQUARED);
+    // sweep the sticks so every branch gets exercised
+    for (int n = 0; n < kNumSamples; n++) {
+      throttle[n] = Math.sin(2 * Math.PI * n / kNumSamples);
+      turn[n] = Math.cos(6 * Math.PI * n / kNumSamples);
+    }
+  }
+
+  @Benchmark
+  public SteeringMethods.LeftRightMotor arcadeDrive() {
+    k = (k + 1) & (kNumSamples - 1);
+    return steeringMethods.arcadeDrive(throttle[k], turn[k]);
+  }
+
+  @Benchmark
+  public SteeringMethods.LeftRightMotor cheesyDrive() {
+    k = (k + 1) & (kNumSamples - 1);
+    return steeringMethods.cheesyDrive(throttle[k], turn[k], (k & 64) != 0, 1.0);
+  }
+}
@@ -0,0 +1,72 @@
+package frc.taurus.logger;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import com.google.flatbuffers.FlatBufferBuilder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import frc.taurus.config.ChannelManager;
+import frc.taurus.config.Config;
+import frc.taurus.drivetrain.generated.DrivetrainInput;
+import frc.taurus.util.Clock;
+
+/**
+ * Cost of framing one DrivetrainInput message and handing it to the log file
+ * writer
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlatBuffersLoggerBenchmark {
+
+  ChannelManager channelManager;
+  FlatBuffersLogger logger;
+  ByteBuffer payload;
+  byte channelType = Config.DRIVETRAIN_INPUT.getNum();
+
+  @Setup
+  public void setup() {
+    Clock.useSystemTime();  // no FPGA clock on a desktop JVM
+    LogFileWriterBase.updateLogFolderTimestamp("benchmark");
+
+    channelManager = new ChannelManager();
+    logger = new FlatBuffersLogger(channelManager, "benchmark.log", () -> ByteBuffer.allocate(0));
+
+    FlatBufferBuilder builder = new FlatBufferBuilder(0);
+    DrivetrainInput.startDrivetrainInput(builder);
+    DrivetrainInput.addTimestamp(builder, Clock.getTimestamp());
+    DrivetrainInput.addGyroAngleRad(builder, 1.0f);
+    DrivetrainInput.addLeftDistance(builder, 12.0f);
+    DrivetrainInput.addRightDistance(builder, 12.5f);
+    DrivetrainInput.addLeftVelocity(builder, 30.0f);
+    DrivetrainInput.addRightVelocity(builder, 31.0f);
+    int offset = DrivetrainInput.endDrivetrainInput(builder);
+    DrivetrainInput.finishDrivetrainInputBuffer(builder, offset);
+    payload = builder.dataBuffer();
+  }
+
+  @TearDown
+  public void tearDown() {
+    logger.close();
+  }
+
+  @Benchmark
+  public void writePacket() {
+    logger.writePacket(channelType, (byte)1, payload);
+  }
+}
@@ -0,0 +1,50 @@
+package frc.taurus.logger;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import frc.taurus.config.ChannelManager;
+import frc.taurus.config.Config;
+import frc.taurus.util.Clock;
+
+/**
+ * Cost of building the LogFileHeader with every Config channel registered
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggerManagerBenchmark {
+
+  LoggerManager loggerManager;
+
+  @Setup
+  public void setup() {
+    Clock.useSystemTime();  // no FPGA clock on a desktop JVM
+    LogFileWriterBase.updateLogFolderTimestamp("benchmark");
+
+    ChannelManager channelManager = new ChannelManager();
+    loggerManager = new LoggerManager(channelManager);
+    for (var channel : Config.values()) {
+      loggerManager.register(channel);
+    }
+  }
+
+  @Benchmark
+  public ByteBuffer getFileHeader() {
+    return loggerManager.getFileHeader();
+  }
+}
@@ -0,0 +1,108 @@
+package frc.taurus.messages;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import com.google.flatbuffers.FlatBufferBuilder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import frc.taurus.joystick.generated.JoystickGoal;
+import frc.taurus.joystick.generated.RumbleSide;
+import frc.taurus.util.Clock;
+
+/**
+ * MessageQueue write/read/readLast while 0..N other threads are reading the
+ * same queue (the way the LoggerThread reads every queue the robot loop
+ * writes)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageQueueBenchmark {
+
+  @Param({"locking", "lockfree"})
+  String queueType;
+
+  @Param({"0", "1", "2", "4"})
+  int numBackgroundReaders;
+
+  MessageQueue<ByteBuffer> queue;
+  MessageQueue<ByteBuffer>.QueueReader reader;
+  ByteBuffer message;
+
+  Thread[] readerThreads;
+  volatile boolean running;
+
+  @Setup
+  public void setup() {
+    Clock.useSystemTime();  // no FPGA clock on a desktop JVM
+
+    queue = queueType.equals("lockfree") ? new LockFreeMessageQueue<ByteBuffer>() : new MessageQueue<ByteBuffer>();
+    reader = queue.makeReader();
+
+    FlatBufferBuilder builder = new FlatBufferBuilder(0);
+    int offset = JoystickGoal.createJoystickGoal(builder, Clock.getTimestamp(), RumbleSide.LEFT_RUMBLE, 0.5f);
+    JoystickGoal.finishJoystickGoalBuffer(builder, offset);
+    message = builder.dataBuffer();
+
+    for (int k = 0; k < queue.capacity(); k++) {
+      queue.write(message);
+    }
+
+    running = true;
+    readerThreads = new Thread[numBackgroundReaders];
+    for (int k = 0; k < readerThreads.length; k++) {
+      final MessageQueue<ByteBuffer>.QueueReader backgroundReader = queue.makeReader();
+      readerThreads[k] = new Thread(() -> {
+        while (running) {
+          while (!backgroundReader.isEmpty()) {
+            backgroundReader.read();
+          }
+          Thread.onSpinWait();
+        }
+      });
+      readerThreads[k].setDaemon(true);
+      readerThreads[k].start();
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws InterruptedException {
+    running = false;
+    for (var thread : readerThreads) {
+      thread.join();
+    }
+  }
+
+  @Benchmark
+  public void write() {
+    queue.write(message);
+  }
+
+  @Benchmark
+  public Optional<ByteBuffer> writeRead() {
+    queue.write(message);
+    return reader.read();
+  }
+
+  @Benchmark
+  public Optional<ByteBuffer> readLast() {
+    return reader.readLast();
+  }
+}
@@ -4,10 +4,16 @@ import frc.taurus.joystick.SteeringMethods;
 
 public class Constants {
   public static double kLoopDt = 0.010; // 100x per second
+  public static double kDriverStationDt = 0.020; // joystick and DS data arrive 50x per second
   
   public static int kCANTimeoutMs = (int)(kLoopDt*1000); // ms  for real-time updates
   public static int kLongCANTimeoutMs = 100; // ms              for constructors
 
+  public static class LoggerConstants {
+    public static long kMaxLogBytes = 1024L * 1024 * 1024;     // 1 GB under the logs folder
+    public static double kMaxLogAgeSeconds = 30 * 24 * 3600;  // 30 days
+  }
+
   public static class ControllerConstants {
     // example joystick config when driver uses single Xbox controller
     public static class ControllerConfig1 {
@@ -15,9 +15,15 @@ import frc.robot.hal.SuperstructureHAL;
 import frc.robot.joystick.DriverControls;
 import frc.robot.joystick.SuperstructureControls;
 import frc.taurus.config.ChannelManager;
+import frc.taurus.config.QueueStatusPublisher;
 import frc.taurus.driverstation.DriverStationData;
 import frc.taurus.drivetrain.Drivetrain;
 import frc.taurus.hal.ControllerHAL;
+import frc.taurus.logger.LogRetentionManager;
+import frc.taurus.logger.generated.Compression;
+import frc.taurus.logger.generated.PacketFormat;
+import frc.taurus.scheduler.HALExecutor;
+import frc.taurus.scheduler.LoopScheduler;
 
 import io.github.oblarg.oblog.Logger;
 
@@ -44,6 +50,17 @@ public class Robot extends TimedRobot {
   DrivetrainHAL drivetrainHAL;
   SuperstructureHAL superstructureHAL;
 
+  // runs the robot loop on its own real-time thread (instead of teleopPeriodic)
+  LoopScheduler scheduler;
+
+  // runs each HAL on its own thread, so slow CAN calls don't hold up the loop
+  HALExecutor halExecutor;
+
+  // keeps old logs from filling the drive
+  LogRetentionManager logRetentionManager;
+
+  // traffic and lost messages on every queue, for sizing them
+  QueueStatusPublisher queueStatusPublisher;
 
   /**
    * This function is run when the robot is first started up and should be used
@@ -52,6 +69,12 @@ public class Robot extends TimedRobot {
   @Override
   public void robotInit() {
     channelManager = new ChannelManager();
+    channelManager.setLogPacketFormat(PacketFormat.RawFrame);   // log payloads without re-packing them
+    channelManager.setLogMappedFiles(true);                     // don't block the logger on USB drive writes
+    channelManager.setLogCompression(Compression.None);         // deflating costs roboRIO CPU during the match; LogRetentionManager zips old folders instead
+    logRetentionManager = new LogRetentionManager(channelManager, Constants.LoggerConstants.kMaxLogBytes,
+                                                  Constants.LoggerConstants.kMaxLogAgeSeconds);
+    logRetentionManager.start();
     driverStationData = new DriverStationData(DriverStation.getInstance(), channelManager);
 
     Joystick driverJoystick   = new Joystick(Constants.ControllerConstants.ControllerConfig1.kDriveControllerPort);
@@ -69,6 +92,31 @@ public class Robot extends TimedRobot {
     drivetrainHAL = new DrivetrainHAL(channelManager);
     superstructureHAL = new SuperstructureHAL(channelManager);
 
+    final double kDriverStationHz = 1.0 / Constants.kDriverStationDt;
+    final double kLoopHz = 1.0 / Constants.kLoopDt;
+    halExecutor = new HALExecutor();
+    halExecutor.add("ControllerHAL",                   controllerHAL,                           kDriverStationHz); // joystick inputs, rumble
+    halExecutor.add("DrivetrainHAL",                   drivetrainHAL,                           kLoopHz);          // encoders and gyro, motors and shifter
+    halExecutor.add("SuperstructureHAL",               superstructureHAL,                       kLoopHz);
+    halExecutor.setActuatorsEnabled(this::isEnabled);  // stop() the actuators while disabled
+    halExecutor.setRealTime(true);
+    halExecutor.zeroSensors();
+    halExecutor.start();
+
+    // stages read the latest sensor values published by the HAL threads
+    scheduler = new LoopScheduler(channelManager, Constants.kLoopDt);
+    scheduler.add("DriverStationData",                 driverStationData::update,               kDriverStationHz); // get driverstation inputs
+
+    scheduler.add("DriverControls",                    teleop(driverControls::update),          kDriverStationHz); // generates DrivetrainGoal message
+    scheduler.add("SuperstructureControls",            teleop(superstructureControls::update),  kDriverStationHz); // generate ... messages
+
+    scheduler.add("Drivetrain",                        teleop(drivetrain::update));
+
+    queueStatusPublisher = new QueueStatusPublisher(channelManager);
+    scheduler.add("QueueStatus",                       queueStatusPublisher::update,            1.0);
+    scheduler.setRealTime(true);
+    scheduler.start();
+
     Logger.configureLoggingAndConfig(this, false);
   }
 
@@ -110,21 +158,21 @@ public class Robot extends TimedRobot {
    */
   @Override
   public void teleopPeriodic() {
-    controllerHAL.readSensors();          // read joystick inputs
-    drivetrainHAL.readSensors();          // read encoders and gyro
-    superstructureHAL.readSensors();      
-
-    driverStationData.update();           // get driverstation inputs
-
-    driverControls.update();              // generates DrivetrainGoal message
-    superstructureControls.update();      // generate ... messages
-
-    drivetrain.update();    
-
-    controllerHAL.readSensors();          // joystick rumble
-    drivetrainHAL.writeActuators();       // set motors, shifter
-    superstructureHAL.writeActuators();
+    // the robot loop runs in the LoopScheduler (see robotInit)
+  }
 
+  /**
+   * Wrap a scheduler stage so it only runs in teleop, while enabled, as it
+   * did in teleopPeriodic.  (isOperatorControl() is also true while
+   * disabled, so goals from the sticks would otherwise pile up between
+   * matches and carry over into autonomous.)
+   */
+  private Runnable teleop(Runnable step) {
+    return () -> {
+      if (isOperatorControl() && isEnabled()) {
+        step.run();
+      }
+    };
   }
 
   /**
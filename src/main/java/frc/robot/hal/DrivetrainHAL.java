@@ -2,7 +2,6 @@ package frc.robot.hal;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Optional;
 
 import com.ctre.phoenix.motorcontrol.ControlMode;
 import com.ctre.phoenix.motorcontrol.FeedbackDevice;
@@ -20,7 +19,6 @@ import com.google.flatbuffers.FlatBufferBuilder;
 
 import edu.wpi.first.wpilibj.Compressor;
 import edu.wpi.first.wpilibj.Solenoid;
-import edu.wpi.first.wpilibj.Timer;
 import frc.robot.Constants;
 import frc.robot.Constants.DriveConstants;
 import frc.taurus.config.ChannelManager;
@@ -30,7 +28,10 @@ import frc.taurus.drivetrain.generated.DrivetrainInput;
 import frc.taurus.drivetrain.generated.DrivetrainOutput;
 import frc.taurus.drivetrain.generated.TalonControlMode;
 import frc.taurus.hal.IHAL;
+import frc.taurus.messages.FlatBufferPool;
 import frc.taurus.messages.MessageQueue;
+import frc.taurus.messages.TypedReader;
+import frc.taurus.util.Clock;
 
 /**
  * Drivetrain Hardware Abstraction Layer (HAL)
@@ -56,12 +57,16 @@ public class DrivetrainHAL implements IHAL {
 	public static int kQuadEncoderUnitsPerRev = (int) (4 * kQuadEncoderCodesPerRev / kQuadEncoderGain);
 	public static double kQuadEncoderStatusFramePeriod = 0.100; // 100 ms
 
+  // outputs older than this are left over from an earlier mode: stop instead
+  public static double kOutputTimeout = 10 * Constants.kLoopDt;
+
   //-----------------------------------
   // Message Queues & Readers
   //-----------------------------------
   final MessageQueue<ByteBuffer> inputQueue; // to store sensor values
-  final MessageQueue<ByteBuffer>.QueueReader driverStationReader; // to store sensor values
-  final MessageQueue<ByteBuffer>.QueueReader outputReader; // to read actuator values
+  final FlatBufferPool inputPool;
+  final TypedReader<DriverStationStatus> driverStationReader; // to store sensor values
+  final TypedReader<DrivetrainOutput> outputReader; // to read actuator values
 
   //-----------------------------------
   // Driver Motor Controllers
@@ -122,8 +127,11 @@ public class DrivetrainHAL implements IHAL {
 
   public DrivetrainHAL(ChannelManager channelManager) {
     inputQueue          = channelManager.fetch(Config.DRIVETRAIN_INPUT);
-    outputReader        = channelManager.fetch(Config.DRIVETRAIN_OUTPUT).makeReader();
-    driverStationReader = channelManager.fetch(Config.DRIVER_STATION_STATUS).makeReader();
+    inputPool           = new FlatBufferPool(inputQueue);
+    outputReader        = new TypedReader<>(channelManager.fetch(Config.DRIVETRAIN_OUTPUT), new DrivetrainOutput(),
+                                            DrivetrainOutput::getRootAsDrivetrainOutput);
+    driverStationReader = new TypedReader<>(channelManager.fetch(Config.DRIVER_STATION_STATUS), new DriverStationStatus(),
+                                            DriverStationStatus::getRootAsDriverStationStatus);
 
     ArrayList<TalonSRX> masters = new ArrayList<>();
     masters.add(lMaster);
@@ -305,17 +313,15 @@ public class DrivetrainHAL implements IHAL {
   
 
 
-  int bufferSize = 0;
-
   public void readSensors() {
     // read sensors and create DrivetrainInput message
 
-    FlatBufferBuilder builder = new FlatBufferBuilder(bufferSize);
+    FlatBufferBuilder builder = inputPool.borrow();
 
     float gyroAngleRad = (float)(-(pigeon.getFusedHeading() - pigeonCalOffset) * Math.PI / 180);
 
     DrivetrainInput.startDrivetrainInput(builder);
-    DrivetrainInput.addTimestamp(builder,       Timer.getFPGATimestamp());
+    DrivetrainInput.addTimestamp(builder,       Clock.getTimestamp());
     DrivetrainInput.addGyroAngleRad(builder,    gyroAngleRad);
     DrivetrainInput.addRightCurrent(builder,    (float)rMaster.getStatorCurrent());
     DrivetrainInput.addLeftCurrent(builder,     (float)lMaster.getStatorCurrent());
@@ -329,10 +335,7 @@ public class DrivetrainHAL implements IHAL {
     DrivetrainInput.addLeftDistance(builder,    (float)encoderUnitsToInches((int)lMaster.getSelectedSensorPosition(kPrimaryPidIdx)));
     int offset = DrivetrainInput.endDrivetrainInput(builder);
     DrivetrainInput.finishDrivetrainInputBuffer(builder, offset);
-    ByteBuffer bb = builder.dataBuffer();
-    inputQueue.write(bb);
-
-    bufferSize = Math.max(bufferSize, bb.remaining());   
+    inputPool.write(builder);
   }
 
 
@@ -344,9 +347,8 @@ public class DrivetrainHAL implements IHAL {
   public void writeActuators() {
 
     // first, disable motors if robot is disabled
-    Optional<ByteBuffer> obb = driverStationReader.readLast();
-    if (obb.isPresent()) {
-      DriverStationStatus dsStatus = DriverStationStatus.getRootAsDriverStationStatus(obb.get());
+    DriverStationStatus dsStatus = driverStationReader.readLastOrNull();
+    if (dsStatus != null) {
       if (!dsStatus.enabled()) {
         stop();
         return;
@@ -354,14 +356,13 @@ public class DrivetrainHAL implements IHAL {
     }
 
     // read the output queue to see what setting the core robot code wants
-    obb = outputReader.readLast();
-    if (obb.isEmpty()) {
+    DrivetrainOutput msg = outputReader.readLastOrNull();
+    if (msg == null || Clock.getTimestamp() - msg.timestamp() > kOutputTimeout) {
       stop();
       return;
     }
 
     // found a message. unpack it.
-    DrivetrainOutput msg = DrivetrainOutput.getRootAsDrivetrainOutput(obb.get());
     byte talonControlMode = msg.talonControlMode();
     float lSetpoint = msg.leftSetpoint();
     float rSetpoint = msg.rightSetpoint();
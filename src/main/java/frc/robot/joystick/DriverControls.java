@@ -6,7 +6,6 @@ import com.google.flatbuffers.FlatBufferBuilder;
 
 import edu.wpi.first.wpilibj.GenericHID.RumbleType;
 import edu.wpi.first.wpilibj.Joystick;
-import edu.wpi.first.wpilibj.Timer;
 import frc.robot.Constants.ControllerConstants.ControllerConfig1;
 import frc.taurus.config.ChannelManager;
 import frc.taurus.config.Config;
@@ -16,7 +15,9 @@ import frc.taurus.drivetrain.generated.TeleopGoal;
 import frc.taurus.joystick.Controller;
 import frc.taurus.joystick.SteeringMethods;
 import frc.taurus.joystick.XboxController;
+import frc.taurus.messages.FlatBufferPool;
 import frc.taurus.messages.MessageQueue;
+import frc.taurus.util.Clock;
 import io.github.oblarg.oblog.annotations.Log;
 
 /**
@@ -28,6 +29,7 @@ public class DriverControls {
   final XboxController driverController;
   final SteeringMethods steeringMethods;
   final MessageQueue<ByteBuffer> drivetrainGoalQueue;
+  final FlatBufferPool drivetrainGoalPool;
   SteeringMethods.LeftRightMotor lrMotor;
 
   public DriverControls(ChannelManager channelManager, Joystick joystick) {
@@ -37,6 +39,7 @@ public class DriverControls {
     steeringMethods = new SteeringMethods(ControllerConfig1.kDriveDeadband, ControllerConfig1.kDriveNonLinearity,
                                           ControllerConfig1.kDriveDeadband, ControllerConfig1.kDriveNonLinearity);
     drivetrainGoalQueue = channelManager.fetch(Config.DRIVETRAIN_GOAL);
+    drivetrainGoalPool  = new FlatBufferPool(drivetrainGoalQueue);
 
   }
 
@@ -72,8 +75,6 @@ public class DriverControls {
   boolean quickTurn;
   boolean lowGear;  
   
-  int bufferSize = 0;
-
   public void writeDrivetrainGoalMessage() {
     // send a DrivetrainGoal message
     lMotor = (float)getLeft();
@@ -81,14 +82,12 @@ public class DriverControls {
     quickTurn = getQuickTurn();
     lowGear = getLowGear();    
 
-    FlatBufferBuilder builder = new FlatBufferBuilder(bufferSize);
+    FlatBufferBuilder builder = drivetrainGoalPool.borrow();
     int teleopGoalOffset = TeleopGoal.createTeleopGoal(builder, lMotor, rMotor);
-    double timestamp = Timer.getFPGATimestamp();
+    double timestamp = Clock.getTimestamp();
     int offset = DrivetrainGoal.createDrivetrainGoal(builder, timestamp, GoalType.TeleopGoal, teleopGoalOffset, !lowGear, quickTurn);
     builder.finish(offset);
-    ByteBuffer bb = builder.dataBuffer();
-    bufferSize = Math.max(bufferSize, bb.remaining());
 
-    drivetrainGoalQueue.write(bb);
+    drivetrainGoalPool.write(builder);
   }
 }
@@ -6,7 +6,6 @@ import com.google.flatbuffers.FlatBufferBuilder;
 
 import edu.wpi.first.wpilibj.GenericHID.RumbleType;
 import edu.wpi.first.wpilibj.Joystick;
-import edu.wpi.first.wpilibj.Timer;
 import frc.robot.Constants.ControllerConstants.ControllerConfig2;
 import frc.taurus.config.ChannelManager;
 import frc.taurus.config.Config;
@@ -16,7 +15,9 @@ import frc.taurus.drivetrain.generated.TeleopGoal;
 import frc.taurus.joystick.Controller;
 import frc.taurus.joystick.SteeringMethods;
 import frc.taurus.joystick.ThrustmasterController;
+import frc.taurus.messages.FlatBufferPool;
 import frc.taurus.messages.MessageQueue;
+import frc.taurus.util.Clock;
 
 /**
  * This file defines the user controls / button mappings
@@ -28,6 +29,7 @@ public class DriverControlsDualThrustmasterExample {
   final ThrustmasterController rightController;
   final SteeringMethods steeringMethods;
   final MessageQueue<ByteBuffer> drivetrainGoalQueue;
+  final FlatBufferPool drivetrainGoalPool;
   SteeringMethods.LeftRightMotor lrMotor;
 
   public DriverControlsDualThrustmasterExample(ChannelManager channelManager, Joystick lJoystick, Joystick rJoystick) {
@@ -39,6 +41,7 @@ public class DriverControlsDualThrustmasterExample {
     steeringMethods = new SteeringMethods(ControllerConfig2.kDriveDeadband, ControllerConfig2.kDriveNonLinearity,
                                           ControllerConfig2.kDriveDeadband, ControllerConfig2.kDriveNonLinearity);
     drivetrainGoalQueue = channelManager.fetch(Config.DRIVETRAIN_GOAL);
+    drivetrainGoalPool  = new FlatBufferPool(drivetrainGoalQueue);
   }
 
   public void update() {
@@ -74,7 +77,6 @@ public class DriverControlsDualThrustmasterExample {
   }
 
     
-  int bufferSize = 0;
 
   public void writeDrivetrainGoalMessage() {
     // send a DrivetrainGoal message
@@ -83,14 +85,12 @@ public class DriverControlsDualThrustmasterExample {
     boolean quickTurn = getQuickTurn();
     boolean lowGear = getLowGear();
 
-    FlatBufferBuilder builder = new FlatBufferBuilder(bufferSize);
+    FlatBufferBuilder builder = drivetrainGoalPool.borrow();
     int teleopGoalOffset = TeleopGoal.createTeleopGoal(builder, lMotor, rMotor);
-    double timestamp = Timer.getFPGATimestamp();
+    double timestamp = Clock.getTimestamp();
     int offset = DrivetrainGoal.createDrivetrainGoal(builder, timestamp, GoalType.TeleopGoal, teleopGoalOffset, !lowGear, quickTurn);
     builder.finish(offset);
-    ByteBuffer bb = builder.dataBuffer();
-    bufferSize = Math.max(bufferSize, bb.remaining());
 
-    drivetrainGoalQueue.write(bb);
+    drivetrainGoalPool.write(builder);
   }
 }
\ No newline at end of file
@@ -4,4 +4,7 @@ public interface ChannelIntf {
     public byte getNum();
     public String getName();
     public String getLogFilename();
+    public boolean isSingleWriter();    // true if only one thread ever writes to this channel
+    public double getRateHz();          // expected messages per second (0 if only now and then)
+    public int getQueueCapacity();      // messages the queue keeps (ChannelManager rounds up to a power of 2)
 }
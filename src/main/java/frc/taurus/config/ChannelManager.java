@@ -1,35 +1,110 @@
 package frc.taurus.config;
 
 import java.nio.ByteBuffer;
-import java.util.HashMap;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import frc.taurus.logger.LoggerManager;
+import frc.taurus.messages.DirtyBitmap;
+import frc.taurus.messages.LockFreeMessageQueue;
 import frc.taurus.messages.MessageQueue;
+import frc.taurus.messages.OverflowPolicy;
 
 
 public class ChannelManager {
 
-  // HashMap has high performance contains() and get(), needed by fetch()
-  HashMap<ChannelIntf, MessageQueue<ByteBuffer>> channelMap = new HashMap<ChannelIntf, MessageQueue<ByteBuffer>>();
+  // Registry of queues, indexed by ChannelIntf.getNum().  Several channels
+  // can share a number, so each entry is a short bucket that is searched
+  // for the channel itself.
+  //
+  // Copy-on-write: register() builds a new array and publishes it through
+  // the volatile field, so fetch() is a plain array lookup, safe from any
+  // thread, without locking.
+  static final int kNumChannelNums = 256;
+
+  static final class Entry {
+    final ChannelIntf channel;
+    final MessageQueue<ByteBuffer> queue;
+
+    Entry(ChannelIntf channel, MessageQueue<ByteBuffer> queue) {
+      this.channel = channel;
+      this.queue = queue;
+    }
+  }
+
+  private volatile Entry[][] registry = new Entry[kNumChannelNums][];
+  private volatile ChannelIntf[] channels = new ChannelIntf[0];   // in order of registration
+
   LoggerManager loggerManager;
+  final DirtyBitmap dirtyBitmap = new DirtyBitmap();   // which channels have new messages
 
   public ChannelManager() {
     loggerManager = new LoggerManager(this);    
+    loggerManager.start();
+  }
+
+  // synchronized so that two threads can't both add the same channel
+  private synchronized MessageQueue<ByteBuffer> register(ChannelIntf channel) {
+    MessageQueue<ByteBuffer> queue = lookup(channel);
+    if (queue != null) {
+      return null;    // another thread beat us to it
+    }
+
+    // a power of 2, so the queue finds slots with a mask
+    int capacity = MessageQueue.roundUpToPowerOf2(channel.getQueueCapacity());
+
+    // channels with a single writer don't need to lock out their readers
+    queue = channel.isSingleWriter() ? new LockFreeMessageQueue<ByteBuffer>(capacity)
+                                     : new MessageQueue<ByteBuffer>(capacity);
+    queue.setDirtyBitmap(dirtyBitmap, channel.getNum());
+
+    int num = channel.getNum() & 0xFF;
+    Entry[] bucket = registry[num];
+    Entry[] newBucket = (bucket == null) ? new Entry[1] : Arrays.copyOf(bucket, bucket.length + 1);
+    newBucket[newBucket.length - 1] = new Entry(channel, queue);
+
+    Entry[][] newRegistry = registry.clone();
+    newRegistry[num] = newBucket;
+    ChannelIntf[] newChannels = Arrays.copyOf(channels, channels.length + 1);
+    newChannels[newChannels.length - 1] = channel;
+
+    registry = newRegistry;   // publish
+    channels = newChannels;
+    return queue;
   }
 
-  private void register(ChannelIntf channel) {
-    // add the new channel to our list
-    if (!channelMap.keySet().contains(channel)) {
-      this.channelMap.put(channel, new MessageQueue<ByteBuffer>());
+  private MessageQueue<ByteBuffer> lookup(ChannelIntf channel) {
+    Entry[] bucket = registry[channel.getNum() & 0xFF];
+    if (bucket != null) {
+      for (Entry entry : bucket) {
+        if (entry.channel.equals(channel)) {
+          return entry.queue;
+        }
+      }
     }
+    return null;
   }
 
   public MessageQueue<ByteBuffer> fetch(ChannelIntf channel) {
-    if (!channelMap.keySet().contains(channel)) {
-      this.register(channel);
-      loggerManager.register(channel);
+    MessageQueue<ByteBuffer> queue = lookup(channel);
+    if (queue == null) {
+      MessageQueue<ByteBuffer> newQueue = register(channel);
+      if (newQueue != null) {
+        // not while holding our lock: LoggerManager calls fetch() while holding its own
+        loggerManager.register(channel);
+      }
+      queue = lookup(channel);
     }
-    return channelMap.get(channel);
+    return queue;
+  }
+
+  /**
+   * @return snapshot of all channels fetched so far, in the order they were
+   *         first fetched
+   */
+  public List<ChannelIntf> fetchAll() {
+    return Collections.unmodifiableList(Arrays.asList(channels));
   }
 
   public MessageQueue<ByteBuffer> fetchJoystickStatusQueue(int port) {
@@ -54,8 +129,28 @@ public class ChannelManager {
     }
   }  
 
+  public DirtyBitmap getDirtyBitmap() {
+    return dirtyBitmap;
+  }
+
   public void setUnitTest() {
     loggerManager.setUnitTest();
   }
 
+  public void setLogPacketFormat(byte packetFormat) {
+    loggerManager.setPacketFormat(packetFormat);
+  }
+
+  public void setLogMappedFiles(boolean mappedFiles) {
+    loggerManager.setMappedFiles(mappedFiles);
+  }
+
+  public void setLogCompression(byte compression) {
+    loggerManager.setCompression(compression);
+  }
+
+  public void setLogOverflowPolicy(ChannelIntf channel, OverflowPolicy policy) {
+    loggerManager.setOverflowPolicy(channel, policy);
+  }
+
 }
\ No newline at end of file
@@ -7,37 +7,70 @@ import frc.taurus.config.generated.ChannelType;
  * Everything in this list must appear in ChannelType.fbs
  * Not everything in ChannelType.fbs needs to appear here
  * (ChannelType is a superset of Config)
+ * 
+ * Channels that are only ever written from one thread are marked singleWriter
+ * and get a lock-free queue.  Goals can come from several sources (teleop
+ * controls, autonomous), so they keep the locking queue.
+ * 
+ * Each channel's queue is sized from how often it is written: enough for
+ * kQueueSeconds of messages, so the logger can fall that far behind (e.g. on
+ * a slow USB drive) without losing any, and at least kMinQueueCapacity, for
+ * channels that are only written now and then.  ChannelManager rounds the
+ * capacity up to a power of 2.  kQueueSeconds keeps the 100 Hz channels at
+ * the 512 messages every queue used to get; only the slower channels shrink.
+ * Revisit it once QUEUE_STATUS shows how far behind readers really get.
+ *
+ * The joystick channels are written once per driver station packet
+ * (Constants.kDriverStationDt), so they are 50 Hz.
  */
 
 public enum Config implements ChannelIntf {
-    DRIVER_STATION_STATUS           (ChannelType.DriverStationStatus, "driver_station.log"),
-
-    JOYSTICK_PORT_1_STATUS          (ChannelType.JoystickStatus,      "joystick.log"),
-    JOYSTICK_PORT_2_STATUS          (ChannelType.JoystickStatus,      "joystick.log"),
-    JOYSTICK_PORT_3_STATUS          (ChannelType.JoystickStatus,      "joystick.log"),
-    JOYSTICK_PORT_4_STATUS          (ChannelType.JoystickStatus,      "joystick.log"),
-    JOYSTICK_PORT_1_GOAL            (ChannelType.JoystickGoal,        "joystick.log"),
-    JOYSTICK_PORT_2_GOAL            (ChannelType.JoystickGoal,        "joystick.log"),
-    JOYSTICK_PORT_3_GOAL            (ChannelType.JoystickGoal,        "joystick.log"),
-    JOYSTICK_PORT_4_GOAL            (ChannelType.JoystickGoal,        "joystick.log"),
-
-    DRIVETRAIN_INPUT                (ChannelType.DrivetrainInput,     "drivetrain_input.log"),
-    DRIVETRAIN_GOAL                 (ChannelType.DrivetrainGoal,      "drivetrain_goal.log"),
-    DRIVETRAIN_STATUS               (ChannelType.DrivetrainStatus,    "drivetrain_status.log"),
-    DRIVETRAIN_OUTPUT               (ChannelType.DrivetrainOutput,    "drivetrain_output.log");
+    DRIVER_STATION_STATUS           (ChannelType.DriverStationStatus, "driver_station.log",    true,     50),
+
+    JOYSTICK_PORT_1_STATUS          (ChannelType.JoystickStatus,      "joystick.log",          true,     50),
+    JOYSTICK_PORT_2_STATUS          (ChannelType.JoystickStatus,      "joystick.log",          true,     50),
+    JOYSTICK_PORT_3_STATUS          (ChannelType.JoystickStatus,      "joystick.log",          true,     50),
+    JOYSTICK_PORT_4_STATUS          (ChannelType.JoystickStatus,      "joystick.log",          true,     50),
+    JOYSTICK_PORT_1_GOAL            (ChannelType.JoystickGoal,        "joystick.log",          false,    50),
+    JOYSTICK_PORT_2_GOAL            (ChannelType.JoystickGoal,        "joystick.log",          false,    50),
+    JOYSTICK_PORT_3_GOAL            (ChannelType.JoystickGoal,        "joystick.log",          false,    50),
+    JOYSTICK_PORT_4_GOAL            (ChannelType.JoystickGoal,        "joystick.log",          false,    50),
+
+    DRIVETRAIN_INPUT                (ChannelType.DrivetrainInput,     "drivetrain_input.log",  true,    100),
+    DRIVETRAIN_GOAL                 (ChannelType.DrivetrainGoal,      "drivetrain_goal.log",   false,    50),
+    DRIVETRAIN_STATUS               (ChannelType.DrivetrainStatus,    "drivetrain_status.log", true,    100),
+    DRIVETRAIN_OUTPUT               (ChannelType.DrivetrainOutput,    "drivetrain_output.log", true,    100),
+
+    LOOP_STATUS                     (ChannelType.LoopStatus,          "loop_status.log",       true,      1),
+
+    LOG_STORAGE_STATUS              (ChannelType.LogStorageStatus,    "log_storage.log",       true,    0.1),
+    QUEUE_STATUS                    (ChannelType.QueueStatus,         "queue_status.log",      true,      1);
+
+    // compile-time constants, so the constructor can use them
+    static final double kQueueSeconds = 5.0;
+    static final int kMinQueueCapacity = 16;
 
     private final byte num;
     private final String name;
     private final String logFilename;
+    private final boolean singleWriter;
+    private final double rateHz;
+    private final int queueCapacity;
 
-    Config(final byte num, final String logFilename) {
+    Config(final byte num, final String logFilename, final boolean singleWriter, final double rateHz) {
         this.num = num;
         this.name = ChannelType.name(num);        
         this.logFilename = logFilename;
+        this.singleWriter = singleWriter;
+        this.rateHz = rateHz;
+        this.queueCapacity = Math.max(kMinQueueCapacity, (int)Math.ceil(rateHz * kQueueSeconds));
     }
 
     public byte getNum() { return num; }
     public String getName() { return name; }
     public String getLogFilename() { return logFilename; }
+    public boolean isSingleWriter() { return singleWriter; }
+    public double getRateHz() { return rateHz; }
+    public int getQueueCapacity() { return queueCapacity; }
 }
 
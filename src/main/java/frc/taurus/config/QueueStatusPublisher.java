@@ -0,0 +1,84 @@
+package frc.taurus.config;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.flatbuffers.FlatBufferBuilder;
+
+import frc.taurus.messages.FlatBufferPool;
+import frc.taurus.messages.MessageQueue;
+import frc.taurus.messages.generated.ChannelQueueStatus;
+import frc.taurus.messages.generated.QueueStatus;
+import frc.taurus.util.Clock;
+
+/**
+ * Publishes the traffic on every channel of a ChannelManager -- writes,
+ * reads, messages lost to slow readers, and how far behind the readers have
+ * fallen -- as a QueueStatus on the QUEUE_STATUS channel, so queues can be
+ * sized from data instead of guesses.
+ *
+ * Counts are since the previous update(), so call it at a fixed rate, e.g.
+ *
+ *   scheduler.add("QueueStatus", queueStatusPublisher::update, 1.0);   // 1 Hz
+ */
+public class QueueStatusPublisher {
+
+  final ChannelManager channelManager;
+  final MessageQueue<ByteBuffer> statusQueue;
+  final FlatBufferPool statusPool;
+
+  double lastTimestamp;
+  // counts at the last update(), in the order of channelManager.fetchAll()
+  int[] lastWrites = new int[0];
+  long[] lastReads = new long[0];
+  long[] lastSkipped = new long[0];
+  int[] channelOffsets = new int[0];   // one for every channel
+
+  public QueueStatusPublisher(ChannelManager channelManager) {
+    this.channelManager = channelManager;
+    this.statusQueue = channelManager.fetch(Config.QUEUE_STATUS);
+    this.statusPool  = new FlatBufferPool(statusQueue, 2048);
+    this.lastTimestamp = Clock.getTimestamp();
+  }
+
+  public void update() {
+    double timestamp = Clock.getTimestamp();
+    List<ChannelIntf> channels = channelManager.fetchAll();
+    int numChannels = channels.size();
+    if (lastWrites.length < numChannels) {
+      // channels fetched since the last update start from 0
+      lastWrites     = Arrays.copyOf(lastWrites, numChannels);
+      lastReads      = Arrays.copyOf(lastReads, numChannels);
+      lastSkipped    = Arrays.copyOf(lastSkipped, numChannels);
+      channelOffsets = new int[numChannels];
+    }
+
+    FlatBufferBuilder builder = statusPool.borrow();
+    for (int k = 0; k < numChannels; k++) {
+      ChannelIntf channel = channels.get(k);
+      MessageQueue<ByteBuffer> queue = channelManager.fetch(channel);
+
+      int back = queue.back();
+      long reads = queue.readCount();
+      long skipped = queue.skippedCount();
+      int writes = (back >= lastWrites[k]) ? back - lastWrites[k] : back;   // queue was cleared
+
+      int nameOffset = builder.createString(channel.getName());
+      channelOffsets[k] = ChannelQueueStatus.createChannelQueueStatus(builder, channel.getNum(), nameOffset,
+          queue.capacity(), queue.numReaders(), writes, (int)(reads - lastReads[k]), (int)(skipped - lastSkipped[k]),
+          queue.maxLag());
+
+      lastWrites[k] = back;
+      lastReads[k] = reads;
+      lastSkipped[k] = skipped;
+    }
+    int channelsOffset = QueueStatus.createChannelsVector(builder, channelOffsets);
+
+    int offset = QueueStatus.createQueueStatus(builder, timestamp, timestamp - lastTimestamp, channelsOffset);
+    QueueStatus.finishQueueStatusBuffer(builder, offset);
+    statusPool.write(builder);
+
+    lastTimestamp = timestamp;
+  }
+}
@@ -11,8 +11,12 @@ public final class ChannelType {
   public static final byte DrivetrainGoal = 4;
   public static final byte DrivetrainStatus = 5;
   public static final byte DrivetrainOutput = 6;
+  public static final byte LoopStatus = 7;
+  public static final byte LogStorageStatus = 8;
+  public static final byte QueueStatus = 9;
+  public static final byte LogGap = 10;
 
-  public static final String[] names = { "DriverStationStatus", "JoystickStatus", "JoystickGoal", "DrivetrainInput", "DrivetrainGoal", "DrivetrainStatus", "DrivetrainOutput", };
+  public static final String[] names = { "DriverStationStatus", "JoystickStatus", "JoystickGoal", "DrivetrainInput", "DrivetrainGoal", "DrivetrainStatus", "DrivetrainOutput", "LoopStatus", "LogStorageStatus", "QueueStatus", "LogGap", };
 
   public static String name(int e) { return names[e]; }
 }
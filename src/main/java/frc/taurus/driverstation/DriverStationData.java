@@ -5,11 +5,12 @@ import java.nio.ByteBuffer;
 import com.google.flatbuffers.FlatBufferBuilder;
 
 import edu.wpi.first.wpilibj.DriverStation;
-import edu.wpi.first.wpilibj.Timer;
 import frc.taurus.config.ChannelManager;
 import frc.taurus.config.Config;
 import frc.taurus.driverstation.generated.DriverStationStatus;
+import frc.taurus.messages.FlatBufferPool;
 import frc.taurus.messages.MessageQueue;
+import frc.taurus.util.Clock;
 
 
 // takes data from DriverStation and places it in MessageQueue
@@ -17,10 +18,12 @@ import frc.taurus.messages.MessageQueue;
 public class DriverStationData {
   DriverStation ds;
   MessageQueue<ByteBuffer> statusQueue;
+  FlatBufferPool statusPool;
 
   public DriverStationData(DriverStation driverStation, ChannelManager channelManager) {
     this.ds = driverStation;
     this.statusQueue = channelManager.fetch(Config.DRIVER_STATION_STATUS);
+    this.statusPool  = new FlatBufferPool(this.statusQueue);
   }
 
   
@@ -29,15 +32,13 @@ public class DriverStationData {
   }
   
 
-  int bufferSize = 0;
-
   private void writeDriverStationStatusMessage() {
-    FlatBufferBuilder builder = new FlatBufferBuilder(bufferSize);
+    FlatBufferBuilder builder = statusPool.borrow();
 
     int gameSpecificMessageOffset = builder.createString(ds.getGameSpecificMessage());
 
     DriverStationStatus.startDriverStationStatus(builder);
-    DriverStationStatus.addTimestamp(builder, Timer.getFPGATimestamp());
+    DriverStationStatus.addTimestamp(builder, Clock.getTimestamp());
     DriverStationStatus.addEnabled(builder, ds.isEnabled());
     DriverStationStatus.addAutonomous(builder, ds.isAutonomous());
     DriverStationStatus.addTeleop(builder, ds.isOperatorControl());
@@ -48,10 +49,7 @@ public class DriverStationData {
     DriverStationStatus.addMatchTime(builder, ds.getMatchTime());
     int offset = DriverStationStatus.endDriverStationStatus(builder);
     DriverStationStatus.finishDriverStationStatusBuffer(builder, offset);
-    ByteBuffer bb = builder.dataBuffer();
-
-    bufferSize = Math.max(bufferSize, bb.remaining());   
     
-    statusQueue.write(bb);
+    statusPool.write(builder);
   }
 }
\ No newline at end of file
@@ -1,11 +1,9 @@
 package frc.taurus.drivetrain;
 
 import java.nio.ByteBuffer;
-import java.util.Optional;
 
 import com.google.flatbuffers.FlatBufferBuilder;
 
-import edu.wpi.first.wpilibj.Timer;
 import frc.taurus.config.ChannelManager;
 import frc.taurus.config.Config;
 import frc.taurus.drivetrain.generated.DriveControlMode;
@@ -14,19 +12,26 @@ import frc.taurus.drivetrain.generated.DrivetrainOutput;
 import frc.taurus.drivetrain.generated.GoalType;
 import frc.taurus.drivetrain.generated.TalonControlMode;
 import frc.taurus.drivetrain.generated.TeleopGoal;
+import frc.taurus.messages.FlatBufferPool;
 import frc.taurus.messages.MessageQueue;
 import frc.taurus.messages.QueueListener;
+import frc.taurus.messages.TypedReader;
+import frc.taurus.util.Clock;
 
 public class Drivetrain implements QueueListener {
 
-  final MessageQueue<ByteBuffer>.QueueReader goalReader;
+  final TypedReader<DrivetrainGoal> goalReader;
+  final TeleopGoal teleopGoal = new TeleopGoal();   // reused every loop to avoid garbage
   final MessageQueue<ByteBuffer> statusQueue;
   final MessageQueue<ByteBuffer> outputQueue;
+  final FlatBufferPool outputPool;
   
   public Drivetrain(ChannelManager channelManager) {
-    goalReader  = channelManager.fetch(Config.DRIVETRAIN_GOAL).makeReader();
+    goalReader  = new TypedReader<>(channelManager.fetch(Config.DRIVETRAIN_GOAL), new DrivetrainGoal(),
+                                    DrivetrainGoal::getRootAsDrivetrainGoal);
     statusQueue = channelManager.fetch(Config.DRIVETRAIN_STATUS);
     outputQueue = channelManager.fetch(Config.DRIVETRAIN_OUTPUT);
+    outputPool  = new FlatBufferPool(outputQueue);
   }
   
   public void newMessage() {
@@ -37,10 +42,9 @@ public class Drivetrain implements QueueListener {
   }
 
   public void update() {
-    Optional<ByteBuffer> obb = goalReader.readLast();
+    DrivetrainGoal drivetrainGoal = goalReader.readLastOrNull();
 
-    if (obb.isPresent()) {
-      DrivetrainGoal drivetrainGoal = DrivetrainGoal.getRootAsDrivetrainGoal(obb.get());
+    if (drivetrainGoal != null) {
       boolean highGear = drivetrainGoal.highGear();
       boolean quickTurn = drivetrainGoal.quickTurn();
 
@@ -49,20 +53,19 @@ public class Drivetrain implements QueueListener {
           break;
 
         case GoalType.TeleopGoal:
-          TeleopGoal teleopGoal = (TeleopGoal)drivetrainGoal.goal(new TeleopGoal());
+          drivetrainGoal.goal(teleopGoal);
           openLoop(teleopGoal.leftSpeed(), teleopGoal.rightSpeed(), highGear, quickTurn);
           break;
       }
     }
   }
 
-  int outputBufferSize = 0;
   private void openLoop(double left, double right, boolean highGear, boolean quickTurn) {
 
-    FlatBufferBuilder builder = new FlatBufferBuilder(outputBufferSize);
+    FlatBufferBuilder builder = outputPool.borrow();
 
     DrivetrainOutput.startDrivetrainOutput(builder);
-    DrivetrainOutput.addTimestamp(builder, Timer.getFPGATimestamp());
+    DrivetrainOutput.addTimestamp(builder, Clock.getTimestamp());
     DrivetrainOutput.addDriveControlMode(builder, DriveControlMode.OPEN_LOOP);
     DrivetrainOutput.addTalonControlMode(builder, TalonControlMode.PercentOutput);
     DrivetrainOutput.addLeftSetpoint(builder, (float)left);
@@ -72,12 +75,9 @@ public class Drivetrain implements QueueListener {
     DrivetrainOutput.addHighGear(builder, highGear);
     int offset = DrivetrainOutput.endDrivetrainOutput(builder);
     DrivetrainOutput.finishDrivetrainOutputBuffer(builder, offset); // add size prefix to files
-    ByteBuffer bb = builder.dataBuffer();
-
-    outputBufferSize = Math.max(outputBufferSize, bb.remaining());
 
     // write Packet to file
-    outputQueue.write(bb);
+    outputPool.write(builder);
   }
 
 }
\ No newline at end of file
@@ -3,12 +3,10 @@ package frc.taurus.hal;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashSet;
-import java.util.Optional;
 
 import com.google.flatbuffers.FlatBufferBuilder;
 
 import edu.wpi.first.wpilibj.Joystick;
-import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.GenericHID.RumbleType;
 import frc.taurus.config.ChannelManager;
 import frc.taurus.joystick.Controller;
@@ -17,7 +15,10 @@ import frc.taurus.joystick.generated.ButtonVector;
 import frc.taurus.joystick.generated.JoystickGoal;
 import frc.taurus.joystick.generated.JoystickStatus;
 import frc.taurus.joystick.generated.RumbleSide;
+import frc.taurus.messages.FlatBufferPool;
 import frc.taurus.messages.MessageQueue;
+import frc.taurus.messages.TypedReader;
+import frc.taurus.util.Clock;
 
 public class ControllerHAL implements IHAL {
 
@@ -77,31 +78,35 @@ public class ControllerHAL implements IHAL {
   public class JoystickStatusWriter {
     Joystick joystick;
     MessageQueue<ByteBuffer> statusQueue;
-    MessageQueue<ByteBuffer>.QueueReader rumbleReader;
+    FlatBufferPool statusPool;
+    TypedReader<JoystickGoal> rumbleReader;
     float rumbleLast[] = {0.0f, 0.0f};
 
     JoystickStatusWriter(ChannelManager channelManager, Joystick joystick) {
       this.joystick = joystick;
       this.statusQueue = channelManager.fetchJoystickStatusQueue(joystick.getPort());
-      this.rumbleReader = channelManager.fetchJoystickGoalQueue(joystick.getPort()).makeReader();
+      this.statusPool  = new FlatBufferPool(this.statusQueue);
+      this.rumbleReader = new TypedReader<>(channelManager.fetchJoystickGoalQueue(joystick.getPort()),
+                                            new JoystickGoal(), JoystickGoal::getRootAsJoystickGoal);
     }
 
-    int bufferSize = 0;
+    // reused every loop to avoid garbage
+    final float[] axes = new float[Controller.maxNumAxes];
+    final boolean[] buttons = new boolean[Controller.maxNumButtons];
+
     public void readSensors() {
   
-      float[] axes = new float[Controller.maxNumAxes];
       for (int k = 0; k < axes.length; k++) {
         axes[k] = (float)joystick.getRawAxis(k);   // axis IDs are base 0
       }
   
-      boolean[] buttons = new boolean[Controller.maxNumButtons];
       for (int k = 0; k < buttons.length; k++) {
         buttons[k] = joystick.getRawButton(k + 1);  // button IDs are base 1, not base 0
       }
   
-      FlatBufferBuilder builder = new FlatBufferBuilder(bufferSize);
+      FlatBufferBuilder builder = statusPool.borrow();
       JoystickStatus.startJoystickStatus(builder);
-      JoystickStatus.addTimestamp(builder, Timer.getFPGATimestamp());
+      JoystickStatus.addTimestamp(builder, Clock.getTimestamp());
       JoystickStatus.addPort(builder, joystick.getPort());
       JoystickStatus.addAxes(builder, AxisVector.createAxisVector(builder, axes));
       JoystickStatus.addButtons(builder, ButtonVector.createButtonVector(builder, buttons));
@@ -109,16 +114,13 @@ public class ControllerHAL implements IHAL {
       int offset = JoystickStatus.endJoystickStatus(builder);
   
       JoystickStatus.finishJoystickStatusBuffer(builder, offset);
-      ByteBuffer bb = builder.dataBuffer();
-      bufferSize = Math.max(bufferSize, bb.remaining()); // correct buffer size for next time
   
-      statusQueue.write(bb);
+      statusPool.write(builder);
     }   
     
     public void writeActuators() {   
-      Optional<ByteBuffer> obb = rumbleReader.readLast();
-      if (obb.isPresent()) {
-        JoystickGoal joystickGoal = JoystickGoal.getRootAsJoystickGoal(obb.get());
+      JoystickGoal joystickGoal = rumbleReader.readLastOrNull();
+      if (joystickGoal != null) {
         byte rumbleSide = joystickGoal.rumbleSide();
         RumbleType rumbleType = (rumbleSide==RumbleSide.LEFT_RUMBLE) ? RumbleType.kLeftRumble : RumbleType.kRightRumble;
         float rumbleValue = joystickGoal.rumbleValue();
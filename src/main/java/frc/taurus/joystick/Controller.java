@@ -2,18 +2,19 @@ package frc.taurus.joystick;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Optional;
 
 import com.google.flatbuffers.FlatBufferBuilder;
 
 import edu.wpi.first.wpilibj.GenericHID.RumbleType;
-import edu.wpi.first.wpilibj.Timer;
 import frc.taurus.joystick.generated.AxisVector;
 import frc.taurus.joystick.generated.ButtonVector;
 import frc.taurus.joystick.generated.JoystickGoal;
 import frc.taurus.joystick.generated.JoystickStatus;
 import frc.taurus.joystick.generated.RumbleSide;
+import frc.taurus.messages.FlatBufferPool;
 import frc.taurus.messages.MessageQueue;
+import frc.taurus.messages.TypedReader;
+import frc.taurus.util.Clock;
 
 /**
  * A wrapper for WPILib's Joystick class
@@ -23,8 +24,9 @@ import frc.taurus.messages.MessageQueue;
 
 public class Controller {
 
-  final MessageQueue<ByteBuffer>.QueueReader joystickStatusQueueReader;
+  final TypedReader<JoystickStatus> joystickStatusQueueReader;
   final MessageQueue<ByteBuffer> rumbleQueue; 
+  final FlatBufferPool rumblePool;
 
   public static final int maxNumAxes = 6;
   public static final int maxNumButtons = 16; 
@@ -35,6 +37,10 @@ public class Controller {
 
   ArrayList<Button> buttons;
 
+  // reused every loop to avoid garbage
+  final AxisVector axesVector = new AxisVector();
+  final ButtonVector buttonVector = new ButtonVector();
+
 
   /**
    * Controller wraps WPILib Joystick class  
@@ -43,8 +49,10 @@ public class Controller {
    * @return new Controller
    */
   public Controller(final MessageQueue<ByteBuffer> statusQueue, final MessageQueue<ByteBuffer> rumbleQueue) {
-    this.joystickStatusQueueReader = statusQueue.makeReader();
+    this.joystickStatusQueueReader = new TypedReader<>(statusQueue, new JoystickStatus(),
+                                                       JoystickStatus::getRootAsJoystickStatus);
     this.rumbleQueue = rumbleQueue;
+    this.rumblePool = new FlatBufferPool(rumbleQueue);
     buttons = new ArrayList<>();
   }
 
@@ -93,16 +101,14 @@ public class Controller {
 
   public void readJoystickStatusQueue() {
     // first read raw axes & buttons from queue
-    Optional<ByteBuffer> obb = joystickStatusQueueReader.readLast();
-    if (obb.isPresent()) {
-      JoystickStatus status = JoystickStatus.getRootAsJoystickStatus(obb.get());
-
-      AxisVector axesVector = status.axes();
+    JoystickStatus status = joystickStatusQueueReader.readLastOrNull();
+    if (status != null) {
+      status.axes(axesVector);
       for (int k = 0; k < Controller.maxNumAxes; k++) {
         rawAxis[k] = axesVector.axis(k);
       }
 
-      ButtonVector buttonVector = status.buttons();
+      status.buttons(buttonVector);
       for (int k = 0; k < 16; k++) {
         rawButton[k] = buttonVector.button(k);
       }
@@ -134,26 +140,22 @@ public class Controller {
   }
 
 
-  int bufferSize = 0;
   /**
    * Write rumble message to JoystickGoal queue
    * @param rumbleType RumbleType.kLeftRumble or RumbleType.kRightRumble
    * @param rumbleValue between 0.0 and 1.0
    */
   public void setRumble(final RumbleType rumbleType, final double rumbleValue) {
-    FlatBufferBuilder builder = new FlatBufferBuilder(bufferSize);
+    FlatBufferBuilder builder = rumblePool.borrow();
 
     JoystickGoal.startJoystickGoal(builder);
-    JoystickGoal.addTimestamp(builder, Timer.getFPGATimestamp());
+    JoystickGoal.addTimestamp(builder, Clock.getTimestamp());
     JoystickGoal.addRumbleSide(builder, rumbleType==RumbleType.kLeftRumble ? RumbleSide.LEFT_RUMBLE : RumbleSide.RIGHT_RUMBLE);    
     JoystickGoal.addRumbleValue(builder, (float)rumbleValue);
     int offset = JoystickGoal.endJoystickGoal(builder);
 
     JoystickGoal.finishJoystickGoalBuffer(builder, offset);
-    ByteBuffer bb = builder.dataBuffer();
-    rumbleQueue.write(bb);
-
-    bufferSize = Math.max(bufferSize, bb.remaining());
+    rumblePool.write(builder);
   }
 
 
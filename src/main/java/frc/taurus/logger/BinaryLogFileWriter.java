@@ -1,23 +1,36 @@
 package frc.taurus.logger;
 
-import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
-public class BinaryLogFileWriter extends LogFileWriterBase {
+public class BinaryLogFileWriter extends LogFileWriterBase implements BinaryLogWriter {
 
   String filename;
-  BufferedOutputStream writer;
+  File file;
+  FileChannel channel;
+  long position = 0;        // bytes written, including those still in buffer
   static final int BUFFER_SIZE = 16 * 1024; // 16 kB
 
+  // direct, so FileChannel.write() doesn't have to copy it again
+  final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+  final ByteBuffer[] gather = new ByteBuffer[2];
+
   public BinaryLogFileWriter(final String filename) {
-    this.filename = filename;
-    File file = new File(logPath() + File.separator + filename);
+    this(new File(logPath() + File.separator + filename));
+  }
+
+  /**
+   * Write to a file outside the log folder (e.g. the output of LogMerger)
+   */
+  public BinaryLogFileWriter(final File file) {
+    this.filename = file.getName();
+    this.file = file;
     try {
       file.createNewFile();
-      writer = new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE);
+      channel = new FileOutputStream(file).getChannel();
     } catch (IOException e) {
       System.err.println("Can't open " + file.getAbsolutePath() + " to write");
       System.exit(-1);
@@ -25,40 +38,114 @@ public class BinaryLogFileWriter extends LogFileWriterBase {
     }
   }
 
-  void write(ByteBuffer bb) {
-    byte[] b = new byte[bb.remaining()]; // create byte array of the correct size
-    bb.get(b); // convert ByteBuffer to byte array
-    write(b);
+  /**
+   * Write the remaining bytes of bb.  Advances the position of bb.
+   */
+  public void write(ByteBuffer bb) {
+    if (channel == null) {
+      return;
+    }
+    position += bb.remaining();
+    if (bb.remaining() > buffer.remaining()) {
+      flush();
+    }
+    if (bb.remaining() <= buffer.remaining()) {
+      buffer.put(bb);
+    } else {
+      // too big to buffer -- write it straight out
+      writeFully(bb, null);
+    }
+  }
+
+  /**
+   * Write header immediately followed by payload, without first copying them
+   * into a single buffer.  Advances the position of both buffers.
+   */
+  public void write(ByteBuffer header, ByteBuffer payload) {
+    if (channel == null) {
+      return;
+    }
+    int size = header.remaining() + payload.remaining();
+    position += size;
+    if (size > buffer.remaining()) {
+      flush();
+    }
+    if (size <= buffer.remaining()) {
+      buffer.put(header);
+      buffer.put(payload);
+    } else {
+      // too big to buffer -- gather both straight out to the file
+      writeFully(header, payload);
+    }
+  }
+
+  public void write(ByteBuffer header, byte[] array, int offset, int length) {
+    if (channel == null) {
+      return;
+    }
+    int size = header.remaining() + length;
+    position += size;
+    if (size > buffer.remaining()) {
+      flush();
+    }
+    if (size <= buffer.remaining()) {
+      buffer.put(header);
+      buffer.put(array, offset, length);
+    } else {
+      // too big to buffer -- gather both straight out to the file
+      writeFully(header, ByteBuffer.wrap(array, offset, length));
+    }
   }
 
   void write(byte[] b) {
+    write(ByteBuffer.wrap(b));
+  }
+
+  private void writeFully(ByteBuffer first, ByteBuffer second) {
+    gather[0] = first;
+    gather[1] = (second != null) ? second : ByteBuffer.allocate(0);
     try {
-      if (writer != null) {
-        writer.write(b);
+      while (gather[0].hasRemaining() || gather[1].hasRemaining()) {
+        channel.write(gather);
       }
     } catch (IOException e) {
       e.printStackTrace();
     }
+    gather[0] = null;   // don't hold on to the caller's buffers
+    gather[1] = null;
+  }
+
+  public long position() {
+    return position;
+  }
+
+  public File getFile() {
+    return file;
   }
 
   public void flush() {
     try {
-      if (writer != null) {
-        writer.flush();
+      if (channel != null) {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
       }
     } catch (IOException e) {
       e.printStackTrace();
     }
+    buffer.clear();
   }
 
   public void close() {
     try {
-      if (writer != null) {
-        writer.close();
-        writer = null; // avoid problems if write() is called again
+      if (channel != null) {
+        flush();
+        channel.close();
+        channel = null; // avoid problems if write() is called again
       }
     } catch (IOException e) {
       e.printStackTrace();
     }
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,45 @@
+package frc.taurus.logger;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+
+/**
+ * The surface FlatBuffersLogger writes a binary log file through, so the
+ * file backend can be swapped (see BinaryLogFileWriter and MappedLogFileWriter)
+ */
+interface BinaryLogWriter {
+
+  /**
+   * Write the remaining bytes of bb.  Advances the position of bb.
+   */
+  void write(ByteBuffer bb);
+
+  /**
+   * Write header immediately followed by payload.  Advances the position of
+   * both buffers.
+   */
+  void write(ByteBuffer header, ByteBuffer payload);
+
+  /**
+   * Write header immediately followed by length bytes of array, starting at
+   * offset.  Advances the position of header.  Lets the payload be copied
+   * straight out of the array behind a ByteBuffer that is shared with other
+   * threads, without moving that buffer's position.
+   */
+  void write(ByteBuffer header, byte[] array, int offset, int length);
+
+  /**
+   * @return number of bytes written so far, including any not yet flushed,
+   *         i.e. the file offset the next write() will land at
+   */
+  long position();
+
+  /**
+   * @return the file being written
+   */
+  File getFile();
+
+  void flush();
+
+  void close();
+}
@@ -0,0 +1,203 @@
+package frc.taurus.logger;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads the packet stream of a log file written with Compression.Deflate
+ * (see LogFileHeader.fbs and DeflateLogWriter) as if it wasn't compressed.
+ *
+ * Offsets are offsets into the packet stream, which count the LogFileHeader,
+ * so they match the offsets in the log file's index.  Block headers are
+ * scanned as they are needed, and only the block being read is inflated.
+ */
+class DeflateBlockReader {
+
+  final RandomAccessFile file;
+  final long dataStart;               // end of the LogFileHeader
+
+  // data blocks found so far, in file order
+  int size = 0;
+  long[] fileOffsets = new long[64];        // offset of the deflated bytes
+  int[] deflatedSizes = new int[64];
+  long[] streamOffsets = new long[64];      // offset in the packet stream
+  int[] streamSizes = new int[64];
+  byte[] channelTypes = new byte[64];       // dictionary used
+  final byte[][] dictionaries = new byte[256][];
+  long scanOffset;                          // file offset of the next block header
+  boolean scanned = false;                  // reached the end of the file
+
+  final Inflater inflater = new Inflater();
+  int current = -1;                         // block in inflated
+  byte[] deflated = new byte[0];
+  byte[] inflated = new byte[0];
+  long pointer;                             // offset of the next read in the packet stream
+
+  /**
+   * @param dataStart file offset just past the LogFileHeader
+   */
+  DeflateBlockReader(final RandomAccessFile file, final long dataStart) {
+    this.file = file;
+    this.dataStart = dataStart;
+    this.scanOffset = dataStart;
+    this.pointer = dataStart;
+  }
+
+  long getPointer() {
+    return pointer;
+  }
+
+  void seek(final long offset) {
+    pointer = offset;
+  }
+
+  /**
+   * @return length of the packet stream (scans the whole file)
+   */
+  long length() throws IOException {
+    while (scanNext()) {
+    }
+    return (size == 0) ? dataStart : streamOffsets[size - 1] + streamSizes[size - 1];
+  }
+
+  void readFully(final byte[] b) throws IOException {
+    readFully(b, 0, b.length);
+  }
+
+  void readFully(final byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      int k = find(pointer);
+      if (k < 0) {
+        throw new EOFException();
+      }
+      load(k);
+      int start = (int)(pointer - streamOffsets[k]);
+      int n = Math.min(len, streamSizes[k] - start);
+      System.arraycopy(inflated, start, b, off, n);
+      pointer += n;
+      off += n;
+      len -= n;
+    }
+  }
+
+  /**
+   * @return block that holds offset, or -1 if it is past the end of the file
+   */
+  private int find(final long offset) throws IOException {
+    while (size == 0 || streamOffsets[size - 1] + streamSizes[size - 1] <= offset) {
+      if (!scanNext()) {
+        break;
+      }
+    }
+    // last block that starts at or before offset
+    int k = Arrays.binarySearch(streamOffsets, 0, size, offset);
+    k = (k >= 0) ? k : -k - 2;
+    if (k < 0 || offset >= streamOffsets[k] + streamSizes[k]) {
+      return -1;
+    }
+    return k;
+  }
+
+  /**
+   * Read the next data block header (and any dictionaries before it)
+   *
+   * @return false at the end of the file
+   */
+  private boolean scanNext() throws IOException {
+    while (!scanned) {
+      if (scanOffset + Integer.BYTES + DeflateLogWriter.kDictionaryHeaderSize > file.length()) {
+        scanned = true;
+        break;
+      }
+      file.seek(scanOffset);
+      int blockSize = Integer.reverseBytes(file.readInt());
+      if (blockSize <= 0 || scanOffset + Integer.BYTES + blockSize > file.length()) {
+        scanned = true;   // zeros at the end of a file that wasn't truncated, or a partial block
+        break;
+      }
+      byte blockType = file.readByte();
+      byte channelType = file.readByte();
+      long next = scanOffset + Integer.BYTES + blockSize;
+
+      if (blockType == DeflateLogWriter.kDictionaryBlock) {
+        byte[] dictionary = new byte[blockSize - DeflateLogWriter.kDictionaryHeaderSize];
+        file.readFully(dictionary);
+        dictionaries[channelType & 0xFF] = dictionary;
+        scanOffset = next;
+        continue;
+      }
+
+      file.skipBytes(2);    // reserved
+      int streamSize = Integer.reverseBytes(file.readInt());
+      long streamOffset = Long.reverseBytes(file.readLong());
+      if (size == fileOffsets.length) {
+        fileOffsets   = Arrays.copyOf(fileOffsets, 2 * size);
+        deflatedSizes = Arrays.copyOf(deflatedSizes, 2 * size);
+        streamOffsets = Arrays.copyOf(streamOffsets, 2 * size);
+        streamSizes   = Arrays.copyOf(streamSizes, 2 * size);
+        channelTypes  = Arrays.copyOf(channelTypes, 2 * size);
+      }
+      fileOffsets[size]   = scanOffset + Integer.BYTES + DeflateLogWriter.kDataHeaderSize;
+      deflatedSizes[size] = blockSize - DeflateLogWriter.kDataHeaderSize;
+      streamOffsets[size] = streamOffset;
+      streamSizes[size]   = streamSize;
+      channelTypes[size]  = channelType;
+      size++;
+      scanOffset = next;
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Inflate block k, unless it is the one already inflated
+   */
+  private void load(final int k) throws IOException {
+    if (k == current) {
+      return;
+    }
+    if (deflated.length < deflatedSizes[k]) {
+      deflated = new byte[deflatedSizes[k]];
+    }
+    if (inflated.length < streamSizes[k]) {
+      inflated = new byte[streamSizes[k]];
+    }
+    file.seek(fileOffsets[k]);
+    file.readFully(deflated, 0, deflatedSizes[k]);
+
+    current = -1;
+    inflater.reset();
+    inflater.setInput(deflated, 0, deflatedSizes[k]);
+    try {
+      int n = 0;
+      while (n < streamSizes[k] && !inflater.finished()) {
+        if (inflater.needsDictionary()) {
+          byte[] dictionary = (channelTypes[k] != DeflateLogWriter.kNoDictionary) ? dictionaries[channelTypes[k] & 0xFF] : null;
+          if (dictionary == null) {
+            throw new IOException("Missing dictionary for channel " + channelTypes[k]);
+          }
+          inflater.setDictionary(dictionary);
+        }
+        int inflatedBytes = inflater.inflate(inflated, n, streamSizes[k] - n);
+        if (inflatedBytes == 0 && inflater.needsInput()) {
+          break;
+        }
+        n += inflatedBytes;
+      }
+      if (n != streamSizes[k]) {
+        throw new IOException("Block at " + fileOffsets[k] + " inflated to " + n + " bytes, expected " + streamSizes[k]);
+      }
+    } catch (DataFormatException e) {
+      throw new IOException(e);
+    }
+    current = k;
+  }
+
+  void close() {
+    inflater.end();
+  }
+}
@@ -0,0 +1,308 @@
+package frc.taurus.logger;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+
+import frc.taurus.logger.generated.Packet;
+import frc.taurus.logger.generated.PacketFormat;
+
+/**
+ * Deflates the packets of a log file in blocks before they reach the file
+ * (see Compression in LogFileHeader.fbs).  FlatBuffersLogger puts one in
+ * front of its writer, after the LogFileHeader, when the header asks for
+ * Compression.Deflate.
+ *
+ * Packets are copied into a block on the caller's thread.  Full blocks are
+ * deflated and written to the file on a background thread, so neither
+ * deflate nor a slow USB drive holds up the LoggerThread.  The LoggerThread
+ * only waits if every block is still waiting to be deflated.
+ *
+ * Every block is deflated on its own, so a reader can inflate any block
+ * without the ones before it.  Small blocks compress poorly without the
+ * history of the blocks before them, so each block is primed with a
+ * dictionary: the first packet that was logged on the channel of the
+ * block's first packet.  Packets on the same channel have the same layout,
+ * and mostly the same values, so even the first packet of a block
+ * compresses well.  Each dictionary is written to the file ahead of the
+ * first block that uses it.
+ */
+class DeflateLogWriter implements BinaryLogWriter {
+
+  static final int kDefaultBlockSize = 16 * 1024;   // 16 kB, before deflating
+  static final int kNumBlocks = 4;                  // blocks being filled or waiting to be deflated
+  static final int kLevel = Deflater.BEST_SPEED;    // the roboRIO has little CPU to spare
+
+  static final byte kDictionaryBlock = 0;
+  static final byte kDataBlock = 1;
+  static final byte kNoDictionary = -1;
+  static final int kDictionaryHeaderSize = 2;       // after the size prefix: block_type, channel_type
+  static final int kDataHeaderSize = 16;            // after the size prefix: block_type ... offset
+
+  // one low priority thread deflates the blocks of all files, in order
+  private static final ExecutorService deflateExecutor = Executors.newSingleThreadExecutor(r -> {
+    Thread thread = new Thread(r, "LogDeflateThread");
+    thread.setDaemon(true);
+    thread.setPriority(Thread.MIN_PRIORITY);
+    return thread;
+  });
+
+  final BinaryLogWriter out;
+  final byte packetFormat;
+  final int blockSize;
+
+  // caller's thread
+  final ArrayBlockingQueue<ByteBuffer> freeBlocks;
+  ByteBuffer block;                 // being filled
+  byte blockChannelType;            // channel of the first packet in block
+  long blockOffset;                 // offset of block in the packet stream
+  long position;                    // offset of the next packet in the packet stream
+  final byte[][] dictionaries = new byte[256][];
+  final boolean[] dictionaryWritten = new boolean[256];
+  Future<?> lastTask = null;
+  boolean closed = false;
+
+  // deflate thread
+  final Deflater deflater = new Deflater(kLevel);
+  ByteBuffer deflated;
+  final ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + kDataHeaderSize).order(ByteOrder.LITTLE_ENDIAN);
+
+  DeflateLogWriter(final BinaryLogWriter out, final byte packetFormat) {
+    this(out, packetFormat, kDefaultBlockSize);
+  }
+
+  /**
+   * @param out          writer positioned just past the LogFileHeader
+   * @param packetFormat how the packets written to this writer are framed
+   * @param blockSize    bytes of packets per block (a larger packet gets a
+   *                     block of its own)
+   */
+  DeflateLogWriter(final BinaryLogWriter out, final byte packetFormat, final int blockSize) {
+    this.out = out;
+    this.packetFormat = packetFormat;
+    this.blockSize = blockSize;
+    freeBlocks = new ArrayBlockingQueue<>(kNumBlocks);
+    for (int k = 0; k < kNumBlocks; k++) {
+      freeBlocks.add(ByteBuffer.allocate(blockSize));
+    }
+    block = freeBlocks.poll();
+    position = out.position();
+    blockOffset = position;
+    deflated = ByteBuffer.allocate(blockSize + blockSize / 8 + 64);
+  }
+
+  /**
+   * Write one packet.  Advances the position of bb.
+   */
+  public void write(final ByteBuffer bb) {
+    append(bb, null, null, 0, 0);
+  }
+
+  /**
+   * Write one packet, in two parts.  Advances the position of both buffers.
+   */
+  public void write(final ByteBuffer header, final ByteBuffer payload) {
+    append(header, payload, null, 0, 0);
+  }
+
+  /**
+   * Write one packet, its payload from an array.  Advances the position of
+   * header.
+   */
+  public void write(final ByteBuffer header, final byte[] array, final int offset, final int length) {
+    append(header, null, array, offset, length);
+  }
+
+  // first, followed by second or by length bytes of array (or by nothing)
+  private void append(final ByteBuffer first, final ByteBuffer second, final byte[] array, final int offset,
+      final int length) {
+    if (closed) {
+      return;
+    }
+    int secondSize = (second != null) ? second.remaining() : (array != null) ? length : 0;
+    int size = first.remaining() + secondSize;
+    if (size > block.remaining()) {
+      seal();
+      if (size > block.capacity()) {
+        freeBlocks.offer(block);
+        block = ByteBuffer.allocate(size);    // not returned to freeBlocks
+      }
+    }
+
+    byte channelType = channelType(first);
+    int type = channelType & 0xFF;
+    if (dictionaries[type] == null) {
+      // the first packet on each channel is its dictionary
+      byte[] dictionary = new byte[size];
+      first.duplicate().get(dictionary, 0, first.remaining());
+      if (second != null) {
+        second.duplicate().get(dictionary, first.remaining(), second.remaining());
+      } else if (array != null) {
+        System.arraycopy(array, offset, dictionary, first.remaining(), length);
+      }
+      dictionaries[type] = dictionary;
+    }
+    if (block.position() == 0) {
+      blockChannelType = channelType;
+    }
+
+    block.put(first);
+    if (second != null) {
+      block.put(second);
+    } else if (array != null) {
+      block.put(array, offset, length);
+    }
+    position += size;
+  }
+
+  /**
+   * @param bb start of a packet, with its size prefix
+   */
+  private byte channelType(final ByteBuffer bb) {
+    int pos = bb.position();
+    if (packetFormat != PacketFormat.FlatBufferPacket) {
+      // RawFrame or DeltaFrame
+      return bb.get(pos + Integer.BYTES + Integer.BYTES);   // after size prefix and packet_count
+    }
+    ByteBuffer packet = bb.duplicate();
+    packet.position(pos + Integer.BYTES);
+    return Packet.getRootAsPacket(packet).channelType();
+  }
+
+  /**
+   * Hand the block being filled to the deflate thread, and start a new one
+   */
+  private void seal() {
+    if (block.position() == 0) {
+      return;
+    }
+    final ByteBuffer full = block;
+    final long offset = blockOffset;
+    final byte channelType = blockChannelType;
+    final int type = channelType & 0xFF;
+    final byte[] dictionary = dictionaries[type];
+    final boolean writeDictionary = !dictionaryWritten[type];
+    dictionaryWritten[type] = true;
+
+    full.flip();
+    lastTask = deflateExecutor.submit(() -> {
+      try {
+        if (writeDictionary) {
+          writeDictionary(channelType, dictionary);
+        }
+        writeBlock(full, offset, channelType, dictionary);
+      } catch (RuntimeException e) {
+        e.printStackTrace();
+      } finally {
+        if (full.capacity() == blockSize) {
+          full.clear();
+          freeBlocks.offer(full);
+        }
+      }
+    });
+
+    try {
+      block = freeBlocks.take();   // waits if every block is still being deflated
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      block = ByteBuffer.allocate(blockSize);
+    }
+    blockOffset = position;
+  }
+
+  // deflate thread
+  private void writeDictionary(final byte channelType, final byte[] dictionary) {
+    ByteBuffer bb = ByteBuffer.allocate(Integer.BYTES + kDictionaryHeaderSize + dictionary.length).order(ByteOrder.LITTLE_ENDIAN);
+    bb.putInt(kDictionaryHeaderSize + dictionary.length);
+    bb.put(kDictionaryBlock);
+    bb.put(channelType);
+    bb.put(dictionary);
+    bb.flip();
+    out.write(bb);
+  }
+
+  // deflate thread
+  private void writeBlock(final ByteBuffer bb, final long offset, final byte channelType, final byte[] dictionary) {
+    int size = bb.remaining();
+    deflater.reset();
+    if (dictionary != null) {
+      deflater.setDictionary(dictionary);
+    }
+    deflater.setInput(bb);
+    deflater.finish();
+    deflated.clear();
+    while (!deflater.finished()) {
+      if (!deflated.hasRemaining()) {
+        ByteBuffer larger = ByteBuffer.allocate(2 * deflated.capacity());
+        deflated.flip();
+        larger.put(deflated);
+        deflated = larger;
+      }
+      deflater.deflate(deflated);
+    }
+    deflated.flip();
+
+    header.clear();
+    header.putInt(kDataHeaderSize + deflated.remaining());
+    header.put(kDataBlock);
+    header.put((dictionary != null) ? channelType : kNoDictionary);
+    header.putShort((short)0);
+    header.putInt(size);
+    header.putLong(offset);
+    header.flip();
+    out.write(header, deflated);
+  }
+
+  /**
+   * @return offset of the next packet in the packet stream, i.e. the file
+   *         offset it would have if the file wasn't compressed
+   */
+  public long position() {
+    return position;
+  }
+
+  public File getFile() {
+    return out.getFile();
+  }
+
+  /**
+   * Deflate what has been written so far, and flush it to the file (in the
+   * background)
+   */
+  public void flush() {
+    if (closed) {
+      return;
+    }
+    seal();
+    lastTask = deflateExecutor.submit(out::flush);
+  }
+
+  /**
+   * Deflate and write the last block, and close the file.  Waits for the
+   * deflate thread to finish with this file.
+   */
+  public void close() {
+    if (closed) {
+      return;
+    }
+    seal();
+    closed = true;
+    lastTask = deflateExecutor.submit(() -> {
+      out.close();
+      deflater.end();
+    });
+    try {
+      lastTask.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      e.printStackTrace();
+    }
+  }
+}
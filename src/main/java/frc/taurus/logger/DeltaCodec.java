@@ -0,0 +1,245 @@
+package frc.taurus.logger;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * Delta encoding of the payloads in a DeltaFrame log (see PacketFormat in
+ * LogFileHeader.fbs).
+ *
+ * Consecutive messages on a channel have the same layout, and most of their
+ * values don't change from one loop to the next, so most bytes of a payload
+ * are the same as in the previous payload on its channel.  A delta payload
+ * is the XOR of the payload with the previous one, run-length encoded as a
+ * sequence of
+ *   varint  zeros      number of unchanged bytes
+ *   varint  changed    number of changed bytes
+ *   [ubyte] xor        the changed bytes, XOR'd with the previous payload
+ *
+ * A payload is written as a keyframe (as it is) when its channel has no
+ * previous payload, when it is a different size, when the delta wouldn't be
+ * any smaller, or every keyframeInterval packets on its channel.  Every
+ * kResyncInterval packets in the file all channels start over with a
+ * keyframe, so a reader can start decoding there (the index entries of a
+ * DeltaFrame file are put on these packets).
+ *
+ * Each channel has a chain of deltas of its own, keyed by channel_type and
+ * stream: the channel's place among the channels of the file that share its
+ * channel_type (e.g. the joystick port channels), which is written in the
+ * frame.  Past kMaxStreams, channels of a type share the last chain.
+ */
+class DeltaCodec {
+
+  static final byte kKeyframe = 0;
+  static final byte kDelta = 1;
+  static final int kDefaultKeyframeInterval = 32;
+  static final int kResyncInterval = 64;        // packets between restarts of every chain
+  static final int kMaxStreams = 4;             // chains per channel_type
+
+  final int keyframeInterval;
+  final byte[][] previous = new byte[256 * kMaxStreams][];   // previous payload on each chain
+  final int[] previousSize = new int[256 * kMaxStreams];
+  final int[] sinceKeyframe = new int[256 * kMaxStreams];
+
+  byte encoding;                                // of the last payload encoded
+  byte[] encoded = new byte[256];
+  ByteBuffer encodedView = ByteBuffer.wrap(encoded);   // returned by encode(), re-used
+
+  DeltaCodec() {
+    this(kDefaultKeyframeInterval);
+  }
+
+  DeltaCodec(final int keyframeInterval) {
+    this.keyframeInterval = keyframeInterval;
+    reset();
+  }
+
+  /**
+   * @return interval rounded up to a multiple of kResyncInterval, for the
+   *         index of a DeltaFrame file
+   */
+  static int alignToResync(final int interval) {
+    return ((interval + kResyncInterval - 1) / kResyncInterval) * kResyncInterval;
+  }
+
+  // chain of channelType's stream'th channel
+  private static int chain(final byte channelType, final int stream) {
+    return (Math.min(stream, kMaxStreams - 1) << 8) | (channelType & 0xFF);
+  }
+
+  /**
+   * Forget all previous payloads: the next payload on every channel is a
+   * keyframe
+   */
+  void reset() {
+    Arrays.fill(previousSize, -1);
+  }
+
+  /**
+   * @return kKeyframe or kDelta, for the payload last returned by encode()
+   */
+  byte encoding() {
+    return encoding;
+  }
+
+  /**
+   * Encode payload, without changing its position.  Allocates nothing once
+   * the buffers have grown to the largest payload.
+   *
+   * @return the bytes to write: payload itself for a keyframe, or a delta
+   *         that is valid until the next call
+   */
+  ByteBuffer encode(final byte channelType, final int stream, final ByteBuffer payload) {
+    int type = chain(channelType, stream);
+    int size = payload.remaining();
+    byte[] prev = previous[type];
+
+    int n = -1;
+    if (prev != null && previousSize[type] == size && sinceKeyframe[type] < keyframeInterval) {
+      n = encodeDelta(payload, prev, size);
+    }
+
+    // remember this payload for the next one
+    if (prev == null || prev.length < size) {
+      prev = previous[type] = new byte[Math.max(size, 64)];
+    }
+    copy(payload, prev, size);
+    previousSize[type] = size;
+
+    if (n < 0) {
+      encoding = kKeyframe;
+      sinceKeyframe[type] = 0;
+      return payload;
+    }
+    encoding = kDelta;
+    sinceKeyframe[type]++;
+    encodedView.clear();
+    encodedView.limit(n);
+    return encodedView;
+  }
+
+  // absolute reads: payload's position is left alone
+  private static void copy(final ByteBuffer payload, final byte[] dst, final int size) {
+    final int pos = payload.position();
+    if (payload.hasArray()) {
+      System.arraycopy(payload.array(), payload.arrayOffset() + pos, dst, 0, size);
+    } else {
+      for (int k = 0; k < size; k++) {
+        dst[k] = payload.get(pos + k);
+      }
+    }
+  }
+
+  /**
+   * @return size of the delta in encoded, or -1 if it isn't smaller than the
+   *         payload
+   */
+  private int encodeDelta(final ByteBuffer payload, final byte[] prev, final int size) {
+    if (encoded.length < size + 16) {
+      encoded = new byte[2 * size + 16];
+      encodedView = ByteBuffer.wrap(encoded);
+    }
+    int pos = payload.position();
+    int out = 0;
+    int i = 0;
+    while (i < size) {
+      int zerosStart = i;
+      while (i < size && payload.get(pos + i) == prev[i]) {
+        i++;
+      }
+      int changedStart = i;
+      // a single unchanged byte costs less as part of the changed run than
+      // as a run of its own
+      while (i < size && (payload.get(pos + i) != prev[i]
+                          || (i + 1 < size && payload.get(pos + i + 1) != prev[i + 1]))) {
+        i++;
+      }
+      out = putVarint(encoded, out, changedStart - zerosStart);
+      out = putVarint(encoded, out, i - changedStart);
+      if (out + (i - changedStart) >= size) {
+        return -1;
+      }
+      for (int k = changedStart; k < i; k++) {
+        encoded[out++] = (byte)(payload.get(pos + k) ^ prev[k]);
+      }
+    }
+    return (out < size) ? out : -1;
+  }
+
+  /**
+   * Decode a payload.
+   *
+   * @return a new buffer holding the full payload
+   */
+  ByteBuffer decode(final byte channelType, final int stream, final byte frameEncoding, final ByteBuffer data) {
+    int type = chain(channelType, stream);
+    byte[] payload;
+
+    if (frameEncoding == kKeyframe) {
+      payload = new byte[data.remaining()];
+      data.duplicate().get(payload);
+    } else {
+      if (previousSize[type] < 0 || previous[type] == null) {
+        throw new IllegalStateException("Delta with no keyframe before it on channel type " + channelType
+            + ", stream " + stream);
+      }
+      int size = previousSize[type];
+      payload = Arrays.copyOf(previous[type], size);
+      int in = data.position();
+      int end = data.limit();
+      int i = 0;
+      int[] varint = new int[1];
+      while (in < end) {
+        in = getVarint(data, in, varint);
+        i += varint[0];
+        in = getVarint(data, in, varint);
+        for (int k = 0; k < varint[0]; k++) {
+          payload[i++] ^= data.get(in++);
+        }
+      }
+    }
+
+    if (previous[type] == null || previous[type].length < payload.length) {
+      previous[type] = new byte[Math.max(payload.length, 64)];
+    }
+    System.arraycopy(payload, 0, previous[type], 0, payload.length);
+    previousSize[type] = payload.length;
+    return ByteBuffer.wrap(payload).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  /**
+   * Decode a DeltaFrame (a RawFrame whose reserved bytes hold the encoding)
+   *
+   * @param frame a DeltaFrame with its size prefix already removed
+   */
+  LogPacket decodeFrame(final ByteBuffer frame) {
+    LogPacket packet = LogPacket.fromRawFrame(frame);
+    byte frameEncoding = frame.get(frame.position() + LogPacket.kEncodingOffset);
+    int stream = frame.get(frame.position() + LogPacket.kStreamOffset) & 0xFF;
+    packet.payload = decode(packet.channelType, stream, frameEncoding, packet.payload);
+    return packet;
+  }
+
+  private static int putVarint(final byte[] dst, int out, int value) {
+    while ((value & ~0x7F) != 0) {
+      dst[out++] = (byte)((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    dst[out++] = (byte)value;
+    return out;
+  }
+
+  private static int getVarint(final ByteBuffer src, int in, final int[] value) {
+    int result = 0;
+    int shift = 0;
+    byte b;
+    do {
+      b = src.get(in++);
+      result |= (b & 0x7F) << shift;
+      shift += 7;
+    } while ((b & 0x80) != 0);
+    value[0] = result;
+    return in;
+  }
+}
@@ -6,13 +6,27 @@ import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.util.function.Predicate;
 
 import com.google.flatbuffers.ByteBufferUtil;
 
+import frc.taurus.logger.generated.Compression;
+import frc.taurus.logger.generated.LogFileHeader;
+import frc.taurus.logger.generated.Packet;
+import frc.taurus.logger.generated.PacketFormat;
+
 public class FlatBuffersLogReader {
 
   File file;
   RandomAccessFile raFile;
+  LogFileHeader fileHeader = null;   // first table in the file
+  byte packetFormat = PacketFormat.FlatBufferPacket;
+  long dataStart = 0;                // file offset of the first packet
+  DeflateBlockReader blocks = null;  // reads the packets of a compressed file
+  DeltaCodec deltas = null;          // decodes the packets of a DeltaFrame file
+  LogPacket pendingPacket = null;    // found by seek(), returned by the next getNextPacket()
+  LogFileIndex index = null;         // read from <filename>.idx by the first seek()
+  boolean indexRead = false;
 
   public FlatBuffersLogReader(final String filename) {
     this(filename, false);
@@ -36,17 +50,173 @@ public class FlatBuffersLogReader {
     byte bytes[] = new byte[0];
     try {
       final byte[] prefix = new byte[4];  // prefix is always 4 bytes
-      raFile.readFully(prefix);           // get prefix
+      readFully(prefix);                  // get prefix
       final int tableSize = ByteBufferUtil.getSizePrefix(ByteBuffer.wrap(prefix).order(ByteOrder.LITTLE_ENDIAN));
       bytes = new byte[tableSize];
+      readFully(bytes);
+    } catch (final IOException e) {
+      e.printStackTrace();
+    }
+    ByteBuffer bb = ByteBuffer.wrap(bytes);
+    if (fileHeader == null && bytes.length > 0) {
+      // the first table is the header, which tells us how the packets are framed
+      fileHeader = LogFileHeader.getRootAsLogFileHeader(bb.duplicate());
+      packetFormat = fileHeader.packetFormat();
+      try {
+        dataStart = raFile.getFilePointer();
+      } catch (final IOException e) {
+        e.printStackTrace();
+      }
+      if (fileHeader.compression() == Compression.Deflate) {
+        blocks = new DeflateBlockReader(raFile, dataStart);
+      }
+      if (packetFormat == PacketFormat.DeltaFrame) {
+        deltas = new DeltaCodec();
+      }
+    }
+    return bb;
+  }
+
+  // the packets of a compressed file are read through blocks, at offsets
+  // into the packet stream instead of the file
+  private void readFully(final byte[] bytes) throws IOException {
+    if (blocks != null) {
+      blocks.readFully(bytes);
+    } else {
       raFile.readFully(bytes);
+    }
+  }
+
+  private long getPointer() throws IOException {
+    return (blocks != null) ? blocks.getPointer() : raFile.getFilePointer();
+  }
+
+  private void seekTo(final long offset) throws IOException {
+    if (blocks != null) {
+      blocks.seek(offset);
+    } else {
+      raFile.seek(offset);
+    }
+  }
+
+  private long length() throws IOException {
+    return (blocks != null) ? blocks.length() : raFile.length();
+  }
+
+  /**
+   * @return the LogFileHeader at the start of the file
+   */
+  public LogFileHeader getFileHeader() {
+    if (fileHeader == null) {
+      getNextTable();
+    }
+    return fileHeader;
+  }
+
+  /**
+   * Read the next packet, whichever PacketFormat the file was written with.
+   * Reads past the LogFileHeader if it hasn't been read yet.
+   * 
+   * @return next packet, or null at the end of the file
+   */
+  public LogPacket getNextPacket() {
+    getFileHeader();
+    if (pendingPacket != null) {
+      LogPacket packet = pendingPacket;
+      pendingPacket = null;
+      return packet;
+    }
+    ByteBuffer bb = getNextTable();
+    if (!bb.hasRemaining()) {
+      return null;
+    }
+    if (packetFormat == PacketFormat.RawFrame) {
+      return LogPacket.fromRawFrame(bb);
+    }
+    if (packetFormat == PacketFormat.DeltaFrame) {
+      return deltas.decodeFrame(bb);
+    }
+    return LogPacket.fromPacket(Packet.getRootAsPacket(bb));
+  }
+
+  /**
+   * Position the reader so that the next getNextPacket() returns the first
+   * packet with a timestamp at or after timestamp.
+   *
+   * Uses the index written next to the log file to skip straight to the
+   * right part of the file.  Logs without an index (older logs, or files
+   * that were never closed) are scanned from the start.
+   *
+   * @return false if there is no such packet (the reader is left at the end
+   *         of the file)
+   */
+  public boolean seek(final double timestamp) {
+    int entry = hasIndex() ? index.findTimestamp(timestamp) : -1;
+    return scanFrom(entry, packet -> packet.timestamp() >= timestamp);
+  }
+
+  /**
+   * Position the reader so that the next getNextPacket() returns the packet
+   * with the given packet count (or the first one after it, if it is missing)
+   *
+   * @return false if there is no such packet (the reader is left at the end
+   *         of the file)
+   */
+  public boolean seekPacket(final long packetCount) {
+    int entry = hasIndex() ? index.findPacket(packetCount) : -1;
+    return scanFrom(entry, packet -> packet.packetCount() >= packetCount);
+  }
+
+  /**
+   * @return true if the log file has an index for seek() to use
+   */
+  public boolean hasIndex() {
+    if (!indexRead) {
+      index = LogFileIndex.read(file);
+      indexRead = true;
+    }
+    return index != null;
+  }
+
+  /**
+   * Read forward from index entry (or from the first packet if entry < 0)
+   * and stop in front of the first packet found
+   */
+  private boolean scanFrom(final int entry, final Predicate<LogPacket> found) {
+    getFileHeader();
+    pendingPacket = null;
+    if (deltas != null) {
+      deltas.reset();   // every index entry starts with keyframes
+    }
+    try {
+      seekTo((entry >= 0) ? index.offset(entry) : dataStart);
+      final long length = length();
+      while (getPointer() + Integer.BYTES <= length) {
+        final long position = getPointer();
+        LogPacket packet = getNextPacket();
+        if (packet == null) {
+          break;    // zero size prefix: end of a file that wasn't truncated
+        }
+        if (found.test(packet)) {
+          if (deltas != null) {
+            pendingPacket = packet;   // its delta has been applied -- can't decode it again
+          } else {
+            seekTo(position);
+          }
+          return true;
+        }
+      }
+      seekTo(length);
     } catch (final IOException e) {
       e.printStackTrace();
     }
-    return ByteBuffer.wrap(bytes);
+    return false;
   }
 
   public void close() {
+    if (blocks != null) {
+      blocks.close();
+    }
     try {
       raFile.close();
     } catch (final IOException e) {
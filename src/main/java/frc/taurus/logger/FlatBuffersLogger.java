@@ -2,22 +2,39 @@ package frc.taurus.logger;
 
 import java.io.File;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
 import java.util.function.Supplier;
 
 import com.google.flatbuffers.FlatBufferBuilder;
 
 import frc.taurus.config.ChannelIntf;
 import frc.taurus.config.ChannelManager;
+import frc.taurus.config.generated.ChannelType;
+import frc.taurus.logger.generated.LogGap;
+import frc.taurus.logger.generated.Compression;
+import frc.taurus.logger.generated.LogFileHeader;
 import frc.taurus.logger.generated.Packet;
+import frc.taurus.logger.generated.PacketFormat;
+import frc.taurus.messages.BatchSink;
+import frc.taurus.messages.DirtyBitmap;
 import frc.taurus.messages.MessageQueue;
+import frc.taurus.messages.OverflowPolicy;
+import frc.taurus.util.Clock;
 
 /**
  * A log file is a sequence of size prefixed flatbuffers.
  * 
  * The first flatbuffer will be the LogFileHeader, followed by an arbitrary
- * number of MessageHeaders
+ * number of packets.  The LogFileHeader's packet_format says whether each
+ * packet is a Packet flatbuffer or a RawFrame, and its compression whether
+ * the packets are deflated (see DeflateLogWriter).
+ *
+ * Messages that were overwritten in their queue before the logger read them
+ * are recorded as a LogGap packet, just ahead of the next message on their
+ * channel.
  */
 
 public class FlatBuffersLogger {
@@ -27,73 +44,359 @@ public class FlatBuffersLogger {
   final Supplier<ByteBuffer> getFileHeaderCallback;
   SortedMap<ChannelIntf, MessageQueue<ByteBuffer>.QueueReader> channelReaderMap = new TreeMap<ChannelIntf, MessageQueue<ByteBuffer>.QueueReader>();
 
-  BinaryLogFileWriter writer;
-  int maxHeaderSize = 0;
+  // the same readers, indexed by channel number (see DirtyBitmap)
+  // several channels can share a number
+  final ArrayList<ArrayList<MessageQueue<ByteBuffer>.QueueReader>> numReaders = new ArrayList<>(DirtyBitmap.kNumBits);
+  final long[] channelMask = new long[DirtyBitmap.kNumWords];    // bits of the channels in this file
+
+  BinaryLogWriter writer;       // null once closed
+  boolean mappedFiles = false;  // use MappedLogFileWriter for the next file
+  final FlatBufferBuilder packetBuilder = new FlatBufferBuilder(1024);  // reused for every Packet -- grows as needed
   long packetCount = 0;
+  boolean headerWritten = false;
+
+  byte packetFormat = PacketFormat.FlatBufferPacket;      // format to use for the next file
+  byte filePacketFormat = PacketFormat.FlatBufferPacket;  // format of the current file
+  final ByteBuffer rawFrameHeader = ByteBuffer.allocate(LogPacket.kRawFrameHeaderSize);
+  ByteBuffer payloadCopy = ByteBuffer.allocate(256);    // see copyPayload(), grows to the largest payload
+  final DeltaCodec deltas = new DeltaCodec();   // DeltaFrame only
+
+  // written next to the log file when it is closed, for FlatBuffersLogReader.seek()
+  // (a new one for every file, so the last one can be written as the file is closed in the background)
+  LogFileIndex index;
+  final int indexInterval;
 
   public FlatBuffersLogger(ChannelManager channelManager, final String filename, final Supplier<ByteBuffer> getFileHeaderCallback) {
+    this(channelManager, filename, getFileHeaderCallback, LogFileIndex.kDefaultInterval);
+  }
+
+  /**
+   * @param indexInterval packets between entries of the log file's index
+   */
+  public FlatBuffersLogger(ChannelManager channelManager, final String filename, final Supplier<ByteBuffer> getFileHeaderCallback,
+                           final int indexInterval) {
     this.channelManager = channelManager;
     this.filename = filename;  
     this.getFileHeaderCallback = getFileHeaderCallback;
-    writer = new BinaryLogFileWriter(filename);
+    this.indexInterval = indexInterval;
+    this.index = new LogFileIndex(indexInterval);
+    writer = openWriter();
+    for (int k = 0; k < DirtyBitmap.kNumBits; k++) {
+      numReaders.add(null);
+    }
   }
 
   /**
    * Used to open the same log filename in a new folder (when switching to auto, teleop, or test)
    */
   public void relocate(final String suffix) {
-    writer.close();     // close old file
-    packetCount = 0;    // make sure new file writes a header
+    closeFile();        // close old file
+    packetCount = 0;
+    headerWritten = false;  // make sure new file writes a header
     LogFileWriterBase.updateLogFolderTimestamp(suffix);    
-    writer = new BinaryLogFileWriter(filename);
+    writer = openWriter();
+  }
+
+  /**
+   * Open the same log filename in folder without waiting on the file system:
+   * the old file is closed and the new one opened on fileExecutor, in that
+   * order.  Packets logged until the new file is open are held in memory (see
+   * PendingLogWriter), so the queues keep draining through the switch.
+   */
+  public void relocate(final File folder, final ExecutorService fileExecutor) {
+    closeFile(fileExecutor);
+    packetCount = 0;
+    headerWritten = false;
+    final File file = new File(folder, filename);
+    final boolean mapped = mappedFiles;
+    writer = new PendingLogWriter(fileExecutor.submit(() -> openWriter(file, mapped)), file);
+  }
+
+  private BinaryLogWriter openWriter() {
+    if (mappedFiles) {
+      return new MappedLogFileWriter(filename);
+    }
+    return new BinaryLogFileWriter(filename);
+  }
+
+  private static BinaryLogWriter openWriter(final File file, final boolean mapped) {
+    file.getParentFile().mkdirs();
+    if (mapped) {
+      return new MappedLogFileWriter(file, MappedLogFileWriter.kDefaultSegmentSize, MappedLogFileWriter.kDefaultForcePeriodMs);
+    }
+    return new BinaryLogFileWriter(file);
+  }
+
+  /**
+   * Select PacketFormat.FlatBufferPacket, PacketFormat.RawFrame or
+   * PacketFormat.DeltaFrame.  Takes effect when the next file is started.
+   */
+  public void setPacketFormat(final byte packetFormat) {
+    this.packetFormat = packetFormat;
+  }
+
+  /**
+   * Write files through memory-mapped segments (MappedLogFileWriter) instead
+   * of FileChannel writes.  Takes effect when the next file is started.
+   */
+  public void setMappedFiles(final boolean mappedFiles) {
+    this.mappedFiles = mappedFiles;
   }
 
   public void register(ChannelIntf channel) {
+    register(channel, OverflowPolicy.OVERWRITE);
+  }
+
+  /**
+   * @param policy what happens when the logger falls behind on the
+   *               channel (see LoggerManager.setOverflowPolicy())
+   */
+  public void register(ChannelIntf channel, final OverflowPolicy policy) {
     MessageQueue<ByteBuffer> queue = channelManager.fetch(channel);
-    MessageQueue<ByteBuffer>.QueueReader reader = queue.makeReader();
+    MessageQueue<ByteBuffer>.QueueReader reader = queue.makeReader(policy);
     channelReaderMap.put(channel, reader);
+
+    int num = channel.getNum() & 0xFF;
+    if (numReaders.get(num) == null) {
+      numReaders.set(num, new ArrayList<>());
+    }
+    numReaders.get(num).add(reader);
+    channelMask[num >>> 6] |= 1L << (num & 63);
   }
 
+  /**
+   * Write all new messages on all channels
+   */
   public void update() {
-    if (packetCount == 0) {
-      // write file header before writing first packet
-      writer.write(getFileHeaderCallback.get());
-    }
+    writeHeaderIfNeeded();
     for (var channel : channelReaderMap.keySet()) {
-      var channelType = channel.getNum();
       var reader = channelReaderMap.get(channel);
-      while (!reader.isEmpty()) {
-        byte queueSize = (byte)reader.size();
-        ByteBuffer bb = reader.read().get(); // we know Optional::isPresent() is true because of earlier !isEmpty()
-        writePacket(channelType, queueSize, bb); // write to file
+      drain(channel.getNum(), numReaders.get(channel.getNum() & 0xFF).indexOf(reader), reader);
+    }
+  }
+
+  /**
+   * Write new messages, visiting only the channels set in dirty
+   *
+   * @param dirty snapshot of the ChannelManager's DirtyBitmap
+   */
+  public void update(final long[] dirty) {
+    writeHeaderIfNeeded();
+    for (int word = 0; word < DirtyBitmap.kNumWords; word++) {
+      long bits = dirty[word] & channelMask[word];
+      while (bits != 0) {
+        int num = (word << 6) + Long.numberOfTrailingZeros(bits);
+        bits &= bits - 1;   // clear lowest set bit
+        var readers = numReaders.get(num);
+        for (int stream = 0; stream < readers.size(); stream++) {
+          drain((byte)num, stream, readers.get(stream));
+        }
+      }
+    }
+  }
+
+  private void writeHeaderIfNeeded() {
+    if (!headerWritten && writer != null) {
+      // write file header before writing first packet
+      filePacketFormat = packetFormat;
+      ByteBuffer fileHeader = getFileHeaderCallback.get();
+      writer.write(fileHeader.duplicate());
+      headerWritten = true;
+
+      // the header is never compressed, but the packets after it may be
+      fileHeader.position(fileHeader.position() + Integer.BYTES);   // skip size prefix
+      if (LogFileHeader.getRootAsLogFileHeader(fileHeader).compression() == Compression.Deflate) {
+        writer = new DeflateLogWriter(writer, filePacketFormat);
+      }
+
+      // a DeltaFrame file can only be decoded from where every channel
+      // starts over with a keyframe, so put the index entries there
+      int interval = (filePacketFormat == PacketFormat.DeltaFrame) ? DeltaCodec.alignToResync(indexInterval)
+                                                                   : indexInterval;
+      if (index.interval != interval) {
+        index = new LogFileIndex(interval);
       }
     }
-    // writer.flush();
+  }
+
+  // drain() passes each message to writePacket() through this sink
+  byte drainChannelType;
+  int drainStream;
+  MessageQueue<ByteBuffer>.QueueReader drainReader;
+  int drainSkipped;     // drainReader's skipped messages already logged as a LogGap
+  final BatchSink<ByteBuffer> drainSink = (bb, remaining) -> {
+    logGap(LogPacket.getTimestamp(bb));     // lost just before this message
+    writePacket(drainChannelType, drainStream, (byte)Math.min(remaining, 255), bb);   // queue_size is a ubyte
+  };
+  final FlatBufferBuilder gapBuilder = new FlatBufferBuilder(64);
+
+  /**
+   * @param stream place of the channel among the channels of this file that
+   *               share its number (see DeltaCodec)
+   */
+  private void drain(final byte channelType, final int stream, final MessageQueue<ByteBuffer>.QueueReader reader) {
+    drainChannelType = channelType;
+    drainStream = stream;
+    drainReader = reader;
+    drainSkipped = reader.skippedCount();    // only drain() reads from reader
+    reader.drainTo(drainSink, Integer.MAX_VALUE);   // whole backlog in one batch
+    logGap(Clock.getTimestamp());           // lost at the end of the batch
+  }
+
+  /**
+   * Log a LogGap if drainReader has skipped messages since the last one
+   */
+  private void logGap(final double timestamp) {
+    int skipped = drainReader.skippedCount();
+    if (skipped != drainSkipped) {
+      writeGap(drainChannelType, skipped - drainSkipped, timestamp);
+      drainSkipped = skipped;
+    }
+  }
+
+  void writeGap(final byte channelType, final int skipped, final double timestamp) {
+    gapBuilder.clear();
+    int offset = LogGap.createLogGap(gapBuilder, timestamp, channelType, skipped);
+    LogGap.finishLogGapBuffer(gapBuilder, offset);
+    writePacket(ChannelType.LogGap, (byte)0, gapBuilder.dataBuffer());
   }
 
   public void writePacket(final byte channelType, final byte queueSize, final ByteBuffer bbPayload) {
-    int payloadSize = bbPayload.remaining();
+    writePacket(channelType, 0, queueSize, bbPayload);
+  }
 
-    FlatBufferBuilder builder = new FlatBufferBuilder(maxHeaderSize + payloadSize);
+  void writePacket(final byte channelType, final int stream, final byte queueSize, final ByteBuffer bbPayload) {
+    if (writer == null) {
+      return;   // closed: nothing is logged until the next relocate()
+    }
+    index.add(packetCount, channelType, LogPacket.getTimestamp(bbPayload), writer.position());
+    if (filePacketFormat == PacketFormat.RawFrame) {
+      writeRawFrame(channelType, queueSize, bbPayload);
+    } else if (filePacketFormat == PacketFormat.DeltaFrame) {
+      writeDeltaFrame(channelType, stream, queueSize, bbPayload);
+    } else {
+      writeFlatBufferPacket(channelType, queueSize, bbPayload);
+    }
+  }
+
+  /**
+   * Write a fixed size header followed by the payload bytes straight from the
+   * queue's ByteBuffer -- no intermediate flatbuffer
+   */
+  void writeRawFrame(final byte channelType, final byte queueSize, final ByteBuffer bbPayload) {
+    final int size = bbPayload.remaining();
+    rawFrameHeader.clear();
+    LogPacket.putRawFrameHeader(rawFrameHeader, packetCount++, channelType, queueSize & 0xFF, size);
+    rawFrameHeader.flip();
+
+    if (bbPayload.hasArray()) {
+      // copied once, straight out of the array, leaving the shared buffer's position alone
+      writer.write(rawFrameHeader, bbPayload.array(), bbPayload.arrayOffset() + bbPayload.position(), size);
+    } else {
+      writer.write(rawFrameHeader, copyPayload(bbPayload));
+    }
+  }
+
+  /**
+   * Write a RawFrame header followed by the payload, or its delta against
+   * the previous payload on the same channel (see DeltaCodec)
+   */
+  void writeDeltaFrame(final byte channelType, final int stream, final byte queueSize, final ByteBuffer bbPayload) {
+    if (packetCount % DeltaCodec.kResyncInterval == 0) {
+      // every channel starts over with a keyframe: seek() can start decoding here
+      deltas.reset();
+    }
+    ByteBuffer payload = deltas.encode(channelType, stream, copyPayload(bbPayload));
+
+    rawFrameHeader.clear();
+    LogPacket.putRawFrameHeader(rawFrameHeader, packetCount++, channelType, queueSize & 0xFF, payload.remaining(),
+        deltas.encoding(), Math.min(stream, DeltaCodec.kMaxStreams - 1));
+    rawFrameHeader.flip();
+
+    writer.write(rawFrameHeader, payload);
+  }
+
+  /**
+   * Copy the payload into payloadCopy, with absolute reads, for the formats
+   * that need a private copy (DeltaFrame, FlatBufferPacket) and for payloads
+   * with no array.  The queue's ByteBuffer is shared with readers on other
+   * threads, so its position must never move, even for a moment.
+   *
+   * @return payloadCopy, holding the payload, valid until the next call
+   */
+  ByteBuffer copyPayload(final ByteBuffer bbPayload) {
+    final int size = bbPayload.remaining();
+    if (payloadCopy.capacity() < size) {
+      payloadCopy = ByteBuffer.allocate(Math.max(size, 2 * payloadCopy.capacity()));
+    }
+    payloadCopy.clear();
+    final int pos = bbPayload.position();
+    if (bbPayload.hasArray()) {
+      payloadCopy.put(bbPayload.array(), bbPayload.arrayOffset() + pos, size);
+    } else {
+      for (int k = 0; k < size; k++) {
+        payloadCopy.put(bbPayload.get(pos + k));
+      }
+    }
+    payloadCopy.flip();
+    return payloadCopy;
+  }
+
+  void writeFlatBufferPacket(final byte channelType, final byte queueSize, final ByteBuffer bbPayload) {
+    // the packet is copied out by writer.write() before the builder is reused
+    FlatBufferBuilder builder = packetBuilder;
+    builder.clear();
 
     // Create Payload
-    // important: need to make a read-only copy so the position of the 
-    // original buffer isn't modified
-    int dataOffset = Packet.createPayloadVector(builder, bbPayload.asReadOnlyBuffer());
+    int dataOffset = Packet.createPayloadVector(builder, copyPayload(bbPayload));
 
     // Create Packet
     int offset = Packet.createPacket(builder, packetCount++, channelType, queueSize, dataOffset);
     Packet.finishSizePrefixedPacketBuffer(builder, offset); // add size prefix to files
     ByteBuffer bb_packet = builder.dataBuffer();
 
-    maxHeaderSize = Math.max(maxHeaderSize, bb_packet.remaining() - payloadSize);
-
     // write Packet to file
     writer.write(bb_packet);
   }
 
   public void close() {
+    closeFile();
+  }
+
+  /**
+   * Close the file on fileExecutor, so the caller doesn't wait for the last
+   * of it to be written
+   */
+  public void close(final ExecutorService fileExecutor) {
+    closeFile(fileExecutor);
+  }
+
+  private void closeFile() {
+    if (writer == null) {
+      return;
+    }
+    if (headerWritten) {
+      index.write(writer.getFile());
+    }
     writer.close();
+    writer = null;
+    index.clear();
+  }
+
+  private void closeFile(final ExecutorService fileExecutor) {
+    if (writer == null) {
+      return;
+    }
+    final BinaryLogWriter oldWriter = writer;
+    final LogFileIndex oldIndex = headerWritten ? index : null;
+    fileExecutor.submit(() -> {
+      if (oldIndex != null) {
+        oldIndex.write(oldWriter.getFile());
+      }
+      oldWriter.close();
+    });
+    writer = null;
+    index = new LogFileIndex(indexInterval);
   }
 
 }
\ No newline at end of file
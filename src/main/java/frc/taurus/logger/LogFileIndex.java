@@ -0,0 +1,181 @@
+package frc.taurus.logger;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import com.google.flatbuffers.FlatBufferBuilder;
+
+import frc.taurus.logger.generated.IndexEntry;
+import frc.taurus.logger.generated.LogIndex;
+
+/**
+ * Sparse index of a log file: the timestamp, packet count, file offset and
+ * channel of every interval'th packet (see LogIndex.fbs).
+ *
+ * FlatBuffersLogger adds every packet as it is written, and writes the index
+ * next to the log file as <log filename>.idx when the file is closed.
+ * FlatBuffersLogReader reads it back to seek() without scanning the file from
+ * the start.
+ */
+class LogFileIndex {
+
+  static final String kSuffix = ".idx";
+  static final int kDefaultInterval = 64;    // packets between entries
+  static final int kInitialCapacity = 256;
+
+  final int interval;
+  int size = 0;
+  double[] timestamps = new double[kInitialCapacity];
+  long[] offsets = new long[kInitialCapacity];
+  long[] packetCounts = new long[kInitialCapacity];
+  byte[] channelTypes = new byte[kInitialCapacity];
+  double maxTimestamp = Double.NEGATIVE_INFINITY;  // highest timestamp added so far
+
+  LogFileIndex(final int interval) {
+    this.interval = interval;
+  }
+
+  void clear() {
+    size = 0;
+    maxTimestamp = Double.NEGATIVE_INFINITY;
+  }
+
+  /**
+   * Called for every packet written.  Only every interval'th packet gets an
+   * entry.
+   *
+   * @param offset file offset of the packet's size prefix
+   */
+  void add(final long packetCount, final byte channelType, final double timestamp, final long offset) {
+    maxTimestamp = Math.max(maxTimestamp, timestamp);
+    if (packetCount % interval != 0) {
+      return;
+    }
+    if (size == timestamps.length) {
+      int capacity = Math.max(kInitialCapacity, 2 * size);
+      timestamps   = Arrays.copyOf(timestamps, capacity);
+      offsets      = Arrays.copyOf(offsets, capacity);
+      packetCounts = Arrays.copyOf(packetCounts, capacity);
+      channelTypes = Arrays.copyOf(channelTypes, capacity);
+    }
+    timestamps[size]   = maxTimestamp;
+    offsets[size]      = offset;
+    packetCounts[size] = packetCount;
+    channelTypes[size] = channelType;
+    size++;
+  }
+
+  int size() {
+    return size;
+  }
+
+  long offset(final int k) {
+    return offsets[k];
+  }
+
+  /**
+   * @return last entry that no packet at or after timestamp comes before,
+   *         or -1 if there is none
+   */
+  int findTimestamp(final double timestamp) {
+    // timestamps[k] is the highest timestamp up to entry k: every packet
+    // before entry k is earlier than timestamp if timestamps[k] < timestamp
+    int lo = 0;
+    int hi = size - 1;
+    int found = -1;
+    while (lo <= hi) {
+      int mid = (lo + hi) >>> 1;
+      if (timestamps[mid] < timestamp) {
+        found = mid;
+        lo = mid + 1;
+      } else {
+        hi = mid - 1;
+      }
+    }
+    return found;
+  }
+
+  /**
+   * @return last entry at or before packetCount, or -1 if there is none
+   */
+  int findPacket(final long packetCount) {
+    int k = Arrays.binarySearch(packetCounts, 0, size, packetCount);
+    return (k >= 0) ? k : -k - 2;
+  }
+
+  static File indexFile(final File logFile) {
+    return new File(logFile.getPath() + kSuffix);
+  }
+
+  /**
+   * Write the index next to logFile
+   */
+  void write(final File logFile) {
+    FlatBufferBuilder builder = new FlatBufferBuilder(64 + 24 * size);
+
+    int filenameOffset = builder.createString(logFile.getName());
+    LogIndex.startEntriesVector(builder, size);
+    for (int k = size - 1; k >= 0; k--) {
+      IndexEntry.createIndexEntry(builder, timestamps[k], offsets[k], packetCounts[k], channelTypes[k]);
+    }
+    int entriesOffset = builder.endVector();
+    int offset = LogIndex.createLogIndex(builder, filenameOffset, interval, entriesOffset);
+    LogIndex.finishSizePrefixedLogIndexBuffer(builder, offset);
+
+    File file = indexFile(logFile);
+    try (FileChannel channel = new FileOutputStream(file).getChannel()) {
+      ByteBuffer bb = builder.dataBuffer();
+      while (bb.hasRemaining()) {
+        channel.write(bb);
+      }
+    } catch (IOException e) {
+      System.err.println("Can't write " + file.getAbsolutePath());
+      e.printStackTrace();
+    }
+  }
+
+  /**
+   * @return the index written next to logFile, or null if there isn't one
+   *         (e.g. the log file was never closed)
+   */
+  static LogFileIndex read(final File logFile) {
+    File file = indexFile(logFile);
+    if (!file.exists()) {
+      return null;
+    }
+    ByteBuffer bb;
+    try {
+      bb = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+    } catch (IOException e) {
+      e.printStackTrace();
+      return null;
+    }
+    bb.position(Integer.BYTES);   // skip size prefix
+    if (!LogIndex.LogIndexBufferHasIdentifier(bb)) {
+      return null;
+    }
+    LogIndex logIndex = LogIndex.getRootAsLogIndex(bb);
+
+    LogFileIndex index = new LogFileIndex(logIndex.indexInterval());
+    int n = logIndex.entriesLength();
+    index.timestamps   = new double[n];
+    index.offsets      = new long[n];
+    index.packetCounts = new long[n];
+    index.channelTypes = new byte[n];
+    IndexEntry entry = new IndexEntry();
+    for (int k = 0; k < n; k++) {
+      logIndex.entries(entry, k);
+      index.timestamps[k]   = entry.timestamp();
+      index.offsets[k]      = entry.offset();
+      index.packetCounts[k] = entry.packetCount();
+      index.channelTypes[k] = entry.channelType();
+    }
+    index.size = n;
+    return index;
+  }
+}
@@ -9,8 +9,8 @@ import java.time.format.DateTimeFormatter;
 abstract class LogFileWriterBase {
 
   private static File basePath = null;
-  private static File logPath = null;
-  private static String logFolder = null;
+  private static volatile File logPath = null;
+  private static volatile String logFolder = null;   // read by LogRetentionManager
 
 
 
@@ -51,7 +51,8 @@ abstract class LogFileWriterBase {
   }
 
 
-  public static File logPath() {
+  // synchronized: log files are opened on the LogFileThread as well (see LoggerManager)
+  public static synchronized File logPath() {
     if (logFolder == null) {
       updateLogFolderTimestamp("");
     }
@@ -61,7 +62,7 @@ abstract class LogFileWriterBase {
       if (!logPath.exists()) {
         // path doesn't exist yet -- make it
         boolean success = logPath.mkdir();
-        if (!success) {
+        if (!success && !logPath.isDirectory()) {   // another thread may have just made it
           // TODO: what to do when fails to create a log folder?
           System.err.println("Failed to mkdir " + logPath.getAbsolutePath());
           System.exit(-1);
@@ -72,11 +73,22 @@ abstract class LogFileWriterBase {
   }
 
 
+  // folder that is (or is about to be) logged to, without creating it
+  // null before the first log folder is chosen
+  public static File activeLogPath() {
+    String folder = logFolder;
+    if (folder == null) {
+      return null;
+    }
+    return new File(basePath().getAbsolutePath() + File.separator + folder);
+  }
+
+
 
 
   // to be called by LoggerManager when we switch into auto, teleop, or test modes
   // creates a subfolder under logs with a timestamp and suffix
-  public static void updateLogFolderTimestamp(String suffix) {
+  public static synchronized void updateLogFolderTimestamp(String suffix) {
     if (suffix.length()>=9 && suffix.substring(0,9).compareTo("unit_test")==0) {
       // do not use a timestamp for unit tests (which would create too many folders)
       logFolder = suffix + File.separator;
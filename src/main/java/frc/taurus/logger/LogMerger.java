@@ -0,0 +1,323 @@
+package frc.taurus.logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+import com.google.flatbuffers.FlatBufferBuilder;
+
+import frc.taurus.config.generated.Channel;
+import frc.taurus.config.generated.Configuration;
+import frc.taurus.logger.generated.Compression;
+import frc.taurus.logger.generated.LogFileHeader;
+import frc.taurus.logger.generated.PacketFormat;
+
+/**
+ * Merges the log files of one log folder (one file per Config log filename)
+ * back into a single timeline, ordered by the timestamp of each payload.
+ *
+ * The files are decoded in parallel, one task per file on a ForkJoinPool:
+ * each task maps its file (see MappedLogReader) and builds a list of packet
+ * offsets sorted by timestamp.  The sorted lists are then k-way merged, which
+ * only touches the packets as they are returned.
+ *
+ * Usage:
+ *
+ *   LogMerger merger = new LogMerger(LogFileWriterBase.logPath());
+ *   for (LogPacket packet : merger) {
+ *     ...
+ *   }
+ *
+ * or write the merged timeline out as one RawFrame log file (with an index):
+ *
+ *   merger.writeTo(new File(folder, "merged.log"));
+ *
+ * Like MappedLogReader, the LogPacket returned by the iterator is only valid
+ * until the next call to next().
+ */
+public class LogMerger implements Iterable<LogPacket> {
+
+  static final String kLogSuffix = ".log";
+
+  final List<Timeline> timelines;
+
+  /**
+   * The packets of one file, sorted by timestamp.  Packets are logged one
+   * channel batch at a time, so a file is only roughly in time order.
+   */
+  static class Timeline {
+    final MappedLogReader reader;
+    int size = 0;
+    int[] offsets = new int[1024];        // offsets of the packets' size prefixes
+    double[] timestamps = new double[1024];
+
+    Timeline(final MappedLogReader reader) {
+      this.reader = reader;
+      MappedLogReader.PacketView view = reader.newView();
+
+      boolean sorted = true;
+      int offset = reader.dataStart;
+      int packetSize;
+      while ((packetSize = reader.sizeAt(offset)) > 0) {
+        if (size == offsets.length) {
+          offsets = Arrays.copyOf(offsets, 2 * size);
+          timestamps = Arrays.copyOf(timestamps, 2 * size);
+        }
+        offsets[size] = offset;
+        timestamps[size] = view.load(offset).timestamp();
+        sorted &= (size == 0) || (timestamps[size - 1] <= timestamps[size]);
+        size++;
+        offset += Integer.BYTES + packetSize;
+      }
+
+      if (!sorted) {
+        sort();
+      }
+    }
+
+    // stable sort, so packets with the same timestamp stay in logged order
+    private void sort() {
+      Integer[] order = new Integer[size];
+      for (int k = 0; k < size; k++) {
+        order[k] = k;
+      }
+      final double[] t = timestamps;
+      Arrays.sort(order, Comparator.comparingDouble(k -> t[k]));
+
+      int[] sortedOffsets = new int[size];
+      double[] sortedTimestamps = new double[size];
+      for (int k = 0; k < size; k++) {
+        sortedOffsets[k] = offsets[order[k]];
+        sortedTimestamps[k] = timestamps[order[k]];
+      }
+      offsets = sortedOffsets;
+      timestamps = sortedTimestamps;
+    }
+  }
+
+  /**
+   * Merge every .log file in folder, decoding them on the common ForkJoinPool
+   */
+  public LogMerger(final File folder) throws IOException {
+    this(logFiles(folder, ""), ForkJoinPool.commonPool());
+  }
+
+  public LogMerger(final List<File> files, final ForkJoinPool pool) throws IOException {
+    List<ForkJoinTask<Timeline>> tasks = new ArrayList<>();
+    for (File file : files) {
+      tasks.add(ForkJoinTask.adapt(() -> new Timeline(new MappedLogReader(file))));
+    }
+    invokeAll(pool, tasks);
+
+    timelines = new ArrayList<>();
+    for (var task : tasks) {
+      timelines.add(task.join());
+    }
+  }
+
+  /**
+   * @return number of packets in all files
+   */
+  public long size() {
+    long size = 0;
+    for (var timeline : timelines) {
+      size += timeline.size;
+    }
+    return size;
+  }
+
+  /**
+   * @return an iterator over the packets of all files, in timestamp order.
+   *         Packets with the same timestamp come in the order the files were
+   *         listed.
+   */
+  @Override
+  public Iterator<LogPacket> iterator() {
+    return new MergeIterator();
+  }
+
+  class MergeIterator implements Iterator<LogPacket> {
+
+    class Cursor {
+      final int file;
+      final Timeline timeline;
+      final MappedLogReader.PacketView view;
+      int pos = 0;
+
+      Cursor(final int file, final Timeline timeline) {
+        this.file = file;
+        this.timeline = timeline;
+        this.view = timeline.reader.newView();
+      }
+
+      double timestamp() {
+        return timeline.timestamps[pos];
+      }
+    }
+
+    final PriorityQueue<Cursor> heap = new PriorityQueue<>(Math.max(1, timelines.size()),
+        Comparator.comparingDouble(Cursor::timestamp).thenComparingInt(cursor -> cursor.file));
+
+    MergeIterator() {
+      for (int k = 0; k < timelines.size(); k++) {
+        if (timelines.get(k).size > 0) {
+          heap.add(new Cursor(k, timelines.get(k)));
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !heap.isEmpty();
+    }
+
+    @Override
+    public LogPacket next() {
+      Cursor cursor = heap.poll();
+      if (cursor == null) {
+        throw new NoSuchElementException();
+      }
+      LogPacket packet = cursor.view.load(cursor.timeline.offsets[cursor.pos]);
+      cursor.pos++;
+      if (cursor.pos < cursor.timeline.size) {
+        heap.add(cursor);
+      }
+      return packet;
+    }
+  }
+
+  /**
+   * Write the merged timeline to output as a RawFrame log file, renumbering
+   * the packets.  The LogFileHeader lists the channels of all input files.
+   * An index is written next to it (see FlatBuffersLogReader.seek()).
+   *
+   * @return number of packets written
+   */
+  public long writeTo(final File output) {
+    BinaryLogFileWriter writer = new BinaryLogFileWriter(output);
+    LogFileIndex index = new LogFileIndex(LogFileIndex.kDefaultInterval);
+    ByteBuffer rawFrameHeader = ByteBuffer.allocate(LogPacket.kRawFrameHeaderSize);
+
+    writer.write(mergedFileHeader());
+
+    long packetCount = 0;
+    for (LogPacket packet : this) {
+      ByteBuffer payload = packet.payloadAsByteBuffer();
+      index.add(packetCount, packet.channelType(), packet.timestamp(), writer.position());
+
+      rawFrameHeader.clear();
+      LogPacket.putRawFrameHeader(rawFrameHeader, packetCount++, packet.channelType(), packet.queueSize(), payload.remaining());
+      rawFrameHeader.flip();
+      writer.write(rawFrameHeader, payload);
+    }
+
+    index.write(output);
+    writer.close();
+    return packetCount;
+  }
+
+  private ByteBuffer mergedFileHeader() {
+    FlatBufferBuilder builder = new FlatBufferBuilder(1024);
+
+    // every file lists every channel, so keep the first of each
+    Set<String> seen = new HashSet<>();
+    List<Integer> channelOffsets = new ArrayList<>();
+    double timestamp = Double.POSITIVE_INFINITY;
+    for (var timeline : timelines) {
+      LogFileHeader header = timeline.reader.getFileHeader();
+      timestamp = Math.min(timestamp, header.timestamp());
+      Configuration configuration = header.configuration();
+      for (int k = 0; k < configuration.channelsLength(); k++) {
+        Channel channel = configuration.channels(k);
+        if (seen.add(channel.channelType() + ":" + channel.name() + ":" + channel.logFilename())) {
+          channelOffsets.add(Channel.createChannel(builder, channel.channelType(), builder.createString(channel.name()),
+              builder.createString(channel.logFilename())));
+        }
+      }
+    }
+    int channelVectorOffset = Configuration.createChannelsVector(builder, channelOffsets.stream().mapToInt(Integer::intValue).toArray());
+    int configOffset = Configuration.createConfiguration(builder, channelVectorOffset);
+    int offset = LogFileHeader.createLogFileHeader(builder, timelines.isEmpty() ? 0.0 : timestamp, configOffset,
+        PacketFormat.RawFrame, Compression.None);
+    LogFileHeader.finishSizePrefixedLogFileHeaderBuffer(builder, offset);
+    return builder.dataBuffer();
+  }
+
+  /**
+   * Merge each folder under baseFolder (e.g. each match of an event) into
+   * outputFilename in that folder.  Folders are merged in parallel.
+   *
+   * @return number of folders merged
+   */
+  public static int mergeFolders(final File baseFolder, final String outputFilename, final ForkJoinPool pool) throws IOException {
+    List<File> folders = new ArrayList<>();
+    File[] subFolders = baseFolder.listFiles(File::isDirectory);
+    if (subFolders != null) {
+      Arrays.sort(subFolders);
+      for (File folder : subFolders) {
+        if (!logFiles(folder, outputFilename).isEmpty()) {
+          folders.add(folder);
+        }
+      }
+    }
+
+    List<ForkJoinTask<Long>> tasks = new ArrayList<>();
+    for (File folder : folders) {
+      tasks.add(ForkJoinTask.adapt(() ->
+          new LogMerger(logFiles(folder, outputFilename), pool).writeTo(new File(folder, outputFilename))));
+    }
+    invokeAll(pool, tasks);
+    return folders.size();
+  }
+
+  /**
+   * @return the non-empty .log files in folder, other than exclude, by name
+   */
+  static List<File> logFiles(final File folder, final String exclude) {
+    File[] files = folder.listFiles(file -> file.isFile()
+                                         && file.getName().endsWith(kLogSuffix)
+                                         && !file.getName().equals(exclude)
+                                         && file.length() > 0);
+    if (files == null) {
+      return new ArrayList<>();
+    }
+    Arrays.sort(files);
+    return new ArrayList<>(Arrays.asList(files));
+  }
+
+  /**
+   * Run tasks on pool and wait for all of them.  Rethrows the IOException
+   * of a task that failed with one.
+   */
+  private static void invokeAll(final ForkJoinPool pool, final List<? extends ForkJoinTask<?>> tasks) throws IOException {
+    try {
+      pool.invoke(new RecursiveAction() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void compute() {
+          invokeAll(tasks);
+        }
+      });
+    } catch (RuntimeException e) {
+      for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+        if (cause instanceof IOException) {
+          throw (IOException)cause;
+        }
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,116 @@
+package frc.taurus.logger;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import frc.taurus.logger.generated.Packet;
+
+/**
+ * One packet read back from a log file, independent of how it was framed
+ * (see PacketFormat in LogFileHeader.fbs)
+ *
+ * Accessor names match the generated Packet class.
+ */
+public class LogPacket {
+
+  // RawFrame header: size prefix, packet_count, channel_type, queue_size, reserved
+  public static final int kRawFrameHeaderSize = 12;
+  // DeltaFrame: offsets of the encoding and stream (the reserved bytes) after the size prefix
+  static final int kEncodingOffset = 6;
+  static final int kStreamOffset = 7;
+
+  long packetCount;
+  byte channelType;
+  int queueSize;
+  ByteBuffer payload;
+
+  public long packetCount()  { return packetCount; }
+  public byte channelType()  { return channelType; }
+  public int queueSize()     { return queueSize; }
+  public ByteBuffer payloadAsByteBuffer() { return payload; }
+  public double timestamp()  { return getTimestamp(payload); }
+
+  /**
+   * Write a RawFrame header for a payload of payloadSize bytes
+   */
+  static void putRawFrameHeader(ByteBuffer dst, long packetCount, byte channelType, int queueSize, int payloadSize) {
+    putRawFrameHeader(dst, packetCount, channelType, queueSize, payloadSize, DeltaCodec.kKeyframe, 0);
+  }
+
+  /**
+   * Write a DeltaFrame header (see DeltaCodec)
+   */
+  static void putRawFrameHeader(ByteBuffer dst, long packetCount, byte channelType, int queueSize, int payloadSize,
+      byte encoding, int stream) {
+    dst.order(ByteOrder.LITTLE_ENDIAN);
+    dst.putInt(kRawFrameHeaderSize - Integer.BYTES + payloadSize);  // size prefix doesn't count itself
+    dst.putInt((int)packetCount);
+    dst.put(channelType);
+    dst.put((byte)queueSize);
+    dst.put(encoding);
+    dst.put((byte)stream);
+  }
+
+  /**
+   * @param frame a RawFrame with its size prefix already removed
+   */
+  static LogPacket fromRawFrame(ByteBuffer frame) {
+    frame.order(ByteOrder.LITTLE_ENDIAN);
+    int pos = frame.position();
+
+    LogPacket packet = new LogPacket();
+    packet.packetCount = frame.getInt(pos) & 0xFFFFFFFFL;
+    packet.channelType = frame.get(pos + 4);
+    packet.queueSize   = frame.get(pos + 5) & 0xFF;
+
+    frame.position(pos + kRawFrameHeaderSize - Integer.BYTES);
+    packet.payload = frame.slice();
+    frame.position(pos);
+    return packet;
+  }
+
+  /**
+   * Timestamp is the first element of every message.  Reads it straight out
+   * of the payload's vtable, without knowing which table the payload is.
+   * Only absolute reads, so the payload (which other readers of its queue
+   * may be using) is left as it was, and nothing is allocated.
+   *
+   * @return timestamp of the message in payload, or 0.0 if it has none
+   */
+  static double getTimestamp(final ByteBuffer payload) {
+    final boolean littleEndian = (payload.order() == ByteOrder.LITTLE_ENDIAN);
+    try {
+      int table = payload.position() + getInt(payload, payload.position(), littleEndian);
+      int vtable = table - getInt(payload, table, littleEndian);
+      int vtableSize = getShort(payload, vtable, littleEndian);
+      int o = (vtableSize > 4) ? getShort(payload, vtable + 4, littleEndian) : 0;
+      if (o == 0) {
+        return 0.0;
+      }
+      long bits = payload.getLong(table + o);
+      return Double.longBitsToDouble(littleEndian ? bits : Long.reverseBytes(bits));
+    } catch (IndexOutOfBoundsException e) {
+      return 0.0;   // not a flatbuffer
+    }
+  }
+
+  // flatbuffers are little-endian, whatever the order of the ByteBuffer
+  private static int getInt(final ByteBuffer bb, final int index, final boolean littleEndian) {
+    int value = bb.getInt(index);
+    return littleEndian ? value : Integer.reverseBytes(value);
+  }
+
+  private static short getShort(final ByteBuffer bb, final int index, final boolean littleEndian) {
+    short value = bb.getShort(index);
+    return littleEndian ? value : Short.reverseBytes(value);
+  }
+
+  static LogPacket fromPacket(Packet flatBufferPacket) {
+    LogPacket packet = new LogPacket();
+    packet.packetCount = flatBufferPacket.packetCount();
+    packet.channelType = flatBufferPacket.channelType();
+    packet.queueSize   = flatBufferPacket.queueSize();
+    packet.payload     = flatBufferPacket.payloadAsByteBuffer();
+    return packet;
+  }
+}
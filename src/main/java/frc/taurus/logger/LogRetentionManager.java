@@ -0,0 +1,340 @@
+package frc.taurus.logger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import com.google.flatbuffers.FlatBufferBuilder;
+
+import frc.taurus.config.ChannelManager;
+import frc.taurus.config.Config;
+import frc.taurus.logger.generated.LogStorageStatus;
+import frc.taurus.messages.FlatBufferPool;
+import frc.taurus.messages.MessageQueue;
+import frc.taurus.util.Clock;
+
+/**
+ * Keeps the logs folder (LogFileWriterBase.basePath()) from filling the
+ * drive.  A background thread periodically measures every match folder in
+ * the logs folder and enforces a retention policy, oldest folders first:
+ *
+ *   1. folders (and archives) older than maxAge are deleted
+ *   2. while the logs folder is larger than maxBytes, the oldest folders are
+ *      zipped into <folder>.zip (if compression is enabled)
+ *   3. while it is still larger than maxBytes, the oldest folders and
+ *      archives are deleted
+ *
+ * The active log folder (LogFileWriterBase.activeLogPath()) is never
+ * touched, but it counts towards maxBytes.  Only folders and .zip archives
+ * directly under the logs folder are managed.
+ *
+ * Usage on the LOG_STORAGE_STATUS channel is published after every pass.
+ *
+ * Ages come from file modification times, so they are only as good as the
+ * roboRIO's clock, which isn't set until the driver station connects.
+ *
+ * The thread runs at minimum priority, and only ever blocks itself on the
+ * file system, so a slow USB drive never holds up the robot loop.
+ */
+public class LogRetentionManager {
+
+  static final long kDefaultPeriodMs = 10000;      // between passes
+  static final String kArchiveSuffix = ".zip";
+  static final String kPartialSuffix = ".zip.tmp";  // archive still being written (or left by a crash)
+
+  final File baseFolder;
+  final Supplier<File> activeFolder;
+  final long maxBytes;
+  final long maxAgeMs;
+  boolean compressOldLogs = true;
+
+  final MessageQueue<ByteBuffer> statusQueue;
+  final FlatBufferPool statusPool;
+
+  // results of the last pass (retention thread, or the caller of enforce() in tests)
+  long totalBytes = 0;
+  long activeBytes = 0;
+  int numFolders = 0;
+  int compressedCount = 0;    // since construction
+  int deletedCount = 0;
+
+  private ScheduledExecutorService executor;
+
+  // a log folder or archive directly under baseFolder
+  static class Entry {
+    final File file;
+    final boolean archive;
+    final long bytes;
+    final long lastModified;    // newest file inside
+
+    Entry(final File file) {
+      this.file = file;
+      this.archive = file.isFile();
+      this.bytes = sizeOf(file);
+      this.lastModified = lastModified(file);
+    }
+  }
+
+  /**
+   * @param maxBytes      limit on the size of the logs folder
+   * @param maxAgeSeconds folders not written to for this long are deleted
+   *                      (0 to keep them until they are over maxBytes)
+   */
+  public LogRetentionManager(ChannelManager channelManager, final long maxBytes, final double maxAgeSeconds) {
+    this(channelManager, LogFileWriterBase.basePath(), LogFileWriterBase::activeLogPath, maxBytes, maxAgeSeconds);
+  }
+
+  LogRetentionManager(ChannelManager channelManager, final File baseFolder, final Supplier<File> activeFolder,
+      final long maxBytes, final double maxAgeSeconds) {
+    this.baseFolder = baseFolder;
+    this.activeFolder = activeFolder;
+    this.maxBytes = maxBytes;
+    this.maxAgeMs = (long)(maxAgeSeconds * 1000);
+    this.statusQueue = channelManager.fetch(Config.LOG_STORAGE_STATUS);
+    this.statusPool  = new FlatBufferPool(statusQueue);
+  }
+
+  /**
+   * Zip old folders before deleting them (default true).  Must be called
+   * before start().
+   */
+  public void setCompressOldLogs(final boolean compressOldLogs) {
+    this.compressOldLogs = compressOldLogs;
+  }
+
+  public synchronized void start() {
+    start(kDefaultPeriodMs);
+  }
+
+  public synchronized void start(final long periodMs) {
+    if (executor != null) {
+      return;
+    }
+    executor = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "LogRetentionThread");
+      thread.setDaemon(true);
+      thread.setPriority(Thread.MIN_PRIORITY);
+      return thread;
+    });
+    executor.scheduleWithFixedDelay(() -> {
+      try {
+        enforce(System.currentTimeMillis());
+      } catch (RuntimeException e) {
+        e.printStackTrace();    // try again next period
+      }
+    }, 0, periodMs, TimeUnit.MILLISECONDS);
+  }
+
+  public synchronized void stop() {
+    if (executor == null) {
+      return;
+    }
+    executor.shutdown();
+    try {
+      executor.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    executor = null;
+  }
+
+  public long getTotalBytes()     { return totalBytes; }
+  public int getCompressedCount() { return compressedCount; }
+  public int getDeletedCount()    { return deletedCount; }
+
+  /**
+   * One pass of the retention policy, then publish a LogStorageStatus
+   *
+   * @param nowMs wall clock time, in the units of File.lastModified()
+   */
+  synchronized void enforce(final long nowMs) {
+    File active = activeFolder();
+    activeBytes = (active != null) ? sizeOf(active) : 0;
+
+    List<Entry> entries = scan(active);    // oldest first
+    long bytes = activeBytes;
+    for (Entry entry : entries) {
+      bytes += entry.bytes;
+    }
+
+    // 1. too old
+    for (int k = 0; k < entries.size(); k++) {
+      Entry entry = entries.get(k);
+      if (maxAgeMs > 0 && nowMs - entry.lastModified > maxAgeMs && delete(entry)) {
+        bytes -= entry.bytes;
+        entries.remove(k--);
+      }
+    }
+
+    // 2. too big: zip the oldest folders
+    for (int k = 0; compressOldLogs && bytes > maxBytes && k < entries.size(); k++) {
+      Entry entry = entries.get(k);
+      if (entry.archive) {
+        continue;
+      }
+      Entry archive = compress(entry);
+      if (archive != null) {
+        bytes += archive.bytes - entry.bytes;
+        entries.set(k, archive);
+      }
+    }
+
+    // 3. still too big: delete the oldest
+    while (bytes > maxBytes && !entries.isEmpty()) {
+      Entry entry = entries.remove(0);
+      if (delete(entry)) {
+        bytes -= entry.bytes;
+      }
+    }
+
+    totalBytes = bytes;
+    numFolders = entries.size() + ((active != null && active.exists()) ? 1 : 0);
+    writeStatus();
+  }
+
+  private File activeFolder() {
+    File active = activeFolder.get();
+    return (active != null) ? active.getAbsoluteFile() : null;
+  }
+
+  // the active folder may change while a pass is running
+  private boolean isActive(final File file) {
+    File active = activeFolder();
+    return active != null && (active.equals(file) || new File(active.getPath() + kArchiveSuffix).equals(file));
+  }
+
+  /**
+   * @return the folders and archives that may be deleted, oldest first
+   */
+  private List<Entry> scan(final File active) {
+    List<Entry> entries = new ArrayList<>();
+    File[] files = baseFolder.listFiles();
+    if (files == null) {
+      return entries;
+    }
+    for (File file : files) {
+      file = file.getAbsoluteFile();
+      if (file.getName().endsWith(kPartialSuffix)) {
+        file.delete();    // an archive that was never finished
+        continue;
+      }
+      boolean managed = file.isDirectory() || file.getName().endsWith(kArchiveSuffix);
+      if (managed && !file.equals(active)) {
+        entries.add(new Entry(file));
+      }
+    }
+    entries.sort(Comparator.comparingLong((Entry e) -> e.lastModified).thenComparing(e -> e.file.getName()));
+    return entries;
+  }
+
+  /**
+   * Zip a folder into <folder>.zip, and delete the folder
+   *
+   * @return the archive, or null if it couldn't be written
+   */
+  private Entry compress(final Entry entry) {
+    File zip = new File(entry.file.getPath() + kArchiveSuffix);
+    File partial = new File(entry.file.getPath() + kPartialSuffix);
+    byte[] buffer = new byte[64 * 1024];
+
+    try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(partial))) {
+      out.setLevel(Deflater.BEST_SPEED);
+      File[] files = entry.file.listFiles();
+      for (File file : (files != null) ? files : new File[0]) {
+        if (!file.isFile()) {
+          continue;
+        }
+        ZipEntry zipEntry = new ZipEntry(entry.file.getName() + "/" + file.getName());
+        zipEntry.setTime(file.lastModified());
+        out.putNextEntry(zipEntry);
+        try (InputStream in = new FileInputStream(file)) {
+          int n;
+          while ((n = in.read(buffer)) > 0) {
+            out.write(buffer, 0, n);
+          }
+        }
+        out.closeEntry();
+      }
+    } catch (IOException e) {
+      System.err.println("Failed to compress " + entry.file.getAbsolutePath() + ": " + e.getMessage());
+      partial.delete();
+      return null;
+    }
+
+    if (isActive(entry.file) || (zip.exists() && !zip.delete()) || !partial.renameTo(zip)) {
+      partial.delete();
+      return null;
+    }
+    zip.setLastModified(entry.lastModified);   // keeps its place in the retention order
+    deleteRecursively(entry.file);
+    compressedCount++;
+    return new Entry(zip);
+  }
+
+  private boolean delete(final Entry entry) {
+    if (isActive(entry.file)) {
+      return false;
+    }
+    boolean success = deleteRecursively(entry.file);
+    if (success) {
+      deletedCount++;
+    } else {
+      System.err.println("Failed to delete " + entry.file.getAbsolutePath());
+    }
+    return success;
+  }
+
+  private static boolean deleteRecursively(final File file) {
+    File[] files = file.listFiles();
+    if (files != null) {
+      for (File child : files) {
+        deleteRecursively(child);
+      }
+    }
+    return file.delete();
+  }
+
+  static long sizeOf(final File file) {
+    File[] files = file.listFiles();
+    if (files == null) {
+      return file.length();
+    }
+    long bytes = 0;
+    for (File child : files) {
+      bytes += sizeOf(child);
+    }
+    return bytes;
+  }
+
+  static long lastModified(final File file) {
+    long time = file.lastModified();
+    File[] files = file.listFiles();
+    if (files != null) {
+      for (File child : files) {
+        time = Math.max(time, lastModified(child));
+      }
+    }
+    return time;
+  }
+
+  private void writeStatus() {
+    FlatBufferBuilder builder = statusPool.borrow();
+    int offset = LogStorageStatus.createLogStorageStatus(builder, Clock.getTimestamp(), totalBytes, maxBytes,
+        activeBytes, baseFolder.getUsableSpace(), numFolders, compressedCount, deletedCount);
+    LogStorageStatus.finishLogStorageStatusBuffer(builder, offset);
+    statusPool.write(builder);
+  }
+}
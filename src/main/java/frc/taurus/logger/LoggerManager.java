@@ -1,13 +1,17 @@
 package frc.taurus.logger;
 
+import java.io.File;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Optional;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 import com.google.flatbuffers.FlatBufferBuilder;
 
-import edu.wpi.first.wpilibj.Timer;
 import frc.robot.Constants;
 import frc.taurus.config.ChannelIntf;
 import frc.taurus.config.ChannelManager;
@@ -15,46 +19,113 @@ import frc.taurus.config.Config;
 import frc.taurus.config.generated.Channel;
 import frc.taurus.config.generated.Configuration;
 import frc.taurus.driverstation.generated.DriverStationStatus;
+import frc.taurus.logger.generated.Compression;
 import frc.taurus.logger.generated.LogFileHeader;
-import frc.taurus.messages.MessageQueue;
+import frc.taurus.logger.generated.PacketFormat;
+import frc.taurus.messages.DirtyBitmap;
+import frc.taurus.messages.OverflowPolicy;
+import frc.taurus.messages.TypedReader;
+import frc.taurus.util.Clock;
 
 public class LoggerManager {
 
   ChannelManager channelManager;
-  MessageQueue<ByteBuffer>.QueueReader driverStationStatusReader;
+  TypedReader<DriverStationStatus> driverStationStatusReader;
 
   // synchronized methods in this class to protect channelList and loggerMap
   ArrayList<ChannelIntf> channelList = new ArrayList<ChannelIntf>();
   HashMap<String, FlatBuffersLogger> loggerMap = new HashMap<>();
+  HashMap<ChannelIntf, OverflowPolicy> overflowPolicies = new HashMap<>();   // opt-ins, see setOverflowPolicy()
   boolean unitTest = false;
+  byte packetFormat = PacketFormat.FlatBufferPacket;
+  byte compression = Compression.None;
+  boolean mappedFiles = false;
 
   // Create our own thread instead of using a Notifier() so that we can
   // lower the thread priority of the logger so it never interferes
   // with real-time processes
   private Thread thread;
-  private boolean running;
+  private volatile boolean running;
+  private final Object runLock = new Object();
+
+  // set by writers (through a QueueListener) when a logged queue gets a new
+  // message, cleared by the LoggerThread before it drains the queues.
+  // Only the first writer after each drain pays for an unpark().
+  private final AtomicBoolean wakeupPending = new AtomicBoolean(false);
+  private final long[] dirty = new long[DirtyBitmap.kNumWords];   // LoggerThread's copy of the DirtyBitmap
+
+  // Log files are opened and closed on their own thread, so a mode change
+  // (mkdir, open, and flushing and closing every file) doesn't hold up the
+  // LoggerThread while the queues fill up.  One thread does it all, in
+  // order, so a file is always closed before it is opened again.
+  private static final ExecutorService fileExecutor = Executors.newSingleThreadExecutor(r -> {
+    Thread thread = new Thread(r, "LogFileThread");
+    thread.setDaemon(true);
+    thread.setPriority(3);  // same as the LoggerThread
+    return thread;
+  });
+
+  // drain the queues at least this often, even if no wakeup arrives
+  static final long kMaxLatencyNs = (long)(Constants.kLoopDt * 10 * 1e9);
+  // and at most once per half loop period
+  static final long kCoalesceMs = (long)(Constants.kLoopDt * 1000 / 2);
 
   class LoggerThread extends Thread {
     public void run() {
       while (true) {
-        if (running) {
-          update();
-  
-          // sleep for 1/2 of the normal loop period
-          // hopefully this is fast enough to keep up with the logging
-          // but not enough to reduce performance
+        if (!running) {
+          // block until start() -- don't spin
+          synchronized (runLock) {
+            while (!running) {
+              try {
+                runLock.wait();
+              } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+              }
+            }
+          }
+        }
+
+        boolean woken = wakeupPending.getAndSet(false);
+        update(!woken);
+
+        // sleep until a writer signals a new message, or the latency timer expires
+        if (!wakeupPending.get()) {
+          LockSupport.parkNanos(this, kMaxLatencyNs);
+        }
+
+        // once woken, give the rest of the robot loop a moment to write its
+        // messages, so they are drained together (and a mode change in the
+        // DriverStationStatus is seen before the messages that came with it)
+        if (wakeupPending.get()) {
           try {
-            Thread.sleep((long)(Constants.kLoopDt*1000/2));
+            Thread.sleep(kCoalesceMs);
           } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
+            return;
           }
         }
       }
     }
   }
 
-  private void start() {
-    running = true;
+  // called (through a QueueListener) on the writer's thread
+  private void wakeup() {
+    if (!wakeupPending.get() && wakeupPending.compareAndSet(false, true)) {
+      LockSupport.unpark(thread);
+    }
+  }
+
+  /**
+   * Start logging.  Called by ChannelManager once it has finished
+   * constructing: the LoggerThread fetches channels from it.
+   */
+  public void start() {
+    synchronized (runLock) {
+      running = true;
+      runLock.notifyAll();
+    }
   }
 
   @SuppressWarnings("unused")
@@ -70,8 +141,7 @@ public class LoggerManager {
     thread = new LoggerThread();
     thread.setName("LoggerThread");
     thread.setPriority(3);  // lower than the default priority of 5
-    thread.start();
-    start();
+    thread.start();   // waits for start()
   }
 
   // called when ChannelManager.fetch() is called by robot code
@@ -90,32 +160,69 @@ public class LoggerManager {
     if (!filename.isEmpty()) {
       // if filename has not been seen before, create a logger for that file
       if (!loggerMap.containsKey(filename)) {
-        loggerMap.put(filename, new FlatBuffersLogger(channelManager, filename, this::getFileHeader));
+        FlatBuffersLogger logger = new FlatBuffersLogger(channelManager, filename, this::getFileHeader);
+        logger.setPacketFormat(packetFormat);
+        logger.setMappedFiles(mappedFiles);
+        loggerMap.put(filename, logger);
       }
       FlatBuffersLogger logger = loggerMap.get(filename);
-      logger.register(channel);
+      logger.register(channel, overflowPolicies.getOrDefault(channel, OverflowPolicy.OVERWRITE));
+
+      // wake up the LoggerThread when there is something to write
+      channelManager.fetch(channel).subscribe(this::wakeup);
+    }
+  }
+
+  /**
+   * Log channel with BLOCK instead of OVERWRITE: its writers wait a moment
+   * for the LoggerThread before overwriting a message it hasn't logged.  Must
+   * be called before the channel is first fetched.
+   * 
+   * The LoggerThread runs at low priority, so only opt in channels that no
+   * real-time thread writes.  singleWriter channels are refused: their
+   * lock-free queue promises the writer never waits on a reader.  Channels
+   * left on OVERWRITE record what the logger missed as a LogGap.
+   */
+  public synchronized void setOverflowPolicy(ChannelIntf channel, OverflowPolicy policy) {
+    if (channelList.contains(channel)) {
+      throw new IllegalStateException(channel.getName() + " is already being logged");
+    }
+    if (policy == OverflowPolicy.FAIL_FAST) {
+      throw new IllegalArgumentException("The LoggerThread can't stop on a lost message: use OVERWRITE or BLOCK");
     }
+    if (policy == OverflowPolicy.BLOCK && channel.isSingleWriter()) {
+      throw new IllegalArgumentException(channel.getName() + " is written from a real-time thread");
+    }
+    overflowPolicies.put(channel, policy);
   }
 
   // called when we switch folders between auto/teleop/test
   private synchronized void relocateLoggers(final String suffix) {
+    LogFileWriterBase.updateLogFolderTimestamp(suffix);   // once, so every file lands in the same folder
+    File folder = LogFileWriterBase.activeLogPath();
     for (var logger : loggerMap.values()) {
-      logger.relocate(suffix);
+      logger.relocate(folder, fileExecutor);
     }
   }  
 
-  private synchronized void update() {
+  private synchronized void update(final boolean fullScan) {
     updateLogFolderTimestamp();
 
+    // only visit the channels written since the last update, unless we
+    // got here by timeout
+    channelManager.getDirtyBitmap().swap(dirty);
+    if (fullScan) {
+      DirtyBitmap.setAll(dirty);
+    }
     for (var logger : loggerMap.values()) {
-      logger.update();
+      logger.update(dirty);
     }
   }
 
  
   private synchronized void close() {
     for (var logger : loggerMap.values()) {
-      logger.close();
+      logger.close(fileExecutor);
     }
   }
 
@@ -123,6 +230,37 @@ public class LoggerManager {
     unitTest = true;
   }
 
+  /**
+   * Select how packets are framed in log files (see PacketFormat in
+   * LogFileHeader.fbs).  Files that are already open keep their format.
+   */
+  public synchronized void setPacketFormat(final byte packetFormat) {
+    this.packetFormat = packetFormat;
+    for (var logger : loggerMap.values()) {
+      logger.setPacketFormat(packetFormat);
+    }
+  }
+
+  /**
+   * Select whether the packets in log files are deflated (see Compression in
+   * LogFileHeader.fbs).  Takes effect for files whose header hasn't been
+   * written yet, e.g. the files opened at the next mode change.
+   */
+  public synchronized void setCompression(final byte compression) {
+    this.compression = compression;
+  }
+
+  /**
+   * Write log files through memory-mapped segments (see MappedLogFileWriter).
+   * Files that are already open keep their writer.
+   */
+  public synchronized void setMappedFiles(final boolean mappedFiles) {
+    this.mappedFiles = mappedFiles;
+    for (var logger : loggerMap.values()) {
+      logger.setMappedFiles(mappedFiles);
+    }
+  }
+
 
 
   boolean enabledLast = false;
@@ -135,14 +273,13 @@ public class LoggerManager {
 
     // can't put this in the constructor because channelManager hasn't finsished contructing yet
     if (driverStationStatusReader == null) {
-      driverStationStatusReader = channelManager.fetch(Config.DRIVER_STATION_STATUS).makeReader();
+      driverStationStatusReader = new TypedReader<>(channelManager.fetch(Config.DRIVER_STATION_STATUS),
+                                                    new DriverStationStatus(), DriverStationStatus::getRootAsDriverStationStatus);
     }
 
     while (!driverStationStatusReader.isEmpty()) {
-      Optional<ByteBuffer> obb = driverStationStatusReader.read();
-      if (obb.isPresent()) {
-        DriverStationStatus dsStatus = DriverStationStatus.getRootAsDriverStationStatus(obb.get());
-    
+      DriverStationStatus dsStatus = driverStationStatusReader.readOrNull();
+      if (dsStatus != null) {
         boolean enabled = dsStatus.enabled();
         boolean auto    = dsStatus.autonomous();
         boolean teleop  = dsStatus.teleop();
@@ -194,15 +331,16 @@ public class LoggerManager {
 
   int bufferSize = 0;
 
-  // synchronized to protect channelList
+  // synchronized to protect bufferSize
   public synchronized ByteBuffer getFileHeader() {
   
     FlatBufferBuilder builder = new FlatBufferBuilder(bufferSize);
 
     // create Channels
-    int[] channelOffsets = new int[channelList.size()];
-    for (int k = 0; k < channelList.size(); k++) {
-      ChannelIntf channel = channelList.get(k);
+    List<ChannelIntf> channels = channelManager.fetchAll();
+    int[] channelOffsets = new int[channels.size()];
+    for (int k = 0; k < channels.size(); k++) {
+      ChannelIntf channel = channels.get(k);
       channelOffsets[k] = Channel.createChannel(builder, channel.getNum(), builder.createString(channel.getName()),
           builder.createString(channel.getLogFilename()));
     }
@@ -213,7 +351,7 @@ public class LoggerManager {
     int configOffset = Configuration.createConfiguration(builder, channelVectorOffset);
 
     // create LogFileHeader
-    int offset = LogFileHeader.createLogFileHeader(builder, Timer.getFPGATimestamp(), configOffset);
+    int offset = LogFileHeader.createLogFileHeader(builder, Clock.getTimestamp(), configOffset, packetFormat, compression);
     LogFileHeader.finishSizePrefixedLogFileHeaderBuffer(builder, offset);
     ByteBuffer fileHeader = builder.dataBuffer();
 
@@ -0,0 +1,190 @@
+package frc.taurus.logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Binary log file writer that copies into memory-mapped segments of the file
+ * instead of making a write() syscall for every buffer-full of data.
+ *
+ * The file is mapped one fixed-size segment at a time.  When a segment fills
+ * up the next one is mapped and the full one is handed off to be force()'d in
+ * the background.  The segment being written is also force()'d periodically,
+ * so a slow USB drive never stalls the LoggerThread.
+ *
+ * On close() the file is truncated to the number of bytes written.  If that
+ * doesn't happen (e.g. power is cut) the file ends in zeros, which
+ * FlatBuffersLogReader reads as a zero size prefix, i.e. end of file.
+ */
+public class MappedLogFileWriter extends LogFileWriterBase implements BinaryLogWriter {
+
+  public static final int kDefaultSegmentSize = 8 * 1024 * 1024;  // 8 MB
+  public static final long kDefaultForcePeriodMs = 500;
+
+  // one low priority thread forces the segments of all files to disk
+  private static final ScheduledThreadPoolExecutor syncExecutor = new ScheduledThreadPoolExecutor(1, r -> {
+    Thread thread = new Thread(r, "LogFileSyncThread");
+    thread.setDaemon(true);
+    thread.setPriority(Thread.MIN_PRIORITY);
+    return thread;
+  });
+
+  String filename;
+  File path;
+  RandomAccessFile file;
+  FileChannel channel;
+  final int segmentSize;
+
+  // synchronize on this when changing segment; the sync thread picks it up
+  // under the same lock, but force()s it after letting go
+  volatile MappedByteBuffer segment;
+  long segmentStart = 0;      // file offset of segment
+  ScheduledFuture<?> syncTask;
+
+  public MappedLogFileWriter(final String filename) {
+    this(filename, kDefaultSegmentSize, kDefaultForcePeriodMs);
+  }
+
+  /**
+   * @param segmentSize   size of each mapped segment, in bytes
+   * @param forcePeriodMs how often the current segment is force()'d to disk
+   */
+  public MappedLogFileWriter(final String filename, final int segmentSize, final long forcePeriodMs) {
+    this(new File(logPath() + File.separator + filename), segmentSize, forcePeriodMs);
+  }
+
+  /**
+   * Write to a file in a given folder (e.g. one opened ahead of a relocation)
+   */
+  public MappedLogFileWriter(final File path, final int segmentSize, final long forcePeriodMs) {
+    this.filename = path.getName();
+    this.segmentSize = segmentSize;
+    this.path = path;
+    try {
+      file = new RandomAccessFile(path, "rw");
+      file.setLength(0);  // in case the file already exists
+      channel = file.getChannel();
+      segment = channel.map(FileChannel.MapMode.READ_WRITE, segmentStart, segmentSize);
+    } catch (IOException e) {
+      System.err.println("Can't open " + path.getAbsolutePath() + " to write");
+      System.exit(-1);
+      e.printStackTrace();
+    }
+    syncTask = syncExecutor.scheduleAtFixedRate(this::forceSegment, forcePeriodMs, forcePeriodMs, TimeUnit.MILLISECONDS);
+  }
+
+  public void write(ByteBuffer bb) {
+    if (channel == null) {
+      return;
+    }
+    while (bb.hasRemaining()) {
+      if (!segment.hasRemaining() && !nextSegment()) {
+        return;   // can't grow the file (disk full?) -- drop the rest
+      }
+      // copy as much as fits in this segment
+      int limit = bb.limit();
+      bb.limit(bb.position() + Math.min(bb.remaining(), segment.remaining()));
+      segment.put(bb);
+      bb.limit(limit);
+    }
+  }
+
+  public void write(ByteBuffer header, ByteBuffer payload) {
+    write(header);
+    write(payload);
+  }
+
+  public void write(ByteBuffer header, byte[] array, int offset, int length) {
+    write(header);
+    if (channel == null) {
+      return;
+    }
+    while (length > 0) {
+      if (!segment.hasRemaining() && !nextSegment()) {
+        return;   // can't grow the file (disk full?) -- drop the rest
+      }
+      // copy as much as fits in this segment
+      int n = Math.min(length, segment.remaining());
+      segment.put(array, offset, n);
+      offset += n;
+      length -= n;
+    }
+  }
+
+  public long position() {
+    return (segment != null) ? segmentStart + segment.position() : 0;
+  }
+
+  public File getFile() {
+    return path;
+  }
+
+  /**
+   * Nothing to do: bytes are in the page cache as soon as they are copied
+   * into the segment, and the sync thread takes care of getting them to disk
+   */
+  public void flush() {
+  }
+
+  public void close() {
+    if (channel == null) {
+      return;
+    }
+    syncTask.cancel(false);
+    final MappedByteBuffer last;
+    synchronized (this) {
+      long length = segmentStart + segment.position();
+      last = segment;
+      segment = null;
+      try {
+        channel.truncate(length);   // drop the unused part of the last segment
+      } catch (IOException e) {
+        // e.g. Windows won't truncate a file that is still mapped -- the zeros
+        // at the end of the file will be read as end of file
+      }
+      try {
+        file.close();
+      } catch (IOException e) {
+        e.printStackTrace();
+      }
+      channel = null; // avoid problems if write() is called again
+    }
+    syncExecutor.execute(last::force);  // don't wait on the disk here either
+  }
+
+  private boolean nextSegment() {
+    final MappedByteBuffer full = segment;
+    synchronized (this) {
+      try {
+        segment = channel.map(FileChannel.MapMode.READ_WRITE, segmentStart + segmentSize, segmentSize);
+        segmentStart += segmentSize;
+      } catch (IOException e) {
+        e.printStackTrace();
+        return false;
+      }
+    }
+    syncExecutor.execute(full::force);
+    return true;
+  }
+
+  // called periodically from the sync thread
+  private void forceSegment() {
+    final MappedByteBuffer current;
+    synchronized (this) {
+      current = segment;
+    }
+    // outside the lock, so a slow disk never holds up nextSegment() or
+    // close().  A segment retired meanwhile is still mapped, and forcing it
+    // again is harmless (close() and nextSegment() do the same).
+    if (current != null) {
+      current.force();
+    }
+  }
+}
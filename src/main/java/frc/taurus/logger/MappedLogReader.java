@@ -0,0 +1,377 @@
+package frc.taurus.logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.IntPredicate;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import frc.taurus.logger.generated.Compression;
+import frc.taurus.logger.generated.LogFileHeader;
+import frc.taurus.logger.generated.Packet;
+import frc.taurus.logger.generated.PacketFormat;
+
+/**
+ * Reads a log file through a read-only memory mapping, for tools that decode
+ * large logs on a desktop.
+ *
+ * Packets are returned as views into the mapping: nothing is copied, and
+ * iterating allocates nothing per packet.  Packets on channels that aren't
+ * wanted are skipped by looking only at their headers, so pulling one channel
+ * out of a large log only touches the pages that channel is on (plus the
+ * packet headers).
+ *
+ * Usage:
+ *
+ *   MappedLogReader reader = new MappedLogReader("drivetrain_status.log");
+ *   for (Iterator<LogPacket> it = reader.iterator(MappedLogReader.channels(ChannelType.DrivetrainStatus)); it.hasNext(); ) {
+ *     LogPacket packet = it.next();
+ *     DrivetrainStatus status = DrivetrainStatus.getRootAsDrivetrainStatus(packet.payloadAsByteBuffer());
+ *     ...
+ *   }
+ *
+ * The LogPacket returned by an iterator is reused: it (and its payload
+ * buffer) is only valid until the next call to next().  Copy what you need to
+ * keep.
+ *
+ * The whole file is mapped at once, so files are limited to 2 GB.  A
+ * compressed file (see Compression in LogFileHeader.fbs) is inflated into
+ * memory instead, when it is opened.  So is a DeltaFrame file (see
+ * DeltaCodec), whose payloads can only be decoded in order.
+ *
+ * close() drops the reader's reference to the mapping, so it is unmapped as
+ * soon as the iterators and packets still using it are garbage collected
+ * (Java has no way to unmap a buffer explicitly).
+ */
+public class MappedLogReader implements Iterable<LogPacket>, AutoCloseable {
+
+  final File file;
+  ByteBuffer mapping;             // (or the inflated contents of a compressed file), null once closed
+  final LogFileHeader fileHeader;
+  final byte packetFormat;       // (RawFrame for a DeltaFrame file, which is decoded when it is opened)
+  final int dataStart;    // offset of the first packet's size prefix
+
+  /**
+   * Open filename in the current log folder (see LogFileWriterBase.logPath())
+   */
+  public MappedLogReader(final String filename) throws IOException {
+    this(new File(LogFileWriterBase.logPath() + File.separator + filename));
+  }
+
+  public MappedLogReader(final File file) throws IOException {
+    this.file = file;
+    ByteBuffer mapped;
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new IOException(file.getAbsolutePath() + " is too big to map (" + channel.size() + " bytes)");
+      }
+      // the mapping stays valid after the channel is closed
+      mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+    mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+    // the first table is the header, which tells us how the packets are framed
+    int headerSize = sizeAt(mapped, 0);
+    if (headerSize <= 0) {
+      throw new IOException(file.getAbsolutePath() + " does not start with a LogFileHeader");
+    }
+    ByteBuffer header = mapped.duplicate();
+    header.position(Integer.BYTES);
+    header.limit(Integer.BYTES + headerSize);
+    fileHeader = LogFileHeader.getRootAsLogFileHeader(header.slice());
+    dataStart = Integer.BYTES + headerSize;
+
+    ByteBuffer contents = (fileHeader.compression() == Compression.Deflate) ? inflate(mapped) : mapped;
+    if (fileHeader.packetFormat() == PacketFormat.DeltaFrame) {
+      mapping = decodeDeltas(contents);
+      packetFormat = PacketFormat.RawFrame;
+    } else {
+      mapping = contents;
+      packetFormat = fileHeader.packetFormat();
+    }
+  }
+
+  /**
+   * @return the LogFileHeader followed by the inflated packets
+   */
+  private ByteBuffer inflate(final ByteBuffer mapped) throws IOException {
+    try (RandomAccessFile raFile = new RandomAccessFile(file, "r")) {
+      DeflateBlockReader blocks = new DeflateBlockReader(raFile, dataStart);
+      long length = blocks.length();
+      if (length > Integer.MAX_VALUE) {
+        throw new IOException(file.getAbsolutePath() + " is too big to inflate (" + length + " bytes)");
+      }
+      byte[] contents = new byte[(int)length];
+      mapped.duplicate().get(contents, 0, dataStart);
+      blocks.readFully(contents, dataStart, contents.length - dataStart);
+      blocks.close();
+      return ByteBuffer.wrap(contents).order(ByteOrder.LITTLE_ENDIAN);
+    }
+  }
+
+  /**
+   * @return contents with each DeltaFrame replaced by a RawFrame holding the
+   *         full payload
+   */
+  private ByteBuffer decodeDeltas(final ByteBuffer contents) {
+    DeltaCodec deltas = new DeltaCodec();
+    ByteBuffer decoded = ByteBuffer.allocate(2 * contents.limit() + 1024).order(ByteOrder.LITTLE_ENDIAN);
+    ByteBuffer frame = contents.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+
+    frame.limit(dataStart);
+    decoded.put(frame);     // LogFileHeader
+
+    int offset = dataStart;
+    int size;
+    while ((size = sizeAt(contents, offset)) > 0) {
+      frame.clear();
+      frame.position(offset + Integer.BYTES);
+      frame.limit(offset + Integer.BYTES + size);
+      LogPacket packet = deltas.decodeFrame(frame);
+      ByteBuffer payload = packet.payloadAsByteBuffer();
+
+      int frameSize = LogPacket.kRawFrameHeaderSize + payload.remaining();
+      if (decoded.remaining() < frameSize) {
+        ByteBuffer larger = ByteBuffer.allocate(2 * decoded.capacity() + frameSize).order(ByteOrder.LITTLE_ENDIAN);
+        decoded.flip();
+        larger.put(decoded);
+        decoded = larger;
+      }
+      LogPacket.putRawFrameHeader(decoded, packet.packetCount(), packet.channelType(), packet.queueSize(), payload.remaining());
+      decoded.put(payload);
+      offset += Integer.BYTES + size;
+    }
+    decoded.flip();
+    return decoded;
+  }
+
+  /**
+   * @return the LogFileHeader at the start of the file
+   */
+  public LogFileHeader getFileHeader() {
+    return fileHeader;
+  }
+
+  /**
+   * @return an iterator over every packet in the file
+   */
+  @Override
+  public Iterator<LogPacket> iterator() {
+    return iterator(channelType -> true);
+  }
+
+  /**
+   * @param channelFilter passed the channel_type of each packet -- packets it
+   *                      rejects are skipped without reading their payload
+   * @return an iterator over the packets that pass channelFilter
+   */
+  public Iterator<LogPacket> iterator(final IntPredicate channelFilter) {
+    return new PacketIterator(channelFilter);
+  }
+
+  @Override
+  public Spliterator<LogPacket> spliterator() {
+    return spliterator(channelType -> true);
+  }
+
+  public Spliterator<LogPacket> spliterator(final IntPredicate channelFilter) {
+    return Spliterators.spliteratorUnknownSize(iterator(channelFilter),
+        Spliterator.ORDERED | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+  }
+
+  /**
+   * Sequential stream of the packets that pass channelFilter.  The LogPacket
+   * is reused, so map() each one to something you can keep before collecting.
+   */
+  public Stream<LogPacket> stream(final IntPredicate channelFilter) {
+    return StreamSupport.stream(spliterator(channelFilter), false);
+  }
+
+  /**
+   * @return a channel filter that accepts only the listed channel types
+   */
+  public static IntPredicate channels(final byte... channelTypes) {
+    final boolean[] accept = new boolean[256];
+    for (byte channelType : channelTypes) {
+      accept[channelType & 0xFF] = true;
+    }
+    return channelType -> accept[channelType & 0xFF];
+  }
+
+  public String getName() {
+    return file.getName();
+  }
+
+  public String getAbsolutePath() {
+    return file.getAbsolutePath();
+  }
+
+  /**
+   * @return size of the table whose size prefix is at offset, or 0 if there
+   *         is no complete table there (end of file, or the zeros at the end
+   *         of a mapped file that wasn't truncated)
+   */
+  int sizeAt(final int offset) {
+    return sizeAt(mapping, offset);
+  }
+
+  private static int sizeAt(final ByteBuffer bb, final int offset) {
+    if (offset + Integer.BYTES > bb.limit()) {
+      return 0;
+    }
+    int size = bb.getInt(offset);
+    if (size <= 0 || size > bb.limit() - offset - Integer.BYTES) {
+      return 0;
+    }
+    return size;
+  }
+
+  /**
+   * @return a view that decodes packets at given offsets of the file, for
+   *         readers that don't go through the file in order (see LogMerger)
+   */
+  PacketView newView() {
+    if (mapping == null) {
+      throw new IllegalStateException(file.getAbsolutePath() + " is closed");
+    }
+    return new PacketView();
+  }
+
+  @Override
+  public void close() {
+    mapping = null;
+  }
+
+  /**
+   * Decodes the packet at a given offset into a LogPacket that is reused for
+   * every packet
+   */
+  class PacketView {
+    final ByteBuffer contents = mapping;    // (still valid after close())
+    final LogPacket packet = new LogPacket();
+    final ByteBuffer payload = contents.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    final ByteBuffer tableView = contents.duplicate();    // FlatBufferPacket only
+    final Packet table = new Packet();
+
+    PacketView() {
+      packet.payload = payload;
+    }
+
+    /**
+     * @param start offset of the packet, just past its size prefix
+     */
+    byte channelType(final int start) {
+      if (packetFormat == PacketFormat.RawFrame) {
+        return contents.get(start + 4);
+      }
+      tableView.position(start);
+      return Packet.getRootAsPacket(tableView, table).channelType();
+    }
+
+    /**
+     * @param offset offset of the packet's size prefix
+     */
+    LogPacket load(final int offset) {
+      return load(offset + Integer.BYTES, offset + Integer.BYTES + sizeAt(offset));
+    }
+
+    int sizeAt(final int offset) {
+      return MappedLogReader.sizeAt(contents, offset);
+    }
+
+    /**
+     * @param start offset of the packet, just past its size prefix
+     * @param end   offset of the end of the packet
+     */
+    LogPacket load(final int start, final int end) {
+      if (packetFormat == PacketFormat.RawFrame) {
+        packet.packetCount = contents.getInt(start) & 0xFFFFFFFFL;
+        packet.channelType = contents.get(start + 4);
+        packet.queueSize   = contents.get(start + 5) & 0xFF;
+        setPayload(start + LogPacket.kRawFrameHeaderSize - Integer.BYTES, end);
+      } else {
+        tableView.position(start);
+        Packet.getRootAsPacket(tableView, table);
+        packet.packetCount = table.packetCount();
+        packet.channelType = table.channelType();
+        packet.queueSize   = table.queueSize();
+        setPayloadVector(start);
+      }
+      return packet;
+    }
+
+    private void setPayload(final int begin, final int end) {
+      payload.clear();
+      payload.position(begin);
+      payload.limit(end);
+    }
+
+    // find the payload vector of the Packet at start.  (Packet.payloadAsByteBuffer()
+    // would allocate a new slice for every packet.)
+    private void setPayloadVector(final int start) {
+      final int kPayloadField = 10;   // vtable offset of Packet.payload
+      int table = start + contents.getInt(start);
+      int vtable = table - contents.getInt(table);
+      int o = (contents.getShort(vtable) > kPayloadField) ? contents.getShort(vtable + kPayloadField) : 0;
+      if (o == 0) {
+        setPayload(start, start);   // no payload
+        return;
+      }
+      int vector = table + o + contents.getInt(table + o);
+      int begin = vector + Integer.BYTES;
+      setPayload(begin, begin + contents.getInt(vector));
+    }
+  }
+
+  class PacketIterator implements Iterator<LogPacket> {
+    final IntPredicate channelFilter;
+    final PacketView view = newView();
+    int next = dataStart;     // offset of the next size prefix
+    boolean ready = false;    // view holds the next match
+
+    PacketIterator(final IntPredicate channelFilter) {
+      this.channelFilter = channelFilter;
+    }
+
+    @Override
+    public boolean hasNext() {
+      if (!ready) {
+        ready = advance();
+      }
+      return ready;
+    }
+
+    @Override
+    public LogPacket next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      ready = false;
+      return view.packet;
+    }
+
+    private boolean advance() {
+      while (true) {
+        int size = view.sizeAt(next);
+        if (size == 0) {
+          return false;
+        }
+        int start = next + Integer.BYTES;
+        next = start + size;
+        if (channelFilter.test(view.channelType(start))) {
+          view.load(start, next);
+          return true;
+        }
+      }
+    }
+  }
+}
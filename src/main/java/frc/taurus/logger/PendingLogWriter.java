@@ -0,0 +1,186 @@
+package frc.taurus.logger;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Stands in for a log file that is still being opened on the LogFileThread
+ * (see LoggerManager), so the LoggerThread never waits on mkdir or open.
+ *
+ * Packets written before the file is open are copied into a backlog in
+ * memory.  The first write after the file is open writes the backlog to it,
+ * ahead of the packet, and from then on packets go straight through.  Offsets
+ * (position()) count the backlog, so they are the offsets the packets end up
+ * at in the file.
+ *
+ * If the file takes so long to open that the backlog fills, further packets
+ * are dropped, and counted.
+ *
+ * Only one thread writes at a time: the LoggerThread, or the deflate thread
+ * once a DeflateLogWriter has been put in front of this writer.
+ */
+class PendingLogWriter implements BinaryLogWriter {
+
+  static final int kInitialBacklogSize = 16 * 1024;        // 16 kB
+  static final int kMaxBacklogSize = 8 * 1024 * 1024;      // 8 MB, several seconds of logging
+
+  final Future<BinaryLogWriter> opening;
+  final File file;
+  BinaryLogWriter out = null;       // once open
+  ByteBuffer backlog = ByteBuffer.allocate(kInitialBacklogSize);
+  long position = 0;
+  long backlogCount = 0;            // packets that waited in the backlog
+  long droppedCount = 0;            // packets that didn't fit in the backlog
+  boolean failed = false;           // the file couldn't be opened
+
+  /**
+   * @param opening writer being opened on another thread
+   * @param file    the file it writes
+   */
+  PendingLogWriter(final Future<BinaryLogWriter> opening, final File file) {
+    this.opening = opening;
+    this.file = file;
+  }
+
+  /**
+   * Write the remaining bytes of bb.  Advances the position of bb.
+   */
+  public void write(final ByteBuffer bb) {
+    if (isOpen()) {
+      position += bb.remaining();
+      out.write(bb);
+    } else if (reserve(bb.remaining())) {
+      position += bb.remaining();
+      backlog.put(bb);
+    } else {
+      bb.position(bb.limit());
+    }
+  }
+
+  /**
+   * Write header immediately followed by payload.  Advances the position of
+   * both buffers.
+   */
+  public void write(final ByteBuffer header, final ByteBuffer payload) {
+    int size = header.remaining() + payload.remaining();
+    if (isOpen()) {
+      position += size;
+      out.write(header, payload);
+    } else if (reserve(size)) {
+      position += size;
+      backlog.put(header);
+      backlog.put(payload);
+    } else {
+      header.position(header.limit());
+      payload.position(payload.limit());
+    }
+  }
+
+  /**
+   * Write header immediately followed by length bytes of array.  Advances
+   * the position of header.
+   */
+  public void write(final ByteBuffer header, final byte[] array, final int offset, final int length) {
+    int size = header.remaining() + length;
+    if (isOpen()) {
+      position += size;
+      out.write(header, array, offset, length);
+    } else if (reserve(size)) {
+      position += size;
+      backlog.put(header);
+      backlog.put(array, offset, length);
+    } else {
+      header.position(header.limit());
+    }
+  }
+
+  /**
+   * Make room in the backlog for one more packet
+   *
+   * @return false if the packet is dropped
+   */
+  private boolean reserve(final int size) {
+    if (failed) {
+      droppedCount++;
+      return false;
+    }
+    if (size > backlog.remaining()) {
+      int needed = backlog.position() + size;
+      if (needed > kMaxBacklogSize) {
+        if (droppedCount++ == 0) {
+          System.err.println("Log file " + file.getAbsolutePath() + " is taking too long to open, dropping packets");
+        }
+        return false;
+      }
+      ByteBuffer larger = ByteBuffer.allocate(Math.min(kMaxBacklogSize, Math.max(needed, 2 * backlog.capacity())));
+      backlog.flip();
+      larger.put(backlog);
+      backlog = larger;
+    }
+    backlogCount++;
+    return true;
+  }
+
+  /**
+   * @return true once the file is open and the backlog has been written to it
+   */
+  boolean isOpen() {
+    if (out == null && !failed && opening.isDone()) {
+      finishOpening();
+    }
+    return out != null;
+  }
+
+  private void finishOpening() {
+    try {
+      BinaryLogWriter writer = opening.get();
+      backlog.flip();
+      if (backlog.hasRemaining()) {
+        writer.write(backlog);
+      }
+      out = writer;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      failed = true;
+    } catch (ExecutionException e) {
+      System.err.println("Failed to open " + file.getAbsolutePath());
+      e.printStackTrace();
+      failed = true;
+    }
+    backlog = null;   // done with it either way
+  }
+
+  long getBacklogCount() { return backlogCount; }
+  long getDroppedCount() { return droppedCount; }
+
+  /**
+   * @return offset of the next packet in the file, counting the backlog
+   */
+  public long position() {
+    return position;
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  public void flush() {
+    if (isOpen()) {
+      out.flush();
+    }
+  }
+
+  /**
+   * Wait for the file to open, write the backlog to it, and close it
+   */
+  public void close() {
+    if (out == null && !failed) {
+      finishOpening();
+    }
+    if (out != null) {
+      out.close();
+    }
+  }
+}
@@ -0,0 +1,349 @@
+package frc.taurus.logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.DoubleSupplier;
+
+import frc.taurus.config.ChannelIntf;
+import frc.taurus.config.ChannelManager;
+import frc.taurus.config.Config;
+import frc.taurus.config.generated.ChannelType;
+import frc.taurus.joystick.generated.JoystickStatus;
+import frc.taurus.messages.MessageQueue;
+import frc.taurus.util.Clock;
+
+/**
+ * Feeds the packets of a log back into the queues of a ChannelManager, so
+ * that robot code that doesn't touch the HAL (Drivetrain, Controller, ...)
+ * can be run on a desktop against what was recorded on the field.
+ *
+ * Only the channels given to the constructor are replayed (by default the
+ * sensor inputs: DriverStationStatus, JoystickStatus and DrivetrainInput);
+ * the robot code under test produces everything else.  Packets are matched
+ * to a channel by channel_type.  The four joystick status channels share a
+ * channel_type, so JoystickStatus packets go to the queue of their port.
+ *
+ * Replay is divided into loops of one loop period.  Each step() writes the
+ * packets timestamped within the next loop period to their queues, sets the
+ * Clock to the end of that period, and then runs the loops added with
+ * addLoop().  The first period is centered on the first packet, so inputs
+ * that were logged once per loop don't fall on the period boundaries.
+ *
+ * Replay takes over the Clock, so messages written by the code under test
+ * carry log time, and two replays of the same log give the same result.  The
+ * previous Clock source is put back at the end of the log, when
+ * runAsFastAsPossible() or runRealTime() returns, and on close().
+ *
+ * There are three speeds:
+ *   step()                 one loop at a time, e.g. from a unit test or debugger
+ *   runAsFastAsPossible()  every loop back to back, for regression tests
+ *   runRealTime()          paced to the wall clock, as it ran on the robot
+ *
+ * Usage:
+ *
+ *   ReplayEngine replay = ReplayEngine.fromFolder(channelManager, folder, Constants.kLoopDt);
+ *   replay.addLoop(controls::update);
+ *   replay.addLoop(drivetrain::update);
+ *   replay.runAsFastAsPossible();
+ *
+ * Code under test writes to the same ChannelManager, so its output is logged
+ * like it is on the robot.  Point the log folder somewhere else first (see
+ * LogFileWriterBase.updateLogFolderTimestamp()), or the replay's loggers will
+ * overwrite the files being replayed.
+ */
+public class ReplayEngine implements AutoCloseable {
+
+  final ChannelManager channelManager;
+  final Iterator<LogPacket> packets;
+  final double loopPeriod;
+  final List<Runnable> loops = new ArrayList<>();
+
+  // queue of each replayed channel_type, and of each replayed joystick port
+  @SuppressWarnings("unchecked")
+  final MessageQueue<ByteBuffer>[] queues = new MessageQueue[256];
+  @SuppressWarnings("unchecked")
+  final MessageQueue<ByteBuffer>[] joystickStatusQueues = new MessageQueue[5];
+  final boolean[] replayed = new boolean[256];
+
+  // next packet to publish, copied out of the reader
+  byte nextChannelType;
+  double nextTimestamp;
+  ByteBuffer nextPayload = null;
+
+  boolean started = false;
+  double startTime = 0.0;     // start of the first loop period
+  long loopCount = 0;
+  long packetCount = 0;       // packets written to queues
+  long skippedCount = 0;      // packets with no queue to go to
+  volatile boolean running = false;
+  DoubleSupplier previousClock = null;    // Clock source to put back, while replay has the Clock
+
+  /**
+   * Replay the sensor inputs of the robot
+   */
+  public static ChannelIntf[] defaultChannels() {
+    return new ChannelIntf[] {
+      Config.DRIVER_STATION_STATUS,
+      Config.JOYSTICK_PORT_1_STATUS,
+      Config.JOYSTICK_PORT_2_STATUS,
+      Config.JOYSTICK_PORT_3_STATUS,
+      Config.JOYSTICK_PORT_4_STATUS,
+      Config.DRIVETRAIN_INPUT
+    };
+  }
+
+  /**
+   * @param packets    packets in timestamp order, e.g. from a LogMerger or
+   *                   MappedLogReader.  Packets may be reused by the iterator.
+   * @param loopPeriod seconds of log time per loop
+   * @param channels   channels to replay (defaultChannels() if none are given)
+   */
+  public ReplayEngine(ChannelManager channelManager, final Iterator<LogPacket> packets, final double loopPeriod,
+      ChannelIntf... channels) {
+    if (loopPeriod <= 0) {
+      throw new IllegalArgumentException("Loop period must be positive");
+    }
+    this.channelManager = channelManager;
+    this.packets = packets;
+    this.loopPeriod = loopPeriod;
+
+    if (channels.length == 0) {
+      channels = defaultChannels();
+    }
+    for (ChannelIntf channel : channels) {
+      int type = channel.getNum() & 0xFF;
+      replayed[type] = true;
+      if (queues[type] == null) {
+        queues[type] = channelManager.fetch(channel);
+      }
+    }
+    for (int port = 1; port < joystickStatusQueues.length; port++) {
+      MessageQueue<ByteBuffer> queue = channelManager.fetchJoystickStatusQueue(port);
+      for (ChannelIntf channel : channels) {
+        if (channelManager.fetch(channel) == queue) {
+          joystickStatusQueues[port] = queue;
+        }
+      }
+    }
+  }
+
+  /**
+   * Replay a single log file, read with a FlatBuffersLogReader
+   */
+  public ReplayEngine(ChannelManager channelManager, final FlatBuffersLogReader reader, final double loopPeriod,
+      ChannelIntf... channels) {
+    this(channelManager, packets(reader), loopPeriod, channels);
+  }
+
+  /**
+   * Replay every log file in folder, merged into one timeline (see LogMerger)
+   */
+  public static ReplayEngine fromFolder(ChannelManager channelManager, final File folder, final double loopPeriod,
+      ChannelIntf... channels) throws IOException {
+    return new ReplayEngine(channelManager, new LogMerger(folder).iterator(), loopPeriod, channels);
+  }
+
+  /**
+   * Loops run in the order they are added, once per step()
+   */
+  public void addLoop(final Runnable loop) {
+    loops.add(loop);
+  }
+
+  /**
+   * Replay one loop period: write its packets to their queues, then run the
+   * loops.
+   *
+   * @return false if the end of the log was reached (no loops were run)
+   */
+  public boolean step() {
+    takeClock();
+    if (!started) {
+      started = true;
+      if (!advance()) {
+        releaseClock();
+        return false;
+      }
+      startTime = nextTimestamp - 0.5 * loopPeriod;
+    }
+    if (nextPayload == null) {
+      releaseClock();
+      return false;
+    }
+
+    double loopEnd = loopEndTime(loopCount);
+    while (nextPayload != null && nextTimestamp < loopEnd) {
+      publish();
+      advance();
+    }
+
+    loopCount++;    // Clock now reads loopEnd
+    for (int k = 0; k < loops.size(); k++) {
+      loops.get(k).run();
+    }
+    return true;
+  }
+
+  /**
+   * Run every loop back to back, until the end of the log or stop()
+   *
+   * @return number of loops run
+   */
+  public long runAsFastAsPossible() {
+    long first = loopCount;
+    running = true;
+    while (running && step()) {
+    }
+    running = false;
+    releaseClock();
+    return loopCount - first;
+  }
+
+  /**
+   * Run one loop every loop period of wall clock time, until the end of the
+   * log or stop()
+   *
+   * @return number of loops run
+   */
+  public long runRealTime() {
+    long first = loopCount;
+    long wallStart = System.nanoTime();
+    running = true;
+    while (running) {
+      // loop k finishes loopPeriod after it starts
+      long deadline = wallStart + (long)((loopCount - first + 1) * loopPeriod * 1e9);
+      long now;
+      while (running && (now = System.nanoTime()) < deadline) {
+        LockSupport.parkNanos(this, deadline - now);
+      }
+      if (!running || !step()) {
+        break;
+      }
+    }
+    running = false;
+    releaseClock();
+    return loopCount - first;
+  }
+
+  /**
+   * Stop runAsFastAsPossible() or runRealTime() (from another thread, or from
+   * a loop) after the current loop
+   */
+  public void stop() {
+    running = false;
+  }
+
+  /**
+   * Put back the Clock source replay replaced, e.g. after stepping through
+   * part of a log with step().  A later step() takes the Clock again.
+   */
+  @Override
+  public void close() {
+    releaseClock();
+  }
+
+  private void takeClock() {
+    if (previousClock == null) {
+      previousClock = Clock.getSource();
+      Clock.setSource(this::getTimestamp);
+    }
+  }
+
+  private void releaseClock() {
+    if (previousClock != null) {
+      Clock.setSource(previousClock);
+      previousClock = null;
+    }
+  }
+
+  /**
+   * @return log time of the loop running now (the end of its loop period)
+   */
+  public double getTimestamp() {
+    return loopEndTime(loopCount - 1);
+  }
+
+  public long getLoopCount()    { return loopCount; }
+  public long getPacketCount()  { return packetCount; }
+  public long getSkippedCount() { return skippedCount; }
+
+  // computed from the loop count, so that time doesn't drift from adding up loopPeriod
+  private double loopEndTime(final long loop) {
+    return startTime + (loop + 1) * loopPeriod;
+  }
+
+  /**
+   * Copy the next replayed packet out of the iterator
+   *
+   * @return false at the end of the log
+   */
+  private boolean advance() {
+    while (packets.hasNext()) {
+      LogPacket packet = packets.next();
+      if (!replayed[packet.channelType() & 0xFF]) {
+        continue;
+      }
+      // the iterator may reuse the packet, and the queue keeps the payload
+      ByteBuffer payload = packet.payloadAsByteBuffer();
+      ByteBuffer copy = ByteBuffer.allocate(payload.remaining()).order(ByteOrder.LITTLE_ENDIAN);
+      copy.put(payload.duplicate());
+      copy.flip();
+
+      nextChannelType = packet.channelType();
+      nextTimestamp = LogPacket.getTimestamp(copy);
+      nextPayload = copy;
+      return true;
+    }
+    nextPayload = null;
+    return false;
+  }
+
+  private void publish() {
+    MessageQueue<ByteBuffer> queue = queues[nextChannelType & 0xFF];
+    if (nextChannelType == ChannelType.JoystickStatus) {
+      queue = joystickStatusQueue(nextPayload);
+    }
+    if (queue == null) {
+      skippedCount++;
+      return;
+    }
+    queue.write(nextPayload);
+    packetCount++;
+  }
+
+  private MessageQueue<ByteBuffer> joystickStatusQueue(final ByteBuffer payload) {
+    int port = JoystickStatus.getRootAsJoystickStatus(payload).port();
+    return (port > 0 && port < joystickStatusQueues.length) ? joystickStatusQueues[port] : null;
+  }
+
+  /**
+   * @return iterator over the packets of reader
+   */
+  static Iterator<LogPacket> packets(final FlatBuffersLogReader reader) {
+    return new Iterator<LogPacket>() {
+      LogPacket next = reader.getNextPacket();
+
+      @Override
+      public boolean hasNext() {
+        return next != null;
+      }
+
+      @Override
+      public LogPacket next() {
+        if (next == null) {
+          throw new NoSuchElementException();
+        }
+        LogPacket packet = next;
+        next = reader.getNextPacket();
+        return packet;
+      }
+    };
+  }
+}
@@ -19,19 +19,27 @@ public final class LogFileHeader extends Table {
   public double timestamp() { int o = __offset(4); return o != 0 ? bb.getDouble(o + bb_pos) : 0.0; }
   public frc.taurus.config.generated.Configuration configuration() { return configuration(new frc.taurus.config.generated.Configuration()); }
   public frc.taurus.config.generated.Configuration configuration(frc.taurus.config.generated.Configuration obj) { int o = __offset(6); return o != 0 ? obj.__assign(__indirect(o + bb_pos), bb) : null; }
+  public byte packetFormat() { int o = __offset(8); return o != 0 ? bb.get(o + bb_pos) : 0; }
+  public byte compression() { int o = __offset(10); return o != 0 ? bb.get(o + bb_pos) : 0; }
 
   public static int createLogFileHeader(FlatBufferBuilder builder,
       double timestamp,
-      int configurationOffset) {
-    builder.startTable(2);
+      int configurationOffset,
+      byte packet_format,
+      byte compression) {
+    builder.startTable(4);
     LogFileHeader.addTimestamp(builder, timestamp);
     LogFileHeader.addConfiguration(builder, configurationOffset);
+    LogFileHeader.addCompression(builder, compression);
+    LogFileHeader.addPacketFormat(builder, packet_format);
     return LogFileHeader.endLogFileHeader(builder);
   }
 
-  public static void startLogFileHeader(FlatBufferBuilder builder) { builder.startTable(2); }
+  public static void startLogFileHeader(FlatBufferBuilder builder) { builder.startTable(4); }
   public static void addTimestamp(FlatBufferBuilder builder, double timestamp) { builder.addDouble(0, timestamp, 0.0); }
   public static void addConfiguration(FlatBufferBuilder builder, int configurationOffset) { builder.addOffset(1, configurationOffset, 0); }
+  public static void addPacketFormat(FlatBufferBuilder builder, byte packetFormat) { builder.addByte(2, packetFormat, 0); }
+  public static void addCompression(FlatBufferBuilder builder, byte compression) { builder.addByte(3, compression, 0); }
   public static int endLogFileHeader(FlatBufferBuilder builder) {
     int o = builder.endTable();
     builder.required(o, 6);  // configuration
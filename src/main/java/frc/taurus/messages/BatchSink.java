@@ -0,0 +1,13 @@
+package frc.taurus.messages;
+
+/**
+ * Receives the elements passed out by QueueReader.drainTo()
+ */
+public interface BatchSink<T> {
+
+  /**
+   * @param element   next element, oldest first
+   * @param remaining number of unread elements in the queue, including this one
+   */
+  void accept(T element, int remaining);
+}
@@ -0,0 +1,59 @@
+package frc.taurus.messages;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * One bit per channel number, set when a message is written to that
+ * channel's queue.  Lets a reader (e.g. the logger) visit only the channels
+ * that have new data instead of polling every queue.
+ *
+ * Channel numbers are bytes, so there are 256 bits.  Channels that share a
+ * number share a bit.
+ */
+public class DirtyBitmap {
+
+  public static final int kNumBits = 256;
+  public static final int kNumWords = kNumBits / Long.SIZE;
+
+  private final AtomicLongArray words = new AtomicLongArray(kNumWords);
+
+  /**
+   * Mark channel number num as having new data.  Called by writers.
+   */
+  public void set(final int num) {
+    final int word = (num & 0xFF) >>> 6;
+    final long bit = 1L << (num & 63);
+    // skip the atomic write when the bit is already set, which is the common
+    // case for a channel written faster than it is read
+    long current;
+    while (((current = words.get(word)) & bit) == 0) {
+      if (words.compareAndSet(word, current, current | bit)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Atomically copy the bitmap into dst and clear it
+   *
+   * @param dst array of at least kNumWords longs
+   */
+  public void swap(final long[] dst) {
+    for (int k = 0; k < kNumWords; k++) {
+      dst[k] = words.getAndSet(k, 0L);
+    }
+  }
+
+  /**
+   * Set every bit in dst, e.g. to force a full scan
+   */
+  public static void setAll(final long[] dst) {
+    for (int k = 0; k < kNumWords; k++) {
+      dst[k] = -1L;
+    }
+  }
+
+  public static boolean isSet(final long[] bits, final int num) {
+    return (bits[(num & 0xFF) >>> 6] & (1L << (num & 63))) != 0;
+  }
+}
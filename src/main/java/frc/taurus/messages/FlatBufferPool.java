@@ -0,0 +1,95 @@
+package frc.taurus.messages;
+
+import java.nio.ByteBuffer;
+
+import com.google.flatbuffers.FlatBufferBuilder;
+
+/**
+ * Reuses the ByteBuffers that a producer builds its flatbuffers in, so a
+ * message written every loop doesn't create garbage every loop.
+ *
+ * Usage, in place of new FlatBufferBuilder() and queue.write():
+ *
+ *   FlatBufferBuilder builder = pool.borrow();
+ *   ...build and finish the message...
+ *   pool.write(builder);
+ *
+ * The pool has one buffer for every element of the queue, plus a few spare.
+ * A buffer is reused once it has dropped out of the queue and every
+ * QueueReader has moved past it (a reader may still be using the element it
+ * read last).  If a slow reader still holds the buffer, a new one is
+ * allocated in its place, so a stalled reader costs garbage, never data.
+ *
+ * A pool belongs to one producer thread.  Several producers (each with their
+ * own pool) may write to the same queue.
+ */
+public class FlatBufferPool {
+
+  static final int kNumSpare = 4;   // buffers beyond the queue's capacity
+  static final int kDefaultBufferSize = 64;
+
+  final MessageQueue<ByteBuffer> queue;
+  final ByteBuffer[] buffers;
+  final int[] writeIndex;           // queue index each buffer was last written at
+  final FlatBufferBuilder builder;
+  int bufferSize;                   // size of new buffers -- grows to fit the largest message
+  int next = 0;                     // buffer to use for the next message
+  long numAllocated = 0;            // buffers allocated (steady state: none)
+
+  public FlatBufferPool(final MessageQueue<ByteBuffer> queue) {
+    this(queue, kDefaultBufferSize);
+  }
+
+  public FlatBufferPool(final MessageQueue<ByteBuffer> queue, final int bufferSize) {
+    this.queue = queue;
+    this.bufferSize = bufferSize;
+    buffers = new ByteBuffer[queue.capacity() + kNumSpare];
+    writeIndex = new int[buffers.length];
+    builder = new FlatBufferBuilder(1);   // re-initialized by borrow()
+  }
+
+  /**
+   * @return a cleared builder, backed by a buffer that nobody is reading
+   */
+  public FlatBufferBuilder borrow() {
+    if (buffers[next] == null || !isFree(next)) {
+      // first time around, or some reader is behind -- don't wait for it
+      buffers[next] = allocate();
+    }
+    return builder.init(buffers[next], FlatBufferBuilder.HeapByteBufferFactory.INSTANCE);
+  }
+
+  /**
+   * Write the finished message in builder to the queue
+   */
+  public void write(final FlatBufferBuilder builder) {
+    ByteBuffer bb = builder.dataBuffer();
+    bufferSize = Math.max(bufferSize, bb.capacity());   // builder may have outgrown its buffer
+    buffers[next] = bb;
+
+    queue.write(bb);
+
+    // back()-1 is at least the index bb was written at, even if another
+    // thread wrote in the meantime, so it is safe to wait for
+    writeIndex[next] = queue.back() - 1;
+    next = (next + 1) % buffers.length;
+  }
+
+  /**
+   * @return number of buffers allocated since the pool was created
+   */
+  public long getNumAllocated() {
+    return numAllocated;
+  }
+
+  private boolean isFree(final int k) {
+    final int idx = writeIndex[k];
+    return idx < queue.front()                  // no longer in the queue
+        && idx + 1 < queue.minReaderIndex();    // every reader has read past it
+  }
+
+  private ByteBuffer allocate() {
+    numAllocated++;
+    return ByteBuffer.allocate(bufferSize);
+  }
+}
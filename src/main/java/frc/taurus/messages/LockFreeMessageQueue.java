@@ -0,0 +1,205 @@
+package frc.taurus.messages;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A MessageQueue for channels with a single writer thread and any number of
+ * reader threads.
+ *
+ * No locks are taken by write(), read() or readLast(), so a low priority
+ * reader (e.g. the LoggerThread) can never block the real-time writer.
+ *
+ * Every slot carries the index of the element stored in it. The writer
+ * invalidates the slot's sequence number before replacing the element and
+ * publishes the new index afterwards. A reader checks the sequence number
+ * before and after fetching the element, and retries if the slot was
+ * overwritten underneath it.
+ *
+ * Only one thread may call write() or clear().
+ */
+public class LockFreeMessageQueue<T> extends MessageQueue<T> {
+
+  private static final int kInvalidSequence = -1;
+  private static final long kBlockParkNs = 100000;   // 0.1 ms, between checks on a BLOCK reader
+
+  private final AtomicReferenceArray<T> elements;  // storage array (circular), a power of 2 long
+  private final AtomicIntegerArray sequence;       // index of the element stored in each slot
+  private final int mask;                          // slot of index idx is idx & mask
+  private final int capacity;
+  private volatile int back = 0;                   // index of last (youngest) element + 1
+
+  /**
+   * Constructor that creates a queue with the default size .
+   */
+  public LockFreeMessageQueue() {
+    this(defaultQueueSize);
+  }
+
+  /**
+   * Constructor that creates a queue with the specified size
+   *
+   * @param size the size of the queue (cannot be changed)
+   */
+  public LockFreeMessageQueue(final int size) {
+    super(size, false);   // elements replaces the superclass's buffer
+    capacity = size;
+    int length = roundUpToPowerOf2(size);
+    mask = length - 1;
+    elements = new AtomicReferenceArray<T>(length);
+    sequence = new AtomicIntegerArray(length);
+    invalidateAll();
+  }
+
+  @Override
+  public int front() {
+    return Math.max(back, capacity) - capacity;
+  }
+
+  @Override
+  public int back() {
+    return back;
+  }
+
+  @Override
+  public void clear() {
+    invalidateAll();
+    back = 0;
+  }
+
+  @Override
+  public void write(final T element) {
+    checkNotNull(element);    // a null element would look like a slot being overwritten
+    checkGuardedReaders();
+    final int idx = back;
+    final int slot = idx & mask;
+
+    // lazySet() has release semantics, which is all we need to keep these
+    // three stores in order with only one writer
+    sequence.lazySet(slot, kInvalidSequence); // readers of the old element will retry
+    elements.lazySet(slot, element);
+    sequence.lazySet(slot, idx);              // publish the new element
+    back = idx + 1;
+
+    markDirty();
+    messageAdded();  // call update() function of all listeners
+    wakeWaiters();
+  }
+
+  /**
+   * No lock to release: just park the writer for a moment
+   */
+  @Override
+  protected boolean waitForReader() {
+    LockSupport.parkNanos(kBlockParkNs);
+    return !Thread.currentThread().isInterrupted();
+  }
+
+  @Override
+  public T readOrNull(QueueReader reader) {
+    while (true) {
+      final int currentBack = back;
+
+      // make sure idx is in the bounds of valid data
+      if (reader.nextReadIndex >= currentBack) {
+        // idx has moved too far forward. Message has not yet been written.
+        reader.nextReadIndex = currentBack;
+        return null;
+      }
+      reader.updateLag(currentBack);
+
+      final int currentFront = Math.max(currentBack, capacity) - capacity;
+      if (reader.nextReadIndex < currentFront) {
+        // idx is too far back. This data has already been overwritten.
+        reader.skipTo(currentFront);
+      }
+
+      final int idx = reader.nextReadIndex;
+      T element = readSlot(idx);
+      if (element != null) {
+        reader.nextReadIndex++;
+        reader.readCount++;
+        return element;
+      }
+      // slot was overwritten while we were reading it -- try again from the new front
+    }
+  }
+
+  @Override
+  public T readLastOrNull() {
+    while (true) {
+      final int currentBack = back;
+      if (currentBack == 0) {
+        // nothing written yet
+        return null;
+      }
+
+      T element = readSlot(currentBack - 1);
+      if (element != null) {
+        return element;
+      }
+      // writer lapped us -- try again with the new back
+    }
+  }
+
+  /**
+   * Pass up to max unread elements to sink.  Reads up to the back() seen on
+   * entry; elements overwritten during the batch are skipped, as in read().
+   */
+  @Override
+  public int drainTo(QueueReader reader, BatchSink<? super T> sink, int max) {
+    final int currentBack = back;
+    if (reader.nextReadIndex > currentBack) {
+      reader.nextReadIndex = currentBack;
+    }
+    reader.updateLag(currentBack);
+
+    int count = 0;
+    while (count < max && reader.nextReadIndex < currentBack) {
+      final int currentFront = Math.max(back, capacity) - capacity;
+      if (reader.nextReadIndex < currentFront) {
+        // idx is too far back. This data has already been overwritten.
+        reader.skipTo(currentFront);
+        if (reader.nextReadIndex >= currentBack) {
+          break;
+        }
+      }
+
+      final int idx = reader.nextReadIndex;
+      T element = readSlot(idx);
+      if (element != null) {
+        reader.nextReadIndex++;
+        reader.readCount++;
+        sink.accept(element, currentBack - idx);
+        count++;
+      }
+      // else: slot was overwritten while we were reading it -- go around again
+    }
+    return count;
+  }
+
+  /**
+   * Fetch the element with index idx.
+   *
+   * @return the element, or null if the slot no longer (or does not yet) hold
+   *         element idx
+   */
+  private T readSlot(final int idx) {
+    final int slot = idx & mask;
+    if (sequence.get(slot) != idx) {
+      return null;
+    }
+    T element = elements.get(slot);
+    if (sequence.get(slot) != idx) {
+      return null;  // torn: element was replaced while we were reading it
+    }
+    return element;
+  }
+
+  private void invalidateAll() {
+    for (int k = 0; k < sequence.length(); k++) {
+      sequence.set(k, kInvalidSequence);
+    }
+  }
+}
@@ -1,14 +1,34 @@
 package frc.taurus.messages;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
 
 public class MessageQueue<T> extends QueueManager {
 
-  private T[] buffer; // storage array (circular)
-  private int capacity; // capacity (size of buffer)
+  private T[] buffer; // storage array (circular), a power of 2 long
+  private int mask; // buffer.length - 1: index & mask is the slot of an index
+  private int capacity; // capacity (at most buffer.length)
   private int back = 0; // index of last (youngest) element in array
 
-  private static final int defaultQueueSize = 512;
+  protected static final int defaultQueueSize = 512;
+  public static final long kMaxBlockMs = 10;    // longest a write waits for a BLOCK reader, once per overflow
+
+  // every open reader made by makeReader(), so we know which elements are
+  // still being read (see FlatBufferPool)
+  private final List<QueueReader> readers = new CopyOnWriteArrayList<>();
+  // the BLOCK readers, that writes wait for before overwriting what they
+  // haven't read (usually none)
+  private final List<QueueReader> guardedReaders = new CopyOnWriteArrayList<>();
+  // threads parked in QueueReader.await() or QueueSelector.select(), until
+  // the next write
+  private final List<Thread> waiters = new CopyOnWriteArrayList<>();
+
+  // optional: bit set in dirtyBitmap on every write
+  private DirtyBitmap dirtyBitmap = null;
+  private int dirtyBit;
 
   /**
    * Constructor that creates a queue with the default size .
@@ -20,15 +40,46 @@ public class MessageQueue<T> extends QueueManager {
   /**
    * Constructor that creates a queue with the specified size
    * 
+   * Storage is rounded up to a power of 2, so slots are found with a mask
+   * instead of %.  Sizes that are already a power of 2 (see
+   * roundUpToPowerOf2()) waste nothing.
+   * 
    * @param size the size of the queue (cannot be changed)
    */
-  @SuppressWarnings("unchecked")
   public MessageQueue(final int size) {
+    this(size, true);
+  }
+
+  /**
+   * For subclasses with storage of their own (see LockFreeMessageQueue),
+   * which override every method that touches the buffer.
+   * 
+   * @param allocateStorage false to skip allocating this class's buffer
+   */
+  @SuppressWarnings("unchecked")
+  protected MessageQueue(final int size, final boolean allocateStorage) {
     if (size <= 0) {
       throw new IllegalArgumentException("The size must be greater than 0");
     }
-    buffer = (T[]) new Object[size];
-    capacity = buffer.length;
+    if (allocateStorage) {
+      buffer = (T[]) new Object[roundUpToPowerOf2(size)];
+      mask = buffer.length - 1;
+    }
+    capacity = size;
+  }
+
+  /**
+   * @return smallest power of 2 that is at least size
+   */
+  public static int roundUpToPowerOf2(final int size) {
+    if (size <= 1) {
+      return 1;
+    }
+    int power = Integer.highestOneBit(size - 1) << 1;
+    if (power <= 0) {
+      throw new IllegalArgumentException("Queue size " + size + " is too large");
+    }
+    return power;
   }
 
   /**
@@ -60,48 +111,285 @@ public class MessageQueue<T> extends QueueManager {
     return back;
   }
 
+  /**
+   * Set bit in dirtyBitmap whenever a message is written to this queue
+   */
+  public void setDirtyBitmap(final DirtyBitmap dirtyBitmap, final int bit) {
+    this.dirtyBit = bit;
+    this.dirtyBitmap = dirtyBitmap;
+  }
+
+  void addWaiter(final Thread thread) {
+    waiters.add(thread);
+  }
+
+  void removeWaiter(final Thread thread) {
+    waiters.remove(thread);
+  }
+
+  /**
+   * Unpark every thread waiting for a write.  Called after back() has moved,
+   * so a waiter that registers and then checks back() can't miss a write.
+   */
+  protected void wakeWaiters() {
+    if (waiters.isEmpty()) {
+      return;
+    }
+    for (Thread thread : waiters) {
+      LockSupport.unpark(thread);
+    }
+  }
+
+  protected void markDirty() {
+    if (dirtyBitmap != null) {
+      dirtyBitmap.set(dirtyBit);
+    }
+  }
+
   public synchronized void clear() {
     back = 0;
   }
 
-  public synchronized void write(final T element) {
-    buffer[back % capacity] = null; // dereference for garbage collection. Not sure this is necessary
-    buffer[back % capacity] = element;
-    back++;
+  /**
+   * @param element element to write, not null (readers return null for "no
+   *                element")
+   */
+  public void write(final T element) {
+    checkNotNull(element);
+    synchronized (this) {
+      checkGuardedReaders();
+      buffer[back & mask] = element;
+      back++;
+    }
 
+    // after releasing the lock, so listeners don't hold up readers and other writers
+    markDirty();
     messageAdded();  // call update() function of all listeners
+    wakeWaiters();
+  }
+
+  protected static void checkNotNull(final Object element) {
+    if (element == null) {
+      throw new IllegalArgumentException("Can't write null to a MessageQueue");
+    }
   }
 
-  public synchronized Optional<T> read(QueueReader reader) {
+  public Optional<T> read(QueueReader reader) {
+    return Optional.ofNullable(readOrNull(reader));
+  }
+
+  /**
+   * Same as read(), without allocating an Optional
+   * 
+   * @return next element for reader, or null if there is none
+   */
+  public synchronized T readOrNull(QueueReader reader) {
     // make sure idx is in the bounds of valid data
     if (reader.nextReadIndex >= back) {
       // idx has moved too far forward. Message has not yet been written.
       reader.nextReadIndex = back;
-      return Optional.empty();
+      return null;
     }
+    reader.updateLag(back);
 
     if (reader.nextReadIndex < front()) {
       // idx is too far back. This data has already been overwritten.
-      reader.nextReadIndex = front();
+      reader.skipTo(front());
     }
 
-    T element = buffer[reader.nextReadIndex % capacity];
+    T element = buffer[reader.nextReadIndex & mask];
     reader.nextReadIndex++;
+    reader.readCount++;
 
-    return Optional.of(element);
+    return element;
   }
 
-  public synchronized Optional<T> readLast() {
+  public Optional<T> readLast() {
+    return Optional.ofNullable(readLastOrNull());
+  }
+
+  /**
+   * Same as readLast(), without allocating an Optional
+   * 
+   * @return last element, or null if nothing has been written
+   */
+  public synchronized T readLastOrNull() {
     if (back == 0) {
       // nothing written yet
-      return Optional.empty();
+      return null;
+    }
+    return buffer[(back - 1) & mask];
+  }
+
+  /**
+   * Pass up to max unread elements to sink, oldest first.  The slice of the
+   * ring is copied out under one lock, and sink runs after the lock is
+   * released, so writers never wait on it.
+   * 
+   * @return number of elements passed to sink
+   */
+  @SuppressWarnings("unchecked")
+  public int drainTo(QueueReader reader, BatchSink<? super T> sink, int max) {
+    final int start;
+    final int count;
+    final int currentBack;
+    synchronized (this) {
+      if (reader.nextReadIndex > back) {
+        reader.nextReadIndex = back;
+      }
+      reader.updateLag(back);
+      if (reader.nextReadIndex < front()) {
+        // idx is too far back. This data has already been overwritten.
+        reader.skipTo(front());
+      }
+
+      start = reader.nextReadIndex;
+      currentBack = back;
+      count = Math.min(back - start, max);
+      if (reader.batch.length < count) {
+        reader.batch = new Object[count];   // grows to the largest backlog, at most capacity
+      }
+      for (int k = 0; k < count; k++) {
+        reader.batch[k] = buffer[(start + k) & mask];
+      }
+    }
+
+    for (int k = 0; k < count; k++) {
+      T element = (T)reader.batch[k];
+      reader.batch[k] = null;
+      // advance one at a time, so the element being passed to sink counts as
+      // still in use (see FlatBufferPool)
+      reader.nextReadIndex = start + k + 1;
+      reader.readCount++;
+      sink.accept(element, currentBack - (start + k));
     }
-    T element = buffer[(back - 1) % capacity];
-    return Optional.of(element);
+    return count;
   }
 
   public QueueReader makeReader() {
-    return new QueueReader(this);
+    return makeReader(OverflowPolicy.OVERWRITE);
+  }
+
+  /**
+   * Make a reader that decides what happens when it falls capacity()
+   * elements behind.  BLOCK and FAIL_FAST are for the few readers that
+   * can't lose messages; BLOCK makes writers wait on the reader, so keep it
+   * off queues written from a real-time thread.
+   * 
+   * Close the reader when done with it, so it stops holding back writers and
+   * FlatBufferPool.
+   */
+  public QueueReader makeReader(final OverflowPolicy policy) {
+    QueueReader reader = new QueueReader(this, policy);
+    readers.add(reader);
+    if (policy == OverflowPolicy.BLOCK) {
+      guardedReaders.add(reader);
+    }
+    return reader;
+  }
+
+  void removeReader(final QueueReader reader) {
+    readers.remove(reader);
+    guardedReaders.remove(reader);
+  }
+
+  /**
+   * Called by write() before it overwrites the element at back() - capacity().
+   * If a BLOCK reader hasn't read it yet, wait once, for at most kMaxBlockMs,
+   * for it to catch up.  A reader that is still behind after that is marked
+   * overflowed, and writes don't wait for it again until it has read past
+   * what was overwritten.
+   */
+  protected void checkGuardedReaders() {
+    if (guardedReaders.isEmpty()) {
+      return;
+    }
+    for (var reader : guardedReaders) {
+      if (reader.overflowed) {
+        continue;
+      }
+      long deadline = System.nanoTime() + kMaxBlockMs * 1000000;
+      while (reader.nextReadIndex <= back() - capacity) {
+        if (System.nanoTime() > deadline || !waitForReader()) {
+          // give up: overwrite it, the reader counts it as skipped
+          reader.overflowed = true;
+          break;
+        }
+      }
+    }
+  }
+
+  /**
+   * Give a BLOCK reader a chance to read.  Releases the lock write() holds.
+   * 
+   * @return false if interrupted
+   */
+  protected boolean waitForReader() {
+    try {
+      wait(1);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Returns the lowest nextReadIndex of all readers of this queue, or back()
+   * if there are no readers.  Every element before this index has been read
+   * by every reader.
+   * 
+   * @return index of the oldest element not yet read by some reader
+   */
+  public int minReaderIndex() {
+    int minIndex = back();
+    for (var reader : readers) {
+      minIndex = Math.min(minIndex, reader.nextReadIndex);
+    }
+    return minIndex;
+  }
+
+  /**
+   * @return number of open readers made by makeReader()
+   */
+  public int numReaders() {
+    return readers.size();
+  }
+
+  /**
+   * @return elements read, summed over all readers
+   */
+  public long readCount() {
+    long count = 0;
+    for (var reader : readers) {
+      count += reader.readCount;
+    }
+    return count;
+  }
+
+  /**
+   * @return elements overwritten before a reader got to them, summed over all
+   *         readers
+   */
+  public long skippedCount() {
+    long count = 0;
+    for (var reader : readers) {
+      count += reader.skippedCount;
+    }
+    return count;
+  }
+
+  /**
+   * @return the most unread elements any reader has had (see
+   *         QueueReader.maxLag()).  More than capacity() means elements were
+   *         lost.
+   */
+  public int maxLag() {
+    int lag = 0;
+    for (var reader : readers) {
+      lag = Math.max(lag, reader.maxLag);
+    }
+    return lag;
   }
 
 
@@ -109,10 +397,78 @@ public class MessageQueue<T> extends QueueManager {
 
   public class QueueReader {
     MessageQueue<T> mParent;
-    int nextReadIndex;
+    final OverflowPolicy policy;
+    volatile int nextReadIndex;   // volatile: also read by writers (see minReaderIndex())
+    volatile boolean overflowed = false;  // BLOCK: writes gave up waiting, until skipTo()
+    Object[] batch = new Object[0];   // scratch space for drainTo()
 
-    protected QueueReader(MessageQueue<T> parent) {
+    // statistics, only written by the reader's thread
+    // volatile: also read by whoever reports them (see LoggerManager)
+    volatile int readCount = 0;       // elements read
+    volatile int skippedCount = 0;    // elements overwritten before they were read
+    volatile int maxLag = 0;          // high-water mark of unread elements, seen when reading
+
+    protected QueueReader(MessageQueue<T> parent, OverflowPolicy policy) {
       mParent = parent;
+      this.policy = policy;
+    }
+
+    /**
+     * Stop tracking this reader.  It no longer holds back writers (see
+     * OverflowPolicy) or buffers in a FlatBufferPool, and doesn't count in
+     * the queue's statistics.  Don't read from it afterwards.
+     */
+    public void close() {
+      mParent.removeReader(this);
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+      return policy;
+    }
+
+    /**
+     * The elements before front were overwritten before this reader got to
+     * them: count them, and carry on from front.  A FAIL_FAST reader then
+     * throws, on the reader's thread, so the writer is never held up.
+     */
+    void skipTo(final int front) {
+      final int skipped = front - nextReadIndex;
+      skippedCount += skipped;
+      nextReadIndex = front;
+      overflowed = false;
+      if (policy == OverflowPolicy.FAIL_FAST) {
+        throw new IllegalStateException("Queue reader fell behind: " + skipped + " messages were overwritten");
+      }
+    }
+
+    void updateLag(final int back) {
+      int lag = back - nextReadIndex;
+      if (lag > maxLag) {
+        maxLag = lag;
+      }
+    }
+
+    /**
+     * @return number of elements read
+     */
+    public int readCount() {
+      return readCount;
+    }
+
+    /**
+     * @return number of elements this reader missed because it fell more than
+     *         capacity() behind and they were overwritten
+     */
+    public int skippedCount() {
+      return skippedCount;
+    }
+
+    /**
+     * @return the most unread elements this reader has had, including any
+     *         that were overwritten
+     */
+    public int maxLag() {
+      return maxLag;
     }
 
     /**
@@ -133,6 +489,55 @@ public class MessageQueue<T> extends QueueManager {
       return (mParent.back() == nextReadIndex);
     }
 
+    /**
+     * Park the calling thread until there is an element to read
+     * 
+     * @param timeoutMs longest to wait
+     * @return true if there is an element to read, false on timeout or
+     *         interrupt
+     */
+    public boolean await(final long timeoutMs) {
+      if (!isEmpty()) {
+        return true;
+      }
+      Thread thread = Thread.currentThread();
+      long deadline = System.nanoTime() + timeoutMs * 1000000;
+      mParent.addWaiter(thread);
+      try {
+        // checked after registering, so a write in between still unparks us
+        while (isEmpty()) {
+          long remaining = deadline - System.nanoTime();
+          if (remaining <= 0 || thread.isInterrupted()) {
+            return false;
+          }
+          LockSupport.parkNanos(this, remaining);
+        }
+        return true;
+      } finally {
+        mParent.removeWaiter(thread);
+      }
+    }
+
+    /**
+     * Read next element out of queue, waiting for one if the queue is empty
+     * 
+     * @param timeoutMs longest to wait
+     * @return next element, or null on timeout or interrupt
+     */
+    public T readBlocking(final long timeoutMs) {
+      long deadline = System.nanoTime() + timeoutMs * 1000000;
+      while (true) {
+        T element = readOrNull();
+        if (element != null) {
+          return element;
+        }
+        long remainingMs = (deadline - System.nanoTime()) / 1000000;
+        if (remainingMs < 0 || !await(remainingMs)) {
+          return null;
+        }
+      }
+    }
+
     /**
      * Read next element out of queue
      * 
@@ -143,14 +548,59 @@ public class MessageQueue<T> extends QueueManager {
       // readIndex will be adjusted in this function
     }
 
+    /**
+     * Read next element out of queue, without allocating an Optional
+     * 
+     * @return next element, or null if the queue is empty
+     */
+    public T readOrNull() {
+      return mParent.readOrNull(this);
+    }
+
+    /**
+     * Pass the next element to consumer, if there is one
+     * 
+     * @return true if an element was read
+     */
+    public boolean readInto(Consumer<? super T> consumer) {
+      T element = mParent.readOrNull(this);
+      if (element == null) {
+        return false;
+      }
+      consumer.accept(element);
+      return true;
+    }
+
+    /**
+     * Pass up to max unread elements to sink in one batch
+     * 
+     * @return number of elements read
+     */
+    public int drainTo(BatchSink<? super T> sink, int max) {
+      return mParent.drainTo(this, sink, max);
+    }
+
     /**
      * Read last element placed in queue
      * 
      * @return last element
      */
     public Optional<T> readLast() {
-      nextReadIndex = mParent.back;
-      return mParent.readLast();
+      return Optional.ofNullable(readLastOrNull());
+    }
+
+    /**
+     * Read last element placed in queue, without allocating an Optional
+     * 
+     * @return last element, or null if nothing has been written
+     */
+    public T readLastOrNull() {
+      nextReadIndex = mParent.back();
+      T element = mParent.readLastOrNull();
+      if (element != null) {
+        readCount++;
+      }
+      return element;
     }
   }
 }
\ No newline at end of file
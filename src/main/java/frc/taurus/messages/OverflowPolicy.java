@@ -0,0 +1,12 @@
+package frc.taurus.messages;
+
+/**
+ * What happens when a writer overwrites an element a reader hasn't read yet
+ * (see MessageQueue.makeReader(OverflowPolicy)).  In every case the reader
+ * counts the overwritten elements as skipped.
+ */
+public enum OverflowPolicy {
+  OVERWRITE,    // just overwrite it (the default)
+  BLOCK,        // wait once, for at most MessageQueue.kMaxBlockMs, for the reader to read it
+  FAIL_FAST     // overwrite it, and throw IllegalStateException from the reader's next read
+}
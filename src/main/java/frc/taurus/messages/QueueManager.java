@@ -1,22 +1,79 @@
 package frc.taurus.messages;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 //TODO: get rid of QueueManager & QueueListener?
 public class QueueManager {
-  List<QueueListener> listeners = new ArrayList<>();
+  // copy-on-write: listeners (e.g. the logger) subscribe from other threads
+  // while writers are calling messageAdded()
+  List<QueueListener> listeners = new CopyOnWriteArrayList<>();
+
+  // one thread calls the listeners of subscribeAsync() for every queue, in
+  // the order they were notified.  Just below the default priority, so it
+  // never holds up the robot loop.
+  private static final ExecutorService dispatchExecutor = Executors.newSingleThreadExecutor(r -> {
+    Thread thread = new Thread(r, "QueueDispatchThread");
+    thread.setDaemon(true);
+    thread.setPriority(Thread.NORM_PRIORITY - 1);
+    return thread;
+  });
+
+  // calls its listener on the dispatch thread.  Notifications that arrive
+  // while one is already waiting are coalesced into it.
+  static final class AsyncListener implements QueueListener, Runnable {
+    final QueueListener listener;
+    final AtomicBoolean pending = new AtomicBoolean(false);
+
+    AsyncListener(final QueueListener listener) {
+      this.listener = listener;
+    }
+
+    // writer's thread
+    public void newMessage() {
+      if (pending.compareAndSet(false, true)) {
+        dispatchExecutor.execute(this);
+      }
+    }
+
+    // dispatch thread
+    public void run() {
+      pending.set(false);   // first, so a message written during the call gets a call of its own
+      try {
+        listener.newMessage();
+      } catch (RuntimeException e) {
+        e.printStackTrace();    // don't take the dispatch thread down with it
+      }
+    }
+  }
 
   public QueueManager() {
   }
 
+  /**
+   * Call listener on the writer's thread, after every write.  Only for
+   * listeners that return right away (e.g. waking up another thread), since
+   * the writer may be the real-time loop.
+   */
   public void subscribe(QueueListener listener) {
     listeners.add(listener);
   }
 
+  /**
+   * Call listener on the dispatch thread after writes, so it adds no latency
+   * to the writer.  Writes made before the listener gets to run are covered
+   * by a single call, so the listener should read everything that is new.
+   */
+  public void subscribeAsync(QueueListener listener) {
+    listeners.add(new AsyncListener(listener));
+  }
+
   public void messageAdded() {
     for (QueueListener listener : listeners) {
       listener.newMessage();
     }
   }
-}
\ No newline at end of file
+}
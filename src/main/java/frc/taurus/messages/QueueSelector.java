@@ -0,0 +1,65 @@
+package frc.taurus.messages;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Waits on several readers at once, for consumers that serve more than one
+ * queue from one thread (e.g. a telemetry streamer):
+ *
+ *   while (running) {
+ *     int k = QueueSelector.select(100, statusReader, goalReader);
+ *     ...read everything new from the ready reader(s)...
+ *   }
+ *
+ * The thread is parked until one of the queues is written, so waiting costs
+ * nothing.  Like QueueReader.await(), this is for threads outside the
+ * real-time loop.
+ */
+public final class QueueSelector {
+
+  private QueueSelector() {
+  }
+
+  /**
+   * @param timeoutMs longest to wait
+   * @param readers   readers to wait on
+   * @return index of the first reader in readers with an element to read, or
+   *         -1 on timeout or interrupt
+   */
+  public static int select(final long timeoutMs, final MessageQueue<?>.QueueReader... readers) {
+    int ready = firstReady(readers);
+    if (ready >= 0) {
+      return ready;
+    }
+
+    Thread thread = Thread.currentThread();
+    long deadline = System.nanoTime() + timeoutMs * 1000000;
+    for (var reader : readers) {
+      reader.mParent.addWaiter(thread);
+    }
+    try {
+      // checked after registering, so a write in between still unparks us
+      while ((ready = firstReady(readers)) < 0) {
+        long remaining = deadline - System.nanoTime();
+        if (remaining <= 0 || thread.isInterrupted()) {
+          break;
+        }
+        LockSupport.parkNanos(QueueSelector.class, remaining);
+      }
+    } finally {
+      for (var reader : readers) {
+        reader.mParent.removeWaiter(thread);
+      }
+    }
+    return ready;
+  }
+
+  private static int firstReady(final MessageQueue<?>.QueueReader[] readers) {
+    for (int k = 0; k < readers.length; k++) {
+      if (!readers[k].isEmpty()) {
+        return k;
+      }
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,114 @@
+package frc.taurus.messages;
+
+import java.nio.ByteBuffer;
+import java.util.function.BiFunction;
+
+import com.google.flatbuffers.Table;
+
+/**
+ * A QueueReader that hands out flatbuffer views instead of ByteBuffers.
+ *
+ * Each reader keeps one accessor object, and re-points it at every message
+ * it reads, so reading allocates nothing.  For example
+ *
+ *   TypedReader<DrivetrainGoal> goalReader = new TypedReader<>(goalQueue,
+ *       new DrivetrainGoal(), DrivetrainGoal::getRootAsDrivetrainGoal);
+ *
+ *   DrivetrainGoal goal = goalReader.readLastOrNull();
+ *
+ * The view returned by a read is only good until the next read on the same
+ * reader, which re-points it.  Copy out any values that need to live longer.
+ * Nested tables and structs have the same kind of accessor: keep one of them
+ * around as well, and pass it in, e.g. goal.goal(teleopGoal).
+ *
+ * Like QueueReader, a TypedReader is for one thread.
+ */
+public class TypedReader<M extends Table> {
+
+  final MessageQueue<ByteBuffer>.QueueReader reader;
+  final M message;                                    // re-pointed at every message read
+  final BiFunction<ByteBuffer, M, M> getRoot;
+
+  /**
+   * @param queue   queue to read
+   * @param message accessor to re-use for every message
+   * @param getRoot the generated getRootAs...(ByteBuffer, obj) function of M
+   */
+  public TypedReader(final MessageQueue<ByteBuffer> queue, final M message,
+      final BiFunction<ByteBuffer, M, M> getRoot) {
+    this(queue, message, getRoot, OverflowPolicy.OVERWRITE);
+  }
+
+  /**
+   * @param policy what happens when this reader falls behind
+   */
+  public TypedReader(final MessageQueue<ByteBuffer> queue, final M message,
+      final BiFunction<ByteBuffer, M, M> getRoot, final OverflowPolicy policy) {
+    this.reader = queue.makeReader(policy);
+    this.message = message;
+    this.getRoot = getRoot;
+  }
+
+  private M view(final ByteBuffer bb) {
+    return (bb != null) ? getRoot.apply(bb, message) : null;
+  }
+
+  /**
+   * Read next message out of queue
+   *
+   * @return view of the next message, or null if the queue is empty
+   */
+  public M readOrNull() {
+    return view(reader.readOrNull());
+  }
+
+  /**
+   * Read last message placed in queue
+   *
+   * @return view of the last message, or null if nothing has been written
+   */
+  public M readLastOrNull() {
+    return view(reader.readLastOrNull());
+  }
+
+  /**
+   * Read next message out of queue, waiting for one if the queue is empty
+   *
+   * @param timeoutMs longest to wait
+   * @return view of the next message, or null on timeout or interrupt
+   */
+  public M readBlocking(final long timeoutMs) {
+    return view(reader.readBlocking(timeoutMs));
+  }
+
+  /**
+   * Park the calling thread until there is a message to read
+   *
+   * @return false on timeout or interrupt
+   */
+  public boolean await(final long timeoutMs) {
+    return reader.await(timeoutMs);
+  }
+
+  public int size() {
+    return reader.size();
+  }
+
+  public boolean isEmpty() {
+    return reader.isEmpty();
+  }
+
+  /**
+   * Stop tracking this reader (see QueueReader.close())
+   */
+  public void close() {
+    reader.close();
+  }
+
+  /**
+   * @return the underlying reader, for its statistics
+   */
+  public MessageQueue<ByteBuffer>.QueueReader getQueueReader() {
+    return reader;
+  }
+}
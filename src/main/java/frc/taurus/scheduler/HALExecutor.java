@@ -0,0 +1,205 @@
+package frc.taurus.scheduler;
+
+import java.util.ArrayList;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+import edu.wpi.first.wpilibj.Threads;
+import frc.taurus.hal.IHAL;
+
+/**
+ * Runs each IHAL on a thread of its own, at its own rate, so a slow CAN call
+ * in one HAL's readSensors() never holds up another HAL or the LoopScheduler.
+ *
+ * Usage:
+ *
+ *   HALExecutor halExecutor = new HALExecutor();
+ *   halExecutor.add("DrivetrainHAL", drivetrainHAL, 100);    // 100 Hz
+ *   halExecutor.add("ControllerHAL", controllerHAL, 50);
+ *   halExecutor.setActuatorsEnabled(robot::isEnabled);
+ *   halExecutor.setRealTime(true);
+ *   halExecutor.zeroSensors();
+ *   halExecutor.start();
+ *
+ * Every tick a HAL thread calls readSensors() and then writeActuators(), or
+ * stop() in place of writeActuators() while the actuators are disabled.  The
+ * HAL publishes its sensors into its queues as usual, and the stages in the
+ * LoopScheduler read the freshest values with readLastOrNull().  Each HAL is
+ * then the only writer of its input queues, so they stay lock-free (see
+ * Config).  Actuators get the latest outputs of the LoopScheduler, up to one
+ * HAL period after they were written.
+ *
+ * A tick that runs past the start of the next is an overrun; the ticks that
+ * were due to finish by then are skipped, and the next one starts right away,
+ * as in LoopScheduler (see LoopScheduler.ticksToSkip()).
+ */
+public class HALExecutor {
+
+  static final int kDefaultPriority = 35;    // real-time: below the LoopScheduler (40), above the HAL notifier (30)
+
+  static class HALThread {
+    final String name;
+    final IHAL hal;
+    final long periodNs;
+    final int priority;                      // real-time priority, when realTime
+
+    volatile long tickCount = 0;
+    volatile int overruns = 0;
+    volatile long maxNs = 0;                 // longest tick, from when it was due to start
+
+    Thread thread;
+
+    HALThread(final String name, final IHAL hal, final long periodNs, final int priority) {
+      this.name = name;
+      this.hal = hal;
+      this.periodNs = periodNs;
+      this.priority = priority;
+    }
+
+    void tick(final boolean actuatorsEnabled) {
+      hal.readSensors();
+      if (actuatorsEnabled) {
+        hal.writeActuators();
+      } else {
+        hal.stop();
+      }
+    }
+  }
+
+  final ArrayList<HALThread> hals = new ArrayList<>();
+  boolean realTime = false;
+  private volatile BooleanSupplier actuatorsEnabled = () -> true;
+  private volatile boolean running = false;
+
+  /**
+   * Run hal at rateHz, at the default priority
+   */
+  public void add(final String name, final IHAL hal, final double rateHz) {
+    add(name, hal, rateHz, kDefaultPriority);
+  }
+
+  /**
+   * @param priority real-time priority of the thread (1-99) when
+   *                 setRealTime(true)
+   */
+  public synchronized void add(final String name, final IHAL hal, final double rateHz, final int priority) {
+    if (running) {
+      throw new IllegalStateException("Can't add " + name + " once the HALExecutor is running");
+    }
+    if (rateHz <= 0) {
+      throw new IllegalArgumentException(name + ": rate must be positive");
+    }
+    hals.add(new HALThread(name, hal, Math.round(1e9 / rateHz), priority));
+  }
+
+  /**
+   * Run the HAL threads at real-time priority (on the roboRIO).  Must be
+   * called before start().
+   */
+  public void setRealTime(final boolean realTime) {
+    this.realTime = realTime;
+  }
+
+  /**
+   * Only drive the actuators while enabled returns true.  It is checked on
+   * every tick of every HAL thread, so it must be thread-safe (as
+   * RobotBase.isEnabled() is).
+   */
+  public void setActuatorsEnabled(final BooleanSupplier enabled) {
+    this.actuatorsEnabled = enabled;
+  }
+
+  /**
+   * Zero the sensors of every HAL, on the caller's thread.  Call before
+   * start().
+   */
+  public synchronized void zeroSensors() {
+    for (HALThread halThread : hals) {
+      halThread.hal.zeroSensors();
+    }
+  }
+
+  public synchronized void start() {
+    if (running) {
+      return;
+    }
+    running = true;
+    for (HALThread halThread : hals) {
+      Thread thread = new Thread(() -> run(halThread));
+      thread.setName(halThread.name);
+      thread.setPriority(Thread.MAX_PRIORITY - 1);
+      thread.setDaemon(true);
+      halThread.thread = thread;
+      thread.start();
+    }
+  }
+
+  /**
+   * Stop the threads, then stop the actuators of every HAL
+   */
+  public synchronized void stop() {
+    if (!running) {
+      return;
+    }
+    running = false;
+    for (HALThread halThread : hals) {
+      LockSupport.unpark(halThread.thread);
+      try {
+        halThread.thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      halThread.thread = null;
+      halThread.hal.stop();
+    }
+  }
+
+  private void run(final HALThread halThread) {
+    if (realTime) {
+      Threads.setCurrentThreadPriority(true, halThread.priority);
+    }
+
+    final long periodNs = halThread.periodNs;
+    long start = System.nanoTime();
+    while (running) {
+      try {
+        halThread.tick(actuatorsEnabled.getAsBoolean());
+      } catch (RuntimeException e) {
+        // same as an exception out of TimedRobot: don't leave the robot
+        // running without its sensors
+        System.err.println("Unhandled exception in " + halThread.name);
+        e.printStackTrace();
+        System.exit(-1);
+      }
+
+      long now = System.nanoTime();
+      halThread.maxNs = Math.max(halThread.maxNs, now - start);
+      halThread.tickCount++;
+      start += periodNs;
+      if (now > start) {
+        halThread.overruns++;
+        start += LoopScheduler.ticksToSkip(now, start, periodNs) * periodNs;
+      }
+
+      // sleep until the next tick (parkNanos may return early)
+      while (running && (now = System.nanoTime()) < start) {
+        LockSupport.parkNanos(this, start - now);
+      }
+    }
+  }
+
+  // statistics of the HAL added as name, since start()
+
+  public long getTickCount(final String name) { return find(name).tickCount; }
+  public int getOverruns(final String name)   { return find(name).overruns; }
+  public long getMaxNs(final String name)     { return find(name).maxNs; }
+
+  private synchronized HALThread find(final String name) {
+    for (HALThread halThread : hals) {
+      if (halThread.name.equals(name)) {
+        return halThread;
+      }
+    }
+    throw new IllegalArgumentException(name);
+  }
+}
@@ -0,0 +1,295 @@
+package frc.taurus.scheduler;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.locks.LockSupport;
+
+import com.google.flatbuffers.FlatBufferBuilder;
+
+import edu.wpi.first.wpilibj.Threads;
+import frc.taurus.config.ChannelManager;
+import frc.taurus.config.Config;
+import frc.taurus.messages.FlatBufferPool;
+import frc.taurus.messages.MessageQueue;
+import frc.taurus.scheduler.generated.LoopStatus;
+import frc.taurus.scheduler.generated.StageStatus;
+import frc.taurus.util.Clock;
+
+/**
+ * Runs the robot loop -- read sensors, update controls and subsystems, write
+ * actuators -- as a pipeline of stages on its own high priority thread, at a
+ * fixed rate.
+ *
+ * Usage:
+ *
+ *   LoopScheduler scheduler = new LoopScheduler(channelManager, Constants.kLoopDt);
+ *   scheduler.add("DrivetrainHAL.readSensors", drivetrainHAL::readSensors);
+ *   scheduler.add("DriverStationData", driverStationData::update, 50);   // 50 Hz
+ *   ...
+ *   scheduler.start();
+ *
+ * Stages run in the order they were added.  Each tick is due to finish one
+ * period after it was scheduled to start.  A tick that runs past its deadline
+ * is an overrun: the next tick starts right away, and the ticks that would
+ * have been due to finish before it started are skipped (not run late, back
+ * to back), so the loop stays on its schedule.
+ *
+ * The time spent in every stage is kept in a histogram, and published along
+ * with the overrun counts on the LOOP_STATUS channel every status period.
+ */
+public class LoopScheduler {
+
+  public static final int kNumBuckets = 32;          // histogram buckets: up to 2^31 ns (2 s)
+  static final double kDefaultStatusPeriod = 1.0;    // seconds between LoopStatus messages
+  static final int kRealTimePriority = 40;           // above the WPILib HAL notifier threads (30)
+
+  static class Stage {
+    final String name;
+    final Runnable step;
+    final int period;                                // run every period ticks
+
+    // since the last LoopStatus
+    int count = 0;
+    int overruns = 0;
+    long totalNs = 0;
+    long maxNs = 0;
+    final int[] histogram = new int[kNumBuckets];
+
+    Stage(final String name, final Runnable step, final int period) {
+      this.name = name;
+      this.step = step;
+      this.period = period;
+    }
+
+    void record(final long durationNs, final boolean late) {
+      count++;
+      if (late) {
+        overruns++;
+      }
+      totalNs += durationNs;
+      maxNs = Math.max(maxNs, durationNs);
+      histogram[bucket(durationNs)]++;
+    }
+
+    void reset() {
+      count = 0;
+      overruns = 0;
+      totalNs = 0;
+      maxNs = 0;
+      Arrays.fill(histogram, 0);
+    }
+  }
+
+  final ArrayList<Stage> stages = new ArrayList<>();
+  final double period;                               // seconds
+  final long periodNs;
+  final MessageQueue<ByteBuffer> statusQueue;
+  final FlatBufferPool statusPool;
+  int statusTicks;                                   // ticks between LoopStatus messages
+  boolean realTime = false;
+
+  // only touched by the scheduler thread (or the caller of tick() in tests)
+  long tickCount = 0;
+  long nextStatusTick = 0;
+  int overruns = 0;
+  int missedTicks = 0;
+  long maxLatenessNs = 0;
+  int[] stageStatusOffsets = new int[0];
+
+  private Thread thread;
+  private volatile boolean running = false;
+
+  /**
+   * @param period seconds between ticks -- the rate of the fastest stage
+   */
+  public LoopScheduler(ChannelManager channelManager, final double period) {
+    this.period = period;
+    this.periodNs = Math.round(period * 1e9);
+    this.statusQueue = channelManager.fetch(Config.LOOP_STATUS);
+    this.statusPool  = new FlatBufferPool(statusQueue, 1024);
+    setStatusPeriod(kDefaultStatusPeriod);
+  }
+
+  /**
+   * Add a stage that runs every tick
+   */
+  public void add(final String name, final Runnable step) {
+    add(name, step, 1);
+  }
+
+  /**
+   * Add a stage that runs at rateHz.  The loop rate must be a whole multiple
+   * of rateHz.
+   */
+  public void add(final String name, final Runnable step, final double rateHz) {
+    long ticks = Math.round(1.0 / (rateHz * period));
+    if (ticks < 1 || Math.abs(ticks * rateHz * period - 1.0) > 1e-6) {
+      throw new IllegalArgumentException(name + ": " + rateHz + " Hz does not divide the loop rate of " + (1.0 / period) + " Hz");
+    }
+    add(name, step, (int)ticks);
+  }
+
+  private synchronized void add(final String name, final Runnable step, final int ticks) {
+    if (running) {
+      throw new IllegalStateException("Can't add stage " + name + " once the LoopScheduler is running");
+    }
+    stages.add(new Stage(name, step, ticks));
+    stageStatusOffsets = new int[stages.size()];
+  }
+
+  public void setStatusPeriod(final double statusPeriod) {
+    statusTicks = (int)Math.max(1, Math.round(statusPeriod / period));
+    nextStatusTick = tickCount + statusTicks;
+  }
+
+  /**
+   * Run the scheduler thread at real-time priority (on the roboRIO).  Must be
+   * called before start().
+   */
+  public void setRealTime(final boolean realTime) {
+    this.realTime = realTime;
+  }
+
+  public synchronized void start() {
+    if (thread != null) {
+      return;
+    }
+    running = true;
+    thread = new Thread(this::run);
+    thread.setName("LoopScheduler");
+    thread.setPriority(Thread.MAX_PRIORITY);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  public synchronized void stop() {
+    running = false;
+    if (thread != null) {
+      LockSupport.unpark(thread);
+      try {
+        thread.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      thread = null;
+    }
+  }
+
+  private void run() {
+    if (realTime) {
+      Threads.setCurrentThreadPriority(true, kRealTimePriority);
+    }
+
+    long start = System.nanoTime();
+    while (running) {
+      maxLatenessNs = Math.max(maxLatenessNs, System.nanoTime() - start);
+
+      long deadline = start + periodNs;
+      try {
+        tick(deadline);
+      } catch (RuntimeException e) {
+        // same as an exception out of TimedRobot: don't leave the robot
+        // running without its control loop
+        System.err.println("Unhandled exception in LoopScheduler");
+        e.printStackTrace();
+        System.exit(-1);
+      }
+
+      long now = System.nanoTime();
+      start = deadline;
+      if (now > deadline) {
+        overruns++;
+        long missed = ticksToSkip(now, deadline, periodNs);
+        missedTicks += missed;
+        tickCount += missed;
+        start += missed * periodNs;
+      }
+
+      // sleep until the next tick (parkNanos may return early)
+      while (running && (now = System.nanoTime()) < start) {
+        LockSupport.parkNanos(this, start - now);
+      }
+    }
+  }
+
+  /**
+   * @return number of ticks to skip after one that was due to finish at
+   *         deadline but finished at now: those that were due to finish by
+   *         now.  The tick after them starts at most one period late, and is
+   *         still due to finish on schedule.
+   */
+  static long ticksToSkip(final long now, final long deadline, final long periodNs) {
+    return (now - deadline) / periodNs;
+  }
+
+  /**
+   * Run one tick on the caller's thread, in place of start().  For driving
+   * the robot loop from a ReplayEngine: replay.addLoop(scheduler::step)
+   */
+  public void step() {
+    tick(Long.MAX_VALUE);
+  }
+
+  /**
+   * Run the stages due this tick, and publish a LoopStatus if it is time.
+   *
+   * @param deadline System.nanoTime() by which the tick should be finished
+   */
+  void tick(final long deadline) {
+    for (int k = 0; k < stages.size(); k++) {
+      Stage stage = stages.get(k);
+      if (tickCount % stage.period == 0) {
+        long t0 = System.nanoTime();
+        stage.step.run();
+        long t1 = System.nanoTime();
+        stage.record(t1 - t0, t1 > deadline);
+      }
+    }
+    tickCount++;
+
+    // (skipped ticks may have jumped over nextStatusTick)
+    if (tickCount >= nextStatusTick) {
+      writeLoopStatus();
+      nextStatusTick = tickCount + statusTicks;
+    }
+  }
+
+  private void writeLoopStatus() {
+    FlatBufferBuilder builder = statusPool.borrow();
+
+    for (int k = 0; k < stages.size(); k++) {
+      Stage stage = stages.get(k);
+      int nameOffset = builder.createString(stage.name);
+      int histogramOffset = StageStatus.createHistogramVector(builder, stage.histogram);
+      stageStatusOffsets[k] = StageStatus.createStageStatus(builder, nameOffset, stage.period, stage.count,
+          stage.overruns, stage.totalNs, stage.maxNs, histogramOffset);
+      stage.reset();
+    }
+    int stagesOffset = LoopStatus.createStagesVector(builder, stageStatusOffsets);
+
+    LoopStatus.startLoopStatus(builder);
+    LoopStatus.addTimestamp(builder, Clock.getTimestamp());
+    LoopStatus.addPeriodNs(builder, periodNs);
+    LoopStatus.addTickCount(builder, tickCount);
+    LoopStatus.addOverruns(builder, overruns);
+    LoopStatus.addMissedTicks(builder, missedTicks);
+    LoopStatus.addMaxLatenessNs(builder, maxLatenessNs);
+    LoopStatus.addStages(builder, stagesOffset);
+    int offset = LoopStatus.endLoopStatus(builder);
+    LoopStatus.finishLoopStatusBuffer(builder, offset);
+
+    statusPool.write(builder);
+
+    overruns = 0;
+    missedTicks = 0;
+    maxLatenessNs = 0;
+  }
+
+  /**
+   * @return histogram bucket for a duration: k such that 2^(k-1) <= ns < 2^k
+   */
+  static int bucket(final long ns) {
+    return Math.min(kNumBuckets - 1, 64 - Long.numberOfLeadingZeros(Math.max(0, ns)));
+  }
+}
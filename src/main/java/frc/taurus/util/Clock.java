@@ -0,0 +1,43 @@
+package frc.taurus.util;
+
+import java.util.function.DoubleSupplier;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Source of the timestamps placed in every message.
+ * 
+ * On the robot this is the FPGA clock.  Code that runs on a desktop JVM
+ * without the WPILib HAL (benchmarks, log tools) can swap in another source.
+ */
+public class Clock {
+  /** Prevent this class from being instantiated. */
+  private Clock() {}
+
+  private static volatile DoubleSupplier source = Timer::getFPGATimestamp;
+
+  /**
+   * @return current time in seconds
+   */
+  public static double getTimestamp() {
+    return source.getAsDouble();
+  }
+
+  public static void setSource(DoubleSupplier timestampSource) {
+    source = timestampSource;
+  }
+
+  /**
+   * @return the current source, e.g. to put it back after setSource()
+   */
+  public static DoubleSupplier getSource() {
+    return source;
+  }
+
+  /**
+   * Use System.nanoTime() in place of the FPGA clock
+   */
+  public static void useSystemTime() {
+    setSource(() -> System.nanoTime() * 1e-9);
+  }
+}
@@ -0,0 +1,125 @@
+package frc.taurus.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.junit.Test;
+
+import frc.taurus.messages.MessageQueue;
+import frc.taurus.messages.OverflowPolicy;
+
+public class ChannelManagerTest {
+
+  // the same channel always gets the same queue
+  @Test
+  public void fetchTest() {
+    ChannelManager channelManager = new ChannelManager();
+    channelManager.setUnitTest();
+
+    MessageQueue<ByteBuffer> queue1 = channelManager.fetch(TestConfig.TEST_MESSAGE_1);
+    MessageQueue<ByteBuffer> queue2 = channelManager.fetch(TestConfig.TEST_MESSAGE_2);
+
+    assertNotSame(queue1, queue2);
+    assertSame(queue1, channelManager.fetch(TestConfig.TEST_MESSAGE_1));
+    assertSame(queue2, channelManager.fetch(TestConfig.TEST_MESSAGE_2));
+  }
+
+  // channels that share a ChannelType number still get their own queues
+  @Test
+  public void sharedNumTest() {
+    ChannelManager channelManager = new ChannelManager();
+    channelManager.setUnitTest();
+
+    assertEquals(Config.JOYSTICK_PORT_1_STATUS.getNum(), Config.JOYSTICK_PORT_2_STATUS.getNum());
+
+    MessageQueue<ByteBuffer> queue1 = channelManager.fetchJoystickStatusQueue(1);
+    MessageQueue<ByteBuffer> queue2 = channelManager.fetchJoystickStatusQueue(2);
+
+    assertNotSame(queue1, queue2);
+    assertSame(queue1, channelManager.fetch(Config.JOYSTICK_PORT_1_STATUS));
+    assertSame(queue2, channelManager.fetch(Config.JOYSTICK_PORT_2_STATUS));
+  }
+
+  // fetchAll() lists every channel once, in the order they were first fetched
+  @Test
+  public void fetchAllTest() {
+    ChannelManager channelManager = new ChannelManager();
+    channelManager.setUnitTest();
+
+    channelManager.fetch(TestConfig.TEST_MESSAGE_3);
+    channelManager.fetch(TestConfig.TEST_MESSAGE_1);
+    channelManager.fetch(TestConfig.TEST_MESSAGE_3);
+
+    List<ChannelIntf> channels = channelManager.fetchAll();
+    assertTrue(channels.indexOf(TestConfig.TEST_MESSAGE_3) < channels.indexOf(TestConfig.TEST_MESSAGE_1));
+    assertEquals(channels.indexOf(TestConfig.TEST_MESSAGE_3), channels.lastIndexOf(TestConfig.TEST_MESSAGE_3));
+  }
+
+  // queues are sized from the channel's rate, rounded up to a power of 2
+  @Test
+  public void capacityTest() {
+    ChannelManager channelManager = new ChannelManager();
+    channelManager.setUnitTest();
+
+    assertEquals(512, channelManager.fetch(Config.DRIVETRAIN_STATUS).capacity());     // 100 Hz for 5 s
+    assertEquals(256, channelManager.fetch(Config.JOYSTICK_PORT_1_STATUS).capacity()); // 50 Hz for 5 s
+    assertEquals(16, channelManager.fetch(Config.QUEUE_STATUS).capacity());          // the minimum
+    assertEquals(16, channelManager.fetch(Config.LOOP_STATUS).capacity());           // 1 Hz
+    assertEquals(512, channelManager.fetch(TestConfig.TEST_MESSAGE_1).capacity());
+  }
+
+  // the logger only blocks writers on channels that opt in, before they are
+  // fetched, and never on a singleWriter (real-time) channel
+  @Test
+  public void logOverflowPolicyTest() {
+    ChannelManager channelManager = new ChannelManager();
+    channelManager.setUnitTest();
+
+    channelManager.setLogOverflowPolicy(TestConfig.TEST_MESSAGE_3, OverflowPolicy.BLOCK);
+    assertEquals(1, channelManager.fetch(TestConfig.TEST_MESSAGE_3).numReaders());
+
+    try {
+      channelManager.setLogOverflowPolicy(Config.DRIVETRAIN_OUTPUT, OverflowPolicy.BLOCK);
+      fail("expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    try {
+      channelManager.setLogOverflowPolicy(TestConfig.TEST_MESSAGE_3, OverflowPolicy.OVERWRITE);
+      fail("expected IllegalStateException");
+    } catch (IllegalStateException e) {
+      // expected
+    }
+  }
+
+  // threads racing to fetch a new channel all get the same queue
+  @Test
+  public void concurrentFetchTest() throws InterruptedException {
+    ChannelManager channelManager = new ChannelManager();
+    channelManager.setUnitTest();
+
+    Thread[] threads = new Thread[4];
+    AtomicReferenceArray<MessageQueue<ByteBuffer>> queues = new AtomicReferenceArray<>(threads.length);
+    for (int k = 0; k < threads.length; k++) {
+      final int idx = k;
+      threads[k] = new Thread(() -> queues.set(idx, channelManager.fetch(TestConfig.TEST_MESSAGE_4)));
+    }
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    for (int k = 0; k < threads.length; k++) {
+      assertSame(channelManager.fetch(TestConfig.TEST_MESSAGE_4), queues.get(k));
+    }
+  }
+}
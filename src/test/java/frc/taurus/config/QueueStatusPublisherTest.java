@@ -0,0 +1,65 @@
+package frc.taurus.config;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+import frc.taurus.messages.MessageQueue;
+import frc.taurus.messages.generated.ChannelQueueStatus;
+import frc.taurus.messages.generated.QueueStatus;
+
+public class QueueStatusPublisherTest {
+
+  // each QueueStatus has the traffic on every channel since the one before
+  @Test
+  public void updateTest() {
+    ChannelManager channelManager = new ChannelManager();
+    channelManager.setUnitTest();
+
+    QueueStatusPublisher publisher = new QueueStatusPublisher(channelManager);
+    MessageQueue<ByteBuffer>.QueueReader statusReader = channelManager.fetch(Config.QUEUE_STATUS).makeReader();
+    MessageQueue<ByteBuffer> queue = channelManager.fetch(TestConfig.TEST_MESSAGE_3);
+    MessageQueue<ByteBuffer>.QueueReader reader = queue.makeReader();
+
+    final int kNumMessages = queue.capacity() + 10;
+    for (int k = 0; k < kNumMessages; k++) {
+      queue.write(ByteBuffer.allocate(8));
+    }
+    reader.readOrNull();    // 10 were overwritten
+    reader.readOrNull();
+    publisher.update();
+
+    ByteBuffer bb = statusReader.readLastOrNull();
+    assertTrue(QueueStatus.QueueStatusBufferHasIdentifier(bb));
+    ChannelQueueStatus status = find(QueueStatus.getRootAsQueueStatus(bb), TestConfig.TEST_MESSAGE_3);
+    assertEquals(TestConfig.TEST_MESSAGE_3.getName(), status.name());
+    assertEquals(queue.capacity(), status.capacity());
+    assertEquals(kNumMessages, status.writes());
+    // the logger has a reader on the channel too, reading on its own thread
+    assertTrue(status.readers() >= 2);
+    assertTrue(status.reads() >= 2);
+    assertTrue(status.skipped() >= 10);
+    assertEquals(kNumMessages, status.maxLag());
+
+    // counts start over, high-water mark doesn't
+    queue.write(ByteBuffer.allocate(8));
+    reader.readOrNull();
+    publisher.update();
+
+    status = find(QueueStatus.getRootAsQueueStatus(statusReader.readLastOrNull()), TestConfig.TEST_MESSAGE_3);
+    assertEquals(1, status.writes());
+    assertEquals(kNumMessages, status.maxLag());
+  }
+
+  private ChannelQueueStatus find(QueueStatus queueStatus, ChannelIntf channel) {
+    for (int k = 0; k < queueStatus.channelsLength(); k++) {
+      if (queueStatus.channels(k).name().equals(channel.getName())) {
+        return queueStatus.channels(k);
+      }
+    }
+    throw new AssertionError(channel.getName() + " not found");
+  }
+}
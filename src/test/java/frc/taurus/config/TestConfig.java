@@ -32,6 +32,18 @@ public enum TestConfig implements ChannelIntf {
     return logFilename;
   }
 
+  public boolean isSingleWriter() {
+    return false;
+  }
+
+  public double getRateHz() {
+    return 0;
+  }
+
+  public int getQueueCapacity() {
+    return 512;   // tests write bursts of a few hundred messages
+  }
+
   public static TestConfig findTestConfig(final byte findNum) {
     for (TestConfig config : values()) {
       if (config.num == findNum) {
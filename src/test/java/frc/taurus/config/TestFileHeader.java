@@ -0,0 +1,36 @@
+package frc.taurus.config;
+
+import java.nio.ByteBuffer;
+
+import com.google.flatbuffers.FlatBufferBuilder;
+
+import frc.taurus.config.generated.Configuration;
+import frc.taurus.logger.generated.Compression;
+import frc.taurus.logger.generated.LogFileHeader;
+import frc.taurus.logger.generated.PacketFormat;
+
+/**
+ * LogFileHeader with no channels, for loggers created in unit tests without
+ * a LoggerManager
+ */
+public class TestFileHeader {
+  /** Prevent this class from being instantiated. */
+  private TestFileHeader() {}
+
+  public static ByteBuffer empty() {
+    return empty(PacketFormat.RawFrame, Compression.None);
+  }
+
+  public static ByteBuffer empty(final byte packetFormat) {
+    return empty(packetFormat, Compression.None);
+  }
+
+  public static ByteBuffer empty(final byte packetFormat, final byte compression) {
+    FlatBufferBuilder builder = new FlatBufferBuilder(64);
+    int channelVectorOffset = Configuration.createChannelsVector(builder, new int[0]);
+    int configOffset = Configuration.createConfiguration(builder, channelVectorOffset);
+    int offset = LogFileHeader.createLogFileHeader(builder, 0.0, configOffset, packetFormat, compression);
+    LogFileHeader.finishSizePrefixedLogFileHeaderBuffer(builder, offset);
+    return builder.dataBuffer();
+  }
+}
@@ -1,8 +1,16 @@
 package frc.taurus.logger;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
+import java.io.File;
 import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import com.google.flatbuffers.FlatBufferBuilder;
 
@@ -12,11 +20,16 @@ import edu.wpi.first.wpilibj.Timer;
 import frc.taurus.config.ChannelManager;
 import frc.taurus.config.Config;
 import frc.taurus.config.TestConfig;
+import frc.taurus.config.TestFileHeader;
+import frc.taurus.config.generated.ChannelType;
 import frc.taurus.config.generated.Channel;
 import frc.taurus.config.generated.Configuration;
 import frc.taurus.driverstation.generated.DriverStationStatus;
+import frc.taurus.logger.generated.Compression;
 import frc.taurus.logger.generated.LogFileHeader;
+import frc.taurus.logger.generated.LogGap;
 import frc.taurus.logger.generated.Packet;
+import frc.taurus.logger.generated.PacketFormat;
 import frc.taurus.messages.MessageQueue;
 import frc.taurus.messages.generated.TestMessage1;
 import frc.taurus.messages.generated.TestMessage2;
@@ -387,4 +400,366 @@ public class FlatBuffersLoggerTest {
 
   }
 
+
+  // packets written as RawFrames are read back by getNextPacket()
+  @Test
+  public void rawFrameTest() {
+
+    ChannelManager channelManager = new ChannelManager();
+    channelManager.setUnitTest();               // log to "unit_test" folder
+    channelManager.setLogPacketFormat(PacketFormat.RawFrame);
+    driverstationEnable(channelManager, true);  // we only log when enabled, so we must mock enable during unit tests
+
+    MessageQueue<ByteBuffer> queue1 = channelManager.fetch(TestConfig.TEST_MESSAGE_1);
+    MessageQueue<ByteBuffer> queue2 = channelManager.fetch(TestConfig.TEST_MESSAGE_2);
+    FlatBuffersLogReader reader12 = new FlatBuffersLogReader(TestConfig.TEST_MESSAGE_1.getLogFilename());
+
+    // sent data over queue
+    FlatBufferBuilder builder1 = new FlatBufferBuilder(64);
+    int offset1 = TestMessage1.createTestMessage1(builder1, 686);
+    TestMessage1.finishTestMessage1Buffer(builder1, offset1);
+    ByteBuffer bb1 = builder1.dataBuffer();
+    int position1 = bb1.position();
+    queue1.write(bb1);
+
+    FlatBufferBuilder builder2 = new FlatBufferBuilder(64);
+    int offset2 = TestMessage2.createTestMessage2(builder2, 686.0);
+    TestMessage2.finishTestMessage2Buffer(builder2, offset2);
+    queue2.write(builder2.dataBuffer());
+
+    // disable driver station so that we close the logger files
+    driverstationEnable(channelManager, false);
+
+    // logging must not disturb the buffer other readers see
+    assertEquals(position1, bb1.position());
+
+    LogFileHeader logFileHdr = reader12.getFileHeader();
+    assertEquals(PacketFormat.RawFrame, logFileHdr.packetFormat());
+    assertEquals(2+1, logFileHdr.configuration().channelsLength());
+
+    LogPacket packet = reader12.getNextPacket();
+    assertEquals(0, packet.packetCount());
+    assertEquals(1, packet.queueSize());
+    assertEquals(TestConfig.TEST_MESSAGE_1.getNum(), packet.channelType());
+    TestMessage1 testMessage1 = TestMessage1.getRootAsTestMessage1(packet.payloadAsByteBuffer());
+    assertEquals(686, testMessage1.intValue());
+
+    packet = reader12.getNextPacket();
+    assertEquals(1, packet.packetCount());
+    assertEquals(1, packet.queueSize());
+    assertEquals(TestConfig.TEST_MESSAGE_2.getNum(), packet.channelType());
+    TestMessage2 testMessage2 = TestMessage2.getRootAsTestMessage2(packet.payloadAsByteBuffer());
+    assertEquals(686.0, testMessage2.dblValue(), eps);
+
+    reader12.close();
+  }
+
+  // getNextPacket() also reads files written with Packet flatbuffers
+  @Test
+  public void flatBufferPacketTest() {
+
+    ChannelManager channelManager = new ChannelManager();
+    channelManager.setUnitTest();               // log to "unit_test" folder
+    driverstationEnable(channelManager, true);  // we only log when enabled, so we must mock enable during unit tests
+
+    MessageQueue<ByteBuffer> queue1 = channelManager.fetch(TestConfig.TEST_MESSAGE_1);
+    FlatBuffersLogReader reader1 = new FlatBuffersLogReader(TestConfig.TEST_MESSAGE_1.getLogFilename());
+
+    FlatBufferBuilder builder1 = new FlatBufferBuilder(64);
+    int offset1 = TestMessage1.createTestMessage1(builder1, 686);
+    TestMessage1.finishTestMessage1Buffer(builder1, offset1);
+    queue1.write(builder1.dataBuffer());
+
+    // disable driver station so that we close the logger files
+    driverstationEnable(channelManager, false);
+
+    assertEquals(PacketFormat.FlatBufferPacket, reader1.getFileHeader().packetFormat());
+
+    LogPacket packet = reader1.getNextPacket();
+    assertEquals(0, packet.packetCount());
+    assertEquals(TestConfig.TEST_MESSAGE_1.getNum(), packet.channelType());
+    TestMessage1 testMessage1 = TestMessage1.getRootAsTestMessage1(packet.payloadAsByteBuffer());
+    assertEquals(686, testMessage1.intValue());
+
+    assertNull(reader1.getNextPacket());       // end of file
+
+    reader1.close();
+  }
+
+  // write kNumPackets TestMessage2's, where dbl_value (the first field) is the timestamp
+  private File writeIndexedLog(String filename, byte packetFormat) {
+    return writeIndexedLog(filename, packetFormat, Compression.None);
+  }
+
+  private File writeIndexedLog(String filename, byte packetFormat, byte compression) {
+    LogFileWriterBase.updateLogFolderTimestamp("unit_test");
+    ChannelManager channelManager = new ChannelManager();
+    channelManager.setUnitTest();
+
+    FlatBuffersLogger logger = new FlatBuffersLogger(channelManager, filename, () -> TestFileHeader.empty(packetFormat, compression), 10);
+    logger.setPacketFormat(packetFormat);
+    logger.relocate("unit_test");     // start a file with the packet format set above
+    logger.update();                  // writes the header
+
+    for (int k = 0; k < 1000; k++) {
+      FlatBufferBuilder builder = new FlatBufferBuilder(64);
+      int offset = TestMessage2.createTestMessage2(builder, k * 0.01);
+      TestMessage2.finishTestMessage2Buffer(builder, offset);
+      logger.writePacket(TestConfig.TEST_MESSAGE_2.getNum(), (byte)1, builder.dataBuffer());
+    }
+    logger.close();
+    return new File(LogFileWriterBase.logPath() + File.separator + filename);
+  }
+
+  // seek() and seekPacket() use the index written next to the log file
+  @Test
+  public void seekTest() {
+    for (byte packetFormat : new byte[] {PacketFormat.RawFrame, PacketFormat.FlatBufferPacket}) {
+      String filename = "index_test_" + packetFormat + ".log";
+      File file = writeIndexedLog(filename, packetFormat);
+      assertTrue(LogFileIndex.indexFile(file).exists());
+
+      FlatBuffersLogReader reader = new FlatBuffersLogReader(filename);
+      assertTrue(reader.hasIndex());
+      assertEquals(100, reader.index.size());
+
+      assertTrue(reader.seek(9.955));
+      LogPacket packet = reader.getNextPacket();
+      assertEquals(996, packet.packetCount());
+      assertEquals(9.96, packet.timestamp(), eps);
+      assertEquals(9.96, TestMessage2.getRootAsTestMessage2(packet.payloadAsByteBuffer()).dblValue(), eps);
+      assertEquals(997, reader.getNextPacket().packetCount());
+
+      assertTrue(reader.seek(0.0));             // back to the start
+      assertEquals(0, reader.getNextPacket().packetCount());
+
+      assertTrue(reader.seekPacket(123));
+      assertEquals(123, reader.getNextPacket().packetCount());
+      assertTrue(reader.seekPacket(999));
+      assertEquals(999, reader.getNextPacket().packetCount());
+
+      assertFalse(reader.seek(10.0));           // after the last packet
+      assertFalse(reader.seekPacket(1000));
+
+      reader.close();
+    }
+  }
+
+  // without an index, seek() scans the file from the start
+  @Test
+  public void seekWithoutIndexTest() {
+    String filename = "index_test_missing.log";
+    File file = writeIndexedLog(filename, PacketFormat.RawFrame);
+    assertTrue(LogFileIndex.indexFile(file).delete());
+
+    FlatBuffersLogReader reader = new FlatBuffersLogReader(filename);
+    assertFalse(reader.hasIndex());
+
+    assertTrue(reader.seek(5.0));
+    assertEquals(500, reader.getNextPacket().packetCount());
+    assertTrue(reader.seekPacket(42));
+    assertEquals(42, reader.getNextPacket().packetCount());
+
+    reader.close();
+  }
+
+  // deflated logs read back (and seek) the same, in a fraction of the bytes
+  @Test
+  public void compressedTest() throws Exception {
+    for (byte packetFormat : new byte[] {PacketFormat.RawFrame, PacketFormat.FlatBufferPacket}) {
+      File plainFile = writeIndexedLog("plain_test_" + packetFormat + ".log", packetFormat, Compression.None);
+      String filename = "deflate_test_" + packetFormat + ".log";
+      File file = writeIndexedLog(filename, packetFormat, Compression.Deflate);
+      assertTrue(file.length() * 4 < plainFile.length());
+
+      FlatBuffersLogReader reader = new FlatBuffersLogReader(filename);
+      assertEquals(Compression.Deflate, reader.getFileHeader().compression());
+      for (int k = 0; k < 1000; k++) {
+        LogPacket packet = reader.getNextPacket();
+        assertEquals(k, packet.packetCount());
+        assertEquals(k * 0.01, TestMessage2.getRootAsTestMessage2(packet.payloadAsByteBuffer()).dblValue(), eps);
+      }
+
+      assertTrue(reader.hasIndex());
+      assertTrue(reader.seek(9.955));
+      assertEquals(996, reader.getNextPacket().packetCount());
+      assertTrue(reader.seekPacket(123));
+      assertEquals(123, reader.getNextPacket().packetCount());
+      assertFalse(reader.seek(10.0));
+      reader.close();
+
+      MappedLogReader mappedReader = new MappedLogReader(file);
+      int k = 0;
+      for (LogPacket packet : mappedReader) {
+        assertEquals(k++, packet.packetCount());
+      }
+      assertEquals(1000, k);
+    }
+  }
+
+  // DeltaFrame logs store most payloads as deltas, and read back (and seek) the same
+  @Test
+  public void deltaFrameTest() throws Exception {
+    for (byte compression : new byte[] {Compression.None, Compression.Deflate}) {
+      File rawFile = writeIndexedLog("raw_frame_test.log", PacketFormat.RawFrame, Compression.None);
+      String filename = "delta_frame_test_" + compression + ".log";
+      File file = writeIndexedLog(filename, PacketFormat.DeltaFrame, compression);
+      assertTrue(file.length() < rawFile.length());
+
+      FlatBuffersLogReader reader = new FlatBuffersLogReader(filename);
+      assertEquals(PacketFormat.DeltaFrame, reader.getFileHeader().packetFormat());
+      for (int k = 0; k < 1000; k++) {
+        LogPacket packet = reader.getNextPacket();
+        assertEquals(k, packet.packetCount());
+        assertEquals(k * 0.01, TestMessage2.getRootAsTestMessage2(packet.payloadAsByteBuffer()).dblValue(), eps);
+      }
+
+      // decoding restarts at the index entry in front of the packet
+      assertTrue(reader.seek(9.955));
+      assertEquals(996, reader.getNextPacket().packetCount());
+      LogPacket packet = reader.getNextPacket();
+      assertEquals(997, packet.packetCount());
+      assertEquals(9.97, packet.timestamp(), eps);
+      assertTrue(reader.seekPacket(123));
+      assertEquals(1.23, reader.getNextPacket().timestamp(), eps);
+      assertEquals(1.24, reader.getNextPacket().timestamp(), eps);
+      reader.close();
+
+      MappedLogReader mappedReader = new MappedLogReader(file);
+      int k = 0;
+      for (LogPacket mappedPacket : mappedReader) {
+        assertEquals(k, mappedPacket.packetCount());
+        assertEquals(k * 0.01, mappedPacket.timestamp(), eps);
+        k++;
+      }
+      assertEquals(1000, k);
+    }
+  }
+
+  // channels that share a channel_type (the joystick ports) each get a
+  // chain of deltas, so alternating between them still gives deltas
+  @Test
+  public void deltaStreamsTest() {
+    DeltaCodec encoder = new DeltaCodec();
+    DeltaCodec decoder = new DeltaCodec();
+    ByteBuffer frame = ByteBuffer.allocate(256);
+    for (int k = 0; k < 10; k++) {
+      for (int stream = 0; stream < 2; stream++) {
+        ByteBuffer payload = testMessage2(1000 * stream + 1 + k / 8.0);
+        ByteBuffer encoded = encoder.encode(ChannelType.JoystickStatus, stream, payload);
+        assertEquals((k == 0) ? DeltaCodec.kKeyframe : DeltaCodec.kDelta, encoder.encoding());
+
+        frame.clear();
+        LogPacket.putRawFrameHeader(frame, k, ChannelType.JoystickStatus, 1, encoded.remaining(),
+            encoder.encoding(), stream);
+        frame.put(encoded);
+        frame.flip();
+        frame.position(Integer.BYTES);    // size prefix
+        LogPacket packet = decoder.decodeFrame(frame);
+        assertEquals(1000 * stream + 1 + k / 8.0,
+            TestMessage2.getRootAsTestMessage2(packet.payloadAsByteBuffer()).dblValue(), eps);
+      }
+    }
+  }
+
+  private ByteBuffer testMessage2(double dblValue) {
+    FlatBufferBuilder builder = new FlatBufferBuilder(64);
+    int offset = TestMessage2.createTestMessage2(builder, dblValue);
+    TestMessage2.finishTestMessage2Buffer(builder, offset);
+    return builder.dataBuffer();
+  }
+
+  // packets logged while the new file is still being opened wait in memory,
+  // and land at the start of the new file, in order
+  @Test
+  public void relocateAsyncTest() throws Exception {
+    LogFileWriterBase.updateLogFolderTimestamp("unit_test");
+    ChannelManager channelManager = new ChannelManager();
+    channelManager.setUnitTest();
+
+    String filename = "relocate_test.log";
+    FlatBuffersLogger logger = new FlatBuffersLogger(channelManager, filename,
+        () -> TestFileHeader.empty(PacketFormat.RawFrame, Compression.None), 10);
+    logger.setPacketFormat(PacketFormat.RawFrame);
+
+    // a file system that is slow to respond
+    ExecutorService fileExecutor = Executors.newSingleThreadExecutor();
+    CountDownLatch stalled = new CountDownLatch(1);
+    fileExecutor.submit(() -> { stalled.await(); return null; });
+
+    LogFileWriterBase.updateLogFolderTimestamp("unit_test_relocate");
+    logger.relocate(LogFileWriterBase.activeLogPath(), fileExecutor);
+    PendingLogWriter pending = (PendingLogWriter)logger.writer;
+
+    logger.update();      // writes the header
+    for (int k = 0; k < 100; k++) {
+      logger.writePacket(TestConfig.TEST_MESSAGE_2.getNum(), (byte)1, testMessage2(k * 0.01));
+    }
+    assertFalse(pending.isOpen());
+    assertEquals(1 + 100, pending.getBacklogCount());
+
+    stalled.countDown();
+    pending.opening.get();
+    for (int k = 100; k < 200; k++) {
+      logger.writePacket(TestConfig.TEST_MESSAGE_2.getNum(), (byte)1, testMessage2(k * 0.01));
+    }
+    assertTrue(pending.isOpen());
+    assertEquals(1 + 100, pending.getBacklogCount());
+    assertEquals(0, pending.getDroppedCount());
+
+    logger.close(fileExecutor);
+    assertNull(logger.writer);
+    fileExecutor.shutdown();
+    assertTrue(fileExecutor.awaitTermination(10, TimeUnit.SECONDS));
+
+    FlatBuffersLogReader reader = new FlatBuffersLogReader(filename);
+    assertTrue(reader.hasIndex());
+    for (int k = 0; k < 200; k++) {
+      LogPacket packet = reader.getNextPacket();
+      assertEquals(k, packet.packetCount());
+      assertEquals(k * 0.01, packet.timestamp(), eps);
+    }
+    assertNull(reader.getNextPacket());
+    reader.close();
+  }
+
+  // messages overwritten before the logger got to them are logged as a LogGap
+  @Test
+  public void logGapTest() {
+    LogFileWriterBase.updateLogFolderTimestamp("unit_test");
+    ChannelManager channelManager = new ChannelManager();
+    channelManager.setUnitTest();
+
+    String filename = "log_gap_test.log";
+    FlatBuffersLogger logger = new FlatBuffersLogger(channelManager, filename,
+        () -> TestFileHeader.empty(PacketFormat.RawFrame, Compression.None));
+    logger.setPacketFormat(PacketFormat.RawFrame);
+    logger.relocate("unit_test");
+    logger.register(TestConfig.TEST_MESSAGE_2);
+
+    MessageQueue<ByteBuffer> queue = channelManager.fetch(TestConfig.TEST_MESSAGE_2);
+    final int kNumMessages = queue.capacity() + 88;
+    for (int k = 0; k < kNumMessages; k++) {
+      queue.write(testMessage2(k * 0.01));
+    }
+    logger.update();
+    logger.close();
+
+    FlatBuffersLogReader reader = new FlatBuffersLogReader(filename);
+    LogPacket packet = reader.getNextPacket();
+    assertEquals(ChannelType.LogGap, packet.channelType());
+    LogGap gap = LogGap.getRootAsLogGap(packet.payloadAsByteBuffer());
+    assertEquals(TestConfig.TEST_MESSAGE_2.getNum(), gap.channelType());
+    assertEquals(88, gap.skipped());
+    assertEquals(0.88, gap.timestamp(), eps);     // just ahead of the first message after the gap
+
+    for (int k = 88; k < kNumMessages; k++) {
+      packet = reader.getNextPacket();
+      assertEquals(TestConfig.TEST_MESSAGE_2.getNum(), packet.channelType());
+      assertEquals(k * 0.01, packet.timestamp(), eps);
+      assertEquals(Math.min(kNumMessages - k, 255), packet.queueSize());   // saturates instead of wrapping
+    }
+    assertNull(reader.getNextPacket());
+    reader.close();
+  }
 }
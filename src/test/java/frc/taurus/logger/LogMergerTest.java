@@ -0,0 +1,145 @@
+package frc.taurus.logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.concurrent.ForkJoinPool;
+
+import com.google.flatbuffers.FlatBufferBuilder;
+
+import org.junit.Test;
+
+import frc.taurus.config.ChannelManager;
+import frc.taurus.config.TestConfig;
+import frc.taurus.config.TestFileHeader;
+import frc.taurus.logger.generated.PacketFormat;
+import frc.taurus.messages.generated.TestMessage2;
+
+public class LogMergerTest {
+
+  static double eps = 1e-9;
+
+  // log TestMessage2's, where dbl_value (the first field) is the timestamp
+  private void writeLog(ChannelManager channelManager, String filename, byte packetFormat, double[] timestamps) {
+    FlatBuffersLogger logger = new FlatBuffersLogger(channelManager, filename, () -> TestFileHeader.empty(packetFormat));
+    logger.setPacketFormat(packetFormat);
+    logger.relocate("unit_test_merge");   // start a file with the packet format set above
+    logger.update();                      // writes the header
+
+    for (double timestamp : timestamps) {
+      FlatBufferBuilder builder = new FlatBufferBuilder(64);
+      int offset = TestMessage2.createTestMessage2(builder, timestamp);
+      TestMessage2.finishTestMessage2Buffer(builder, offset);
+      logger.writePacket(TestConfig.TEST_MESSAGE_2.getNum(), (byte)1, builder.dataBuffer());
+    }
+    logger.close();
+  }
+
+  // three files: evens, odds (logged out of order), and every fifth in the other packet format
+  private File writeFolder() {
+    LogFileWriterBase.updateLogFolderTimestamp("unit_test_merge");
+    File folder = LogFileWriterBase.logPath();
+    for (File file : folder.listFiles()) {
+      file.delete();
+    }
+
+    ChannelManager channelManager = new ChannelManager();
+    channelManager.setUnitTest();
+
+    double[] evens = new double[50];
+    double[] odds = new double[50];
+    for (int k = 0; k < 50; k++) {
+      evens[k] = 2 * k;
+      odds[k] = 2 * (k ^ 1) + 1;      // 3, 1, 7, 5, ...
+    }
+    writeLog(channelManager, "a.log", PacketFormat.RawFrame, evens);
+    writeLog(channelManager, "b.log", PacketFormat.RawFrame, odds);
+    writeLog(channelManager, "c.log", PacketFormat.FlatBufferPacket, new double[] {0.5, 10.5, 20.5, 30.5, 40.5});
+    return folder;
+  }
+
+  // packets come out in timestamp order, whichever file they are in
+  @Test
+  public void mergeTest() throws IOException {
+    LogMerger merger = new LogMerger(writeFolder());
+    assertEquals(105, merger.size());
+
+    double last = Double.NEGATIVE_INFINITY;
+    int count = 0;
+    for (LogPacket packet : merger) {
+      double timestamp = TestMessage2.getRootAsTestMessage2(packet.payloadAsByteBuffer()).dblValue();
+      assertEquals(timestamp, packet.timestamp(), eps);
+      assertTrue(timestamp >= last);
+      last = timestamp;
+      count++;
+    }
+    assertEquals(105, count);
+    assertEquals(99.0, last, eps);
+  }
+
+  // the merged file can be read back (and seeked) like any other log
+  @Test
+  public void writeToTest() throws IOException {
+    File folder = writeFolder();
+    File output = new File(folder, "merged.log");
+    assertEquals(105, new LogMerger(folder).writeTo(output));
+
+    MappedLogReader reader = new MappedLogReader(output);
+    assertEquals(PacketFormat.RawFrame, reader.getFileHeader().packetFormat());
+    int k = 0;
+    for (LogPacket packet : reader) {
+      assertEquals(k++, packet.packetCount());
+    }
+    assertEquals(105, k);
+
+    FlatBuffersLogReader seekReader = new FlatBuffersLogReader("merged.log");
+    assertTrue(seekReader.hasIndex());
+    assertTrue(seekReader.seek(40.2));
+    assertEquals(40.5, seekReader.getNextPacket().timestamp(), eps);
+    seekReader.close();
+  }
+
+  // each folder under the base folder gets its own merged file
+  @Test
+  public void mergeFoldersTest() throws IOException {
+    File folder = writeFolder();
+    File base = Files.createTempDirectory("log_merger_test").toFile();
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      for (String match : new String[] {"qual_1", "qual_2"}) {
+        File matchFolder = new File(base, match);
+        assertTrue(matchFolder.mkdir());
+        for (File file : LogMerger.logFiles(folder, "")) {
+          Files.copy(file.toPath(), new File(matchFolder, file.getName()).toPath());
+        }
+      }
+      assertTrue(new File(base, "empty").mkdir());
+
+      assertEquals(2, LogMerger.mergeFolders(base, "merged.log", pool));
+      for (String match : new String[] {"qual_1", "qual_2"}) {
+        File merged = new File(new File(base, match), "merged.log");
+        assertTrue(merged.exists());
+        try (MappedLogReader reader = new MappedLogReader(merged)) {
+          assertEquals(105, reader.stream(channelType -> true).count());
+        }
+      }
+    } finally {
+      pool.shutdown();
+      deleteRecursively(base);
+    }
+  }
+
+  private void deleteRecursively(File file) {
+    File[] files = file.listFiles();
+    if (files != null) {
+      for (File child : files) {
+        deleteRecursively(child);
+      }
+    }
+    file.delete();
+  }
+}
@@ -0,0 +1,138 @@
+package frc.taurus.logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import frc.taurus.config.ChannelManager;
+import frc.taurus.config.Config;
+import frc.taurus.logger.generated.LogStorageStatus;
+import frc.taurus.messages.MessageQueue;
+
+public class LogRetentionManagerTest {
+
+  static final long kDayMs = 24 * 3600 * 1000L;
+  static final long kNowMs = 1600000000000L;    // Sept 2020
+
+  File baseFolder;
+  File activeFolder;
+
+  @Before
+  public void setUp() {
+    baseFolder = new File(LogFileWriterBase.basePath(), "unit_test_retention");
+    deleteRecursively(baseFolder);
+    baseFolder.mkdirs();
+    activeFolder = null;
+  }
+
+  private void deleteRecursively(File file) {
+    File[] files = file.listFiles();
+    if (files != null) {
+      for (File child : files) {
+        deleteRecursively(child);
+      }
+    }
+    file.delete();
+  }
+
+  // a log folder with one file of the given size, last written daysAgo
+  private File logFolder(String name, int bytes, double daysAgo) throws IOException {
+    File folder = new File(baseFolder, name);
+    folder.mkdirs();
+    File file = new File(folder, "joystick.log");
+    try (FileOutputStream out = new FileOutputStream(file)) {
+      byte[] data = new byte[bytes];
+      for (int k = 0; k < bytes; k++) {
+        data[k] = (byte)(k % 7);    // compressible
+      }
+      out.write(data);
+    }
+    long time = kNowMs - (long)(daysAgo * kDayMs);
+    file.setLastModified(time);
+    folder.setLastModified(time);
+    return folder;
+  }
+
+  private LogRetentionManager manager(ChannelManager channelManager, long maxBytes, double maxAgeDays) {
+    return new LogRetentionManager(channelManager, baseFolder, () -> activeFolder, maxBytes, maxAgeDays * kDayMs / 1000);
+  }
+
+  // folders older than the max age are deleted, newer ones are kept
+  @Test
+  public void maxAgeTest() throws IOException {
+    ChannelManager channelManager = new ChannelManager();
+    channelManager.setUnitTest();
+
+    File old1 = logFolder("20200801_120000_auto", 1000, 40);
+    File old2 = logFolder("20200801_121500_teleop", 1000, 35);
+    File recent = logFolder("20200910_120000_teleop", 1000, 5);
+
+    LogRetentionManager manager = manager(channelManager, 1000000, 30);
+    manager.enforce(kNowMs);
+
+    assertFalse(old1.exists());
+    assertFalse(old2.exists());
+    assertTrue(recent.exists());
+    assertEquals(2, manager.getDeletedCount());
+    assertEquals(1000, manager.getTotalBytes());
+  }
+
+  // over the size limit, the oldest folders are zipped first, then deleted;
+  // the active folder is never touched
+  @Test
+  public void maxBytesTest() throws IOException {
+    ChannelManager channelManager = new ChannelManager();
+    channelManager.setUnitTest();
+    MessageQueue<ByteBuffer>.QueueReader statusReader = channelManager.fetch(Config.LOG_STORAGE_STATUS).makeReader();
+
+    File oldest = logFolder("20200901_120000_auto", 100000, 3);
+    File middle = logFolder("20200901_121500_teleop", 100000, 2);
+    File newest = logFolder("20200902_120000_teleop", 100000, 1);
+    activeFolder = logFolder("20200913_120000_teleop", 100000, 0);
+
+    // zipping the oldest folder is enough
+    LogRetentionManager manager = manager(channelManager, 350000, 0);
+    manager.enforce(kNowMs);
+
+    File oldestZip = new File(oldest.getPath() + ".zip");
+    assertFalse(oldest.exists());
+    assertTrue(oldestZip.exists());
+    assertTrue(oldestZip.length() < 10000);
+    assertTrue(middle.exists());
+    assertEquals(1, manager.getCompressedCount());
+    assertEquals(0, manager.getDeletedCount());
+
+    LogStorageStatus status = LogStorageStatus.getRootAsLogStorageStatus(statusReader.readLastOrNull());
+    assertEquals(manager.getTotalBytes(), status.totalBytes());
+    assertEquals(350000, status.maxBytes());
+    assertEquals(100000, status.activeBytes());
+    assertEquals(4, status.numFolders());
+    assertEquals(1, status.compressedFolders());
+
+    // with room for little more than the active folder, everything else goes, oldest first
+    manager = manager(channelManager, 150000, 0);
+    manager.setCompressOldLogs(false);
+    manager.enforce(kNowMs);
+
+    assertFalse(oldestZip.exists());
+    assertFalse(middle.exists());
+    assertFalse(newest.exists());
+    assertTrue(activeFolder.exists());
+    assertEquals(3, manager.getDeletedCount());
+    assertEquals(100000, manager.getTotalBytes());
+
+    // the active folder alone is over the limit: nothing to do
+    manager = manager(channelManager, 1000, 0);
+    manager.enforce(kNowMs);
+    assertTrue(activeFolder.exists());
+    assertEquals(0, manager.getDeletedCount());
+  }
+}
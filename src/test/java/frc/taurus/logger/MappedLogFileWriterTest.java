@@ -0,0 +1,85 @@
+package frc.taurus.logger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class MappedLogFileWriterTest {
+
+  static final String filename = "mapped_writer_test.log";
+
+  private File getFile() {
+    LogFileWriterBase.updateLogFolderTimestamp("unit_test");
+    return new File(LogFileWriterBase.logPath() + File.separator + filename);
+  }
+
+  private byte[] readFile(File file) {
+    try {
+      return Files.readAllBytes(file.toPath());
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+    return new byte[0];
+  }
+
+  // header+payload pairs that straddle segment boundaries are written contiguously
+  // (payloads from ByteBuffers and from arrays), and the file is truncated to
+  // the bytes written on close
+  @Test
+  public void rollSegmentsTest() {
+    File file = getFile();
+    MappedLogFileWriter writer = new MappedLogFileWriter(filename, 64, 10);
+
+    ByteBuffer expected = ByteBuffer.allocate(10 * (LogPacket.kRawFrameHeaderSize + 50));
+    ByteBuffer header = ByteBuffer.allocate(LogPacket.kRawFrameHeaderSize);
+    ByteBuffer payload = ByteBuffer.allocate(50);
+    for (int k=0; k<10; k++) {
+      Arrays.fill(payload.array(), (byte)k);
+      header.clear();
+      LogPacket.putRawFrameHeader(header, k, (byte)1, 1, payload.capacity());
+      header.flip();
+      payload.clear();
+
+      expected.put(header.duplicate());
+      expected.put(payload.duplicate());
+      if (k % 2 == 0) {
+        writer.write(header, payload);
+        assertEquals(0, payload.remaining());   // positions are advanced
+      } else {
+        writer.write(header, payload.array(), 0, payload.capacity());
+        assertEquals(50, payload.remaining());  // the array's buffer isn't touched
+      }
+      assertEquals(0, header.remaining());
+    }
+    writer.close();
+
+    assertArrayEquals(expected.array(), readFile(file));
+  }
+
+  // no flush() needed for the bytes to be in the file
+  @Test
+  public void readBeforeCloseTest() {
+    File file = getFile();
+    MappedLogFileWriter writer = new MappedLogFileWriter(filename);
+
+    byte[] data = {2, 5, 4, 9, 7, 1, 6, 8, 6};
+    writer.write(ByteBuffer.wrap(data));
+
+    byte[] contents = readFile(file);
+    assertEquals(MappedLogFileWriter.kDefaultSegmentSize, contents.length);   // whole segment is mapped
+    assertArrayEquals(data, Arrays.copyOf(contents, data.length));
+
+    writer.close();
+    assertArrayEquals(data, readFile(file));
+
+    writer.write(ByteBuffer.wrap(data));    // ignored after close
+    assertArrayEquals(data, readFile(file));
+  }
+}
@@ -0,0 +1,123 @@
+package frc.taurus.logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.google.flatbuffers.FlatBufferBuilder;
+
+import org.junit.Test;
+
+import frc.taurus.config.ChannelManager;
+import frc.taurus.config.TestConfig;
+import frc.taurus.config.TestFileHeader;
+import frc.taurus.logger.generated.PacketFormat;
+import frc.taurus.messages.generated.TestMessage1;
+import frc.taurus.messages.generated.TestMessage2;
+
+public class MappedLogReaderTest {
+
+  static final int kNumPackets = 100;
+  static double eps = 1e-9;
+
+  // alternate TestMessage1 (int_value = k) and TestMessage2 (dbl_value = k)
+  private File writeLog(String filename, byte packetFormat, boolean mappedFiles) {
+    LogFileWriterBase.updateLogFolderTimestamp("unit_test");
+    ChannelManager channelManager = new ChannelManager();
+    channelManager.setUnitTest();
+
+    FlatBuffersLogger logger = new FlatBuffersLogger(channelManager, filename, () -> TestFileHeader.empty(packetFormat));
+    logger.setPacketFormat(packetFormat);
+    logger.setMappedFiles(mappedFiles);
+    logger.relocate("unit_test");     // start a file with the settings above
+    logger.update();                  // writes the header
+
+    for (int k = 0; k < kNumPackets; k++) {
+      FlatBufferBuilder builder = new FlatBufferBuilder(64);
+      if (k % 2 == 0) {
+        int offset = TestMessage1.createTestMessage1(builder, k);
+        TestMessage1.finishTestMessage1Buffer(builder, offset);
+        logger.writePacket(TestConfig.TEST_MESSAGE_1.getNum(), (byte)1, builder.dataBuffer());
+      } else {
+        int offset = TestMessage2.createTestMessage2(builder, k);
+        TestMessage2.finishTestMessage2Buffer(builder, offset);
+        logger.writePacket(TestConfig.TEST_MESSAGE_2.getNum(), (byte)1, builder.dataBuffer());
+      }
+    }
+    logger.close();
+    return new File(LogFileWriterBase.logPath() + File.separator + filename);
+  }
+
+  // every packet comes back, in order, in both packet formats
+  @Test
+  public void iteratorTest() throws IOException {
+    for (byte packetFormat : new byte[] {PacketFormat.RawFrame, PacketFormat.FlatBufferPacket}) {
+      File file = writeLog("mapped_reader_test_" + packetFormat + ".log", packetFormat, false);
+      MappedLogReader reader = new MappedLogReader(file);
+      assertEquals(packetFormat, reader.getFileHeader().packetFormat());
+
+      int k = 0;
+      LogPacket first = null;
+      for (LogPacket packet : reader) {
+        if (first == null) {
+          first = packet;
+        }
+        assertSame(first, packet);                // no allocation per packet
+        assertEquals(k, packet.packetCount());
+        assertEquals(1, packet.queueSize());
+        if (k % 2 == 0) {
+          assertEquals(TestConfig.TEST_MESSAGE_1.getNum(), packet.channelType());
+          assertEquals(k, TestMessage1.getRootAsTestMessage1(packet.payloadAsByteBuffer()).intValue());
+        } else {
+          assertEquals(TestConfig.TEST_MESSAGE_2.getNum(), packet.channelType());
+          assertEquals(k, TestMessage2.getRootAsTestMessage2(packet.payloadAsByteBuffer()).dblValue(), eps);
+        }
+        k++;
+      }
+      assertEquals(kNumPackets, k);
+    }
+  }
+
+  // packets on other channels are skipped
+  @Test
+  public void channelFilterTest() throws IOException {
+    File file = writeLog("mapped_reader_filter_test.log", PacketFormat.RawFrame, false);
+    MappedLogReader reader = new MappedLogReader(file);
+
+    Iterator<LogPacket> it = reader.iterator(MappedLogReader.channels(TestConfig.TEST_MESSAGE_2.getNum()));
+    int k = 1;
+    while (it.hasNext()) {
+      LogPacket packet = it.next();
+      assertEquals(TestConfig.TEST_MESSAGE_2.getNum(), packet.channelType());
+      assertEquals(k, packet.packetCount());
+      k += 2;
+    }
+    assertEquals(kNumPackets + 1, k);
+    assertFalse(it.hasNext());
+
+    List<Integer> values = reader.stream(MappedLogReader.channels(TestConfig.TEST_MESSAGE_1.getNum()))
+        .map(packet -> TestMessage1.getRootAsTestMessage1(packet.payloadAsByteBuffer()).intValue())
+        .collect(Collectors.toList());
+    assertEquals(kNumPackets / 2, values.size());
+    assertEquals((Integer)98, values.get(values.size() - 1));
+  }
+
+  // files written by MappedLogFileWriter read the same
+  @Test
+  public void mappedWriterTest() throws IOException {
+    File file = writeLog("mapped_reader_mapped_test.log", PacketFormat.RawFrame, true);
+    MappedLogReader reader = new MappedLogReader(file);
+
+    long count = reader.stream(channelType -> true).count();
+    assertEquals(kNumPackets, count);
+    assertTrue(reader.iterator().hasNext());
+  }
+}
@@ -0,0 +1,191 @@
+package frc.taurus.logger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.DoubleSupplier;
+
+import com.google.flatbuffers.FlatBufferBuilder;
+
+import org.junit.Test;
+
+import frc.taurus.config.ChannelManager;
+import frc.taurus.config.Config;
+import frc.taurus.config.TestConfig;
+import frc.taurus.config.TestFileHeader;
+import frc.taurus.config.generated.ChannelType;
+import frc.taurus.joystick.XboxController;
+import frc.taurus.joystick.generated.AxisVector;
+import frc.taurus.joystick.generated.ButtonVector;
+import frc.taurus.joystick.generated.JoystickStatus;
+import frc.taurus.logger.generated.PacketFormat;
+import frc.taurus.messages.MessageQueue;
+import frc.taurus.messages.generated.TestMessage2;
+import frc.taurus.util.Clock;
+
+public class ReplayEngineTest {
+
+  static final double kLoopDt = 0.010;
+  static double eps = 1e-9;
+
+  private ByteBuffer joystickStatus(double timestamp, int port, float axis0) {
+    FlatBufferBuilder builder = new FlatBufferBuilder(64);
+    float[] axes = new float[6];
+    axes[0] = axis0;
+    JoystickStatus.startJoystickStatus(builder);
+    JoystickStatus.addTimestamp(builder, timestamp);
+    JoystickStatus.addPort(builder, port);
+    JoystickStatus.addAxes(builder, AxisVector.createAxisVector(builder, axes));
+    JoystickStatus.addButtons(builder, ButtonVector.createButtonVector(builder, new boolean[16]));
+    int offset = JoystickStatus.endJoystickStatus(builder);
+    JoystickStatus.finishJoystickStatusBuffer(builder, offset);
+    return builder.dataBuffer();
+  }
+
+  private ByteBuffer testMessage2(double timestamp) {
+    FlatBufferBuilder builder = new FlatBufferBuilder(64);
+    int offset = TestMessage2.createTestMessage2(builder, timestamp);
+    TestMessage2.finishTestMessage2Buffer(builder, offset);
+    return builder.dataBuffer();
+  }
+
+  private LogPacket packet(byte channelType, ByteBuffer payload) {
+    LogPacket packet = new LogPacket();
+    packet.channelType = channelType;
+    packet.queueSize = 1;
+    packet.payload = payload;
+    return packet;
+  }
+
+  // packets go to the queue of their channel (joysticks by port), one loop period at a time
+  @Test
+  public void stepTest() {
+    ChannelManager channelManager = new ChannelManager();
+    channelManager.setUnitTest();
+
+    List<LogPacket> packets = new ArrayList<>();
+    packets.add(packet(ChannelType.JoystickStatus, joystickStatus(100.000, 1, 0.1f)));
+    packets.add(packet(ChannelType.JoystickStatus, joystickStatus(100.002, 2, 0.2f)));
+    packets.add(packet(TestConfig.TEST_MESSAGE_2.getNum(), testMessage2(100.005)));   // not replayed
+    packets.add(packet(ChannelType.JoystickStatus, joystickStatus(100.012, 1, 0.3f)));
+    packets.add(packet(ChannelType.JoystickStatus, joystickStatus(100.033, 3, 0.4f)));  // port 3 not replayed
+
+    ReplayEngine replay = new ReplayEngine(channelManager, packets.iterator(), kLoopDt,
+        Config.JOYSTICK_PORT_1_STATUS, Config.JOYSTICK_PORT_2_STATUS);
+    MessageQueue<ByteBuffer>.QueueReader port1 = channelManager.fetch(Config.JOYSTICK_PORT_1_STATUS).makeReader();
+    MessageQueue<ByteBuffer>.QueueReader port2 = channelManager.fetch(Config.JOYSTICK_PORT_2_STATUS).makeReader();
+    MessageQueue<ByteBuffer>.QueueReader port3 = channelManager.fetch(Config.JOYSTICK_PORT_3_STATUS).makeReader();
+
+    List<Double> loopTimes = new ArrayList<>();
+    replay.addLoop(() -> loopTimes.add(Clock.getTimestamp()));
+
+    DoubleSupplier previousClock = Clock.getSource();
+    Clock.setSource(() -> 42.0);
+
+    assertTrue(replay.step());
+    assertEquals(0.1f, JoystickStatus.getRootAsJoystickStatus(port1.readLastOrNull()).axes().axis(0), eps);
+    assertEquals(0.2f, JoystickStatus.getRootAsJoystickStatus(port2.readLastOrNull()).axes().axis(0), eps);
+
+    assertTrue(replay.step());
+    assertEquals(0.3f, JoystickStatus.getRootAsJoystickStatus(port1.readLastOrNull()).axes().axis(0), eps);
+    assertNull(port2.readOrNull());
+
+    assertTrue(replay.step());      // nothing in this period, but the log isn't over
+    assertTrue(replay.step());
+    assertEquals(100.0 + 3.5 * kLoopDt, Clock.getTimestamp(), eps);
+    assertFalse(replay.step());
+    assertEquals(42.0, Clock.getTimestamp(), eps);    // Clock is back at the end of the log
+    Clock.setSource(previousClock);
+    assertNull(port3.readOrNull());
+
+    assertEquals(4, replay.getLoopCount());
+    assertEquals(3, replay.getPacketCount());
+    assertEquals(1, replay.getSkippedCount());
+    assertEquals(4, loopTimes.size());
+    for (int k = 0; k < loopTimes.size(); k++) {
+      assertEquals(100.0 + (k + 0.5) * kLoopDt, loopTimes.get(k), eps);
+    }
+  }
+
+  // stop() and close() give the Clock back, part way through a log
+  @Test
+  public void clockTest() {
+    ChannelManager channelManager = new ChannelManager();
+    channelManager.setUnitTest();
+
+    List<LogPacket> packets = new ArrayList<>();
+    for (int k = 0; k < 10; k++) {
+      packets.add(packet(ChannelType.JoystickStatus, joystickStatus(100.0 + k * kLoopDt, 1, 0.0f)));
+    }
+    ReplayEngine replay = new ReplayEngine(channelManager, packets.iterator(), kLoopDt);
+    replay.addLoop(() -> {
+      if (replay.getLoopCount() == 3) {
+        replay.stop();
+      }
+    });
+
+    DoubleSupplier previousClock = Clock.getSource();
+    DoubleSupplier testClock = () -> 42.0;
+    Clock.setSource(testClock);
+    try {
+      assertEquals(3, replay.runAsFastAsPossible());
+      assertSame(testClock, Clock.getSource());
+
+      assertTrue(replay.step());
+      assertEquals(100.0 + 3.5 * kLoopDt, Clock.getTimestamp(), eps);
+      replay.close();
+      assertSame(testClock, Clock.getSource());
+    } finally {
+      Clock.setSource(previousClock);
+    }
+  }
+
+  // a recorded joystick drives a Controller, as fast as the replay can go
+  @Test
+  public void controllerTest() throws IOException {
+    LogFileWriterBase.updateLogFolderTimestamp("unit_test_replay");
+    File folder = LogFileWriterBase.logPath();
+    for (File file : folder.listFiles()) {
+      file.delete();
+    }
+
+    final int kNumLoops = 2000;
+    ChannelManager recordManager = new ChannelManager();
+    recordManager.setUnitTest();
+    FlatBuffersLogger logger = new FlatBuffersLogger(recordManager, "joystick.log", () -> TestFileHeader.empty());
+    logger.setPacketFormat(PacketFormat.RawFrame);
+    logger.relocate("unit_test_replay");   // start a file with the packet format set above
+    logger.update();      // writes the header
+    for (int k = 0; k < kNumLoops; k++) {
+      logger.writePacket(ChannelType.JoystickStatus, (byte)1, joystickStatus(k * kLoopDt, 1, k / (float)kNumLoops));
+    }
+    logger.close();
+
+    // log the replay somewhere else, so it doesn't overwrite the log being replayed
+    LogFileWriterBase.updateLogFolderTimestamp("unit_test_replay_output");
+    ChannelManager channelManager = new ChannelManager();
+    channelManager.setUnitTest();
+    ReplayEngine replay = ReplayEngine.fromFolder(channelManager, folder, kLoopDt);
+    XboxController controller = new XboxController(channelManager.fetchJoystickStatusQueue(1),
+                                                   channelManager.fetchJoystickGoalQueue(1));
+    List<Double> axis = new ArrayList<>();
+    replay.addLoop(() -> {
+      controller.update();
+      axis.add(controller.getAxis(XboxController.Axis.L_STICK_X_AXIS));
+    });
+
+    assertEquals(kNumLoops, replay.runAsFastAsPossible());
+    assertEquals(kNumLoops, replay.getPacketCount());
+    for (int k = 0; k < kNumLoops; k++) {
+      assertEquals(k / (float)kNumLoops, axis.get(k), eps);
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package frc.taurus.messages;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class DirtyBitmapTest {
+
+    // bits set by writers are returned once by swap()
+    @Test
+    public void setSwapTest() {
+        DirtyBitmap bitmap = new DirtyBitmap();
+        long[] dirty = new long[DirtyBitmap.kNumWords];
+
+        bitmap.set(0);
+        bitmap.set(63);
+        bitmap.set(64);
+        bitmap.set((byte)254);                  // channel numbers are bytes -- negative values index from 128
+
+        bitmap.swap(dirty);
+        assertTrue(DirtyBitmap.isSet(dirty, 0));
+        assertTrue(DirtyBitmap.isSet(dirty, 63));
+        assertTrue(DirtyBitmap.isSet(dirty, 64));
+        assertTrue(DirtyBitmap.isSet(dirty, 254));
+        assertTrue(DirtyBitmap.isSet(dirty, (byte)254));
+        assertFalse(DirtyBitmap.isSet(dirty, 1));
+        assertFalse(DirtyBitmap.isSet(dirty, 253));
+
+        bitmap.swap(dirty);                     // swap() cleared the bitmap
+        for (int k=0; k<DirtyBitmap.kNumWords; k++) {
+            assertEquals(0, dirty[k]);
+        }
+    }
+
+
+    // writing to a queue sets its bit
+    @Test
+    public void queueWriteTest() {
+        DirtyBitmap bitmap = new DirtyBitmap();
+        long[] dirty = new long[DirtyBitmap.kNumWords];
+
+        MessageQueue<Integer> queue1 = new MessageQueue<Integer>(10);
+        MessageQueue<Integer> queue2 = new LockFreeMessageQueue<Integer>(10);
+        queue1.setDirtyBitmap(bitmap, 5);
+        queue2.setDirtyBitmap(bitmap, 200);
+
+        queue1.write(686);
+        bitmap.swap(dirty);
+        assertTrue(DirtyBitmap.isSet(dirty, 5));
+        assertFalse(DirtyBitmap.isSet(dirty, 200));
+
+        queue2.write(254);
+        queue2.write(971);
+        bitmap.swap(dirty);
+        assertFalse(DirtyBitmap.isSet(dirty, 5));
+        assertTrue(DirtyBitmap.isSet(dirty, 200));
+    }
+
+
+    // bits set from several threads at once are not lost
+    @Test
+    public void concurrentSetTest() throws InterruptedException {
+        DirtyBitmap bitmap = new DirtyBitmap();
+        long[] dirty = new long[DirtyBitmap.kNumWords];
+
+        Thread[] threads = new Thread[4];
+        for (int t=0; t<threads.length; t++) {
+            final int offset = t;
+            threads[t] = new Thread(() -> {
+                for (int k=offset; k<DirtyBitmap.kNumBits; k+=threads.length) {
+                    bitmap.set(k);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        bitmap.swap(dirty);
+        for (int k=0; k<DirtyBitmap.kNumWords; k++) {
+            assertEquals(-1L, dirty[k]);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package frc.taurus.messages;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.Optional;
+
+import com.google.flatbuffers.FlatBufferBuilder;
+
+import org.junit.Test;
+
+import frc.taurus.messages.generated.TestMessage1;
+
+public class FlatBufferPoolTest {
+
+    private void writeMessage(FlatBufferPool pool, int value) {
+        FlatBufferBuilder builder = pool.borrow();
+        int offset = TestMessage1.createTestMessage1(builder, value);
+        TestMessage1.finishTestMessage1Buffer(builder, offset);
+        pool.write(builder);
+    }
+
+    private int readValue(ByteBuffer bb) {
+        return TestMessage1.getRootAsTestMessage1(bb).intValue();
+    }
+
+
+    // once every buffer has been used, a reader that keeps up means no more allocations
+    @Test
+    public void steadyStateTest() {
+        MessageQueue<ByteBuffer> queue = new MessageQueue<ByteBuffer>(4);
+        MessageQueue<ByteBuffer>.QueueReader reader = queue.makeReader();
+        FlatBufferPool pool = new FlatBufferPool(queue);
+
+        for (int k=0; k<100; k++) {
+            writeMessage(pool, k);
+            Optional<ByteBuffer> obb = reader.read();
+            assertTrue(obb.isPresent());
+            assertEquals(k, readValue(obb.get()));
+        }
+
+        // one buffer for each element of the queue, plus the spares
+        assertEquals(queue.capacity() + FlatBufferPool.kNumSpare, pool.getNumAllocated());
+    }
+
+
+    // the last element in the queue is never overwritten while it can still be read
+    @Test
+    public void readLastTest() {
+        MessageQueue<ByteBuffer> queue = new LockFreeMessageQueue<ByteBuffer>(4);
+        FlatBufferPool pool = new FlatBufferPool(queue);
+
+        for (int k=0; k<100; k++) {
+            writeMessage(pool, k);
+            for (int j=Math.max(0, k-3); j<=k; j++) {
+                // every element still in the queue is intact
+                MessageQueue<ByteBuffer>.QueueReader reader = queue.makeReader();
+                reader.nextReadIndex = j;
+                assertEquals(j, readValue(reader.read().get()));
+            }
+            assertEquals(k, readValue(queue.readLast().get()));
+        }
+    }
+
+
+    // a reader that stops reading keeps the buffer it read last -- the pool
+    // allocates new buffers instead of overwriting it
+    @Test
+    public void slowReaderTest() {
+        MessageQueue<ByteBuffer> queue = new MessageQueue<ByteBuffer>(4);
+        MessageQueue<ByteBuffer>.QueueReader reader = queue.makeReader();
+        FlatBufferPool pool = new FlatBufferPool(queue);
+
+        writeMessage(pool, 686);
+        ByteBuffer held = reader.read().get();
+
+        for (int k=0; k<100; k++) {
+            writeMessage(pool, k);
+        }
+        assertEquals(686, readValue(held));
+        assertEquals(101, pool.getNumAllocated());
+
+        // the reader catches up, and buffers are reused again
+        while (!reader.isEmpty()) {
+            reader.read();
+        }
+        reader.read();
+        long numAllocated = pool.getNumAllocated();
+        for (int k=0; k<100; k++) {
+            writeMessage(pool, k);
+            reader.read();
+        }
+        assertTrue(pool.getNumAllocated() - numAllocated <= queue.capacity() + FlatBufferPool.kNumSpare);
+    }
+}
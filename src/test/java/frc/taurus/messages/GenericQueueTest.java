@@ -2,8 +2,11 @@ package frc.taurus.messages;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -461,4 +464,62 @@ public class GenericQueueTest {
         assertEquals((Integer)1, opt.get());         
         assertEquals(3, reader.nextReadIndex);  
         }
-}
\ No newline at end of file
+
+
+    // readOrNull(), readLastOrNull() and readInto() return the same values as read() and readLast()
+    @Test
+    public void readOrNullTest() {
+        MessageQueue<Integer> queue = new MessageQueue<Integer>(10);
+        MessageQueue<Integer>.QueueReader reader = queue.makeReader();
+
+        assertNull(reader.readOrNull());         // nothing written yet
+        assertNull(reader.readLastOrNull());
+        assertNull(queue.readLastOrNull());
+
+        queue.write(254);
+        queue.write(971);
+        queue.write(686);
+
+        assertEquals((Integer)254, reader.readOrNull());
+        List<Integer> values = new ArrayList<>();
+        assertTrue(reader.readInto(values::add));
+        assertEquals(List.of(971), values);
+        assertEquals((Integer)686, queue.readLastOrNull());
+        assertEquals((Integer)686, reader.readLastOrNull());
+        assertNull(reader.readOrNull());         // readLastOrNull() moved the reader to the back of the queue
+        assertFalse(reader.readInto(values::add));
+    }
+
+
+    // drainTo() passes the backlog in order, with the number of elements remaining
+    @Test
+    public void drainToTest() {
+        MessageQueue<Integer> queue = new MessageQueue<Integer>(10);
+        MessageQueue<Integer>.QueueReader reader = queue.makeReader();
+
+        for (int k=0; k<15; k++) {
+            queue.write(k);                      // 0-4 are overwritten
+        }
+
+        List<Integer> values = new ArrayList<>();
+        List<Integer> remaining = new ArrayList<>();
+        BatchSink<Integer> sink = (value, numRemaining) -> {
+            values.add(value);
+            remaining.add(numRemaining);
+        };
+
+        assertEquals(3, reader.drainTo(sink, 3));    // at most max elements
+        assertEquals(List.of(5, 6, 7), values);
+        assertEquals(List.of(10, 9, 8), remaining);
+        assertEquals(8, reader.nextReadIndex);
+
+        values.clear();
+        remaining.clear();
+        assertEquals(7, reader.drainTo(sink, Integer.MAX_VALUE));
+        assertEquals(List.of(8, 9, 10, 11, 12, 13, 14), values);
+        assertEquals(List.of(7, 6, 5, 4, 3, 2, 1), remaining);
+        assertTrue(reader.isEmpty());
+
+        assertEquals(0, reader.drainTo(sink, Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,326 @@
+package frc.taurus.messages;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class LockFreeMessageQueueTest {
+
+    // verify queue can be reset/cleared
+    @Test
+    public void resetTest() {
+        MessageQueue<Integer> queue = new LockFreeMessageQueue<Integer>(10);
+        MessageQueue<Integer>.QueueReader reader = queue.makeReader();
+
+        queue.write(686);                       // write value to queue
+
+        assertEquals(1, reader.size());         // verify queue has 1 element
+        assertFalse(reader.isEmpty());
+
+        queue.clear();                          // clear queue
+
+        assertEquals(0, reader.size());         // verify queue is empty
+        assertTrue(reader.isEmpty());
+        assertTrue(queue.readLast().isEmpty());
+    }
+
+
+    // check that queue reader reads several values correctly
+    // null would look like a slot being overwritten, and readers would spin
+    @Test(expected = IllegalArgumentException.class)
+    public void writeNullTest() {
+        MessageQueue<Integer> queue = new LockFreeMessageQueue<Integer>(10);
+        queue.write(null);
+    }
+
+    @Test
+    public void readerReadTest() {
+        MessageQueue<Integer> queue = new LockFreeMessageQueue<Integer>(10);
+        MessageQueue<Integer>.QueueReader reader = queue.makeReader();
+
+        queue.write(254);                       // write 3 elements into queue
+        queue.write(971);
+        queue.write(686);
+
+        assertEquals(3, reader.size());
+        assertEquals((Integer)254, reader.read().get());
+        assertEquals((Integer)971, reader.read().get());
+        assertEquals((Integer)686, reader.read().get());
+
+        assertTrue(reader.isEmpty());           // verify all elements have been read out
+        assertTrue(reader.read().isEmpty());    // attempt to read one more element
+    }
+
+
+    // verify readLast() returns the last element, always
+    @Test
+    public void readerReadLastTest() {
+        MessageQueue<Integer> queue = new LockFreeMessageQueue<Integer>(10);
+        MessageQueue<Integer>.QueueReader reader = queue.makeReader();
+
+        assertTrue(reader.readLast().isEmpty()); // nothing written yet
+
+        queue.write(254);
+        queue.write(971);
+        queue.write(686);
+
+        for (int k=1; k<=5; k++) {
+            Optional<Integer> opt = reader.readLast();
+            assertTrue(opt.isPresent());
+            assertEquals((Integer)686, opt.get());
+        }
+        assertTrue(reader.isEmpty());            // readLast() moves the reader to the back of the queue
+    }
+
+
+    // check that reader index moves up when reader gets too far behind
+    @Test
+    public void readerIndexTest() {
+        MessageQueue<Integer> queue = new LockFreeMessageQueue<Integer>(10);
+        MessageQueue<Integer>.QueueReader reader = queue.makeReader();
+
+        queue.write(686);
+        reader.read();
+        assertEquals(1, reader.nextReadIndex);
+
+        // write 11 numbers, overwriting 686 and 0
+        for (int k=0; k<11; k++) {
+            queue.write(k);
+        }
+
+        assertEquals(2, queue.front());
+        assertEquals(12, queue.back());
+        Optional<Integer> opt = reader.read();
+        assertTrue(opt.isPresent());
+        assertEquals((Integer)1, opt.get());    // skipped 0, which was overwritten
+        assertEquals(3, reader.nextReadIndex);
+    }
+
+
+    // a single writer with several readers: every reader must see every
+    // value, in order, exactly once
+    @Test
+    public void singleWriterMultipleReaderThreadTest() {
+        final int kNumValues = 100000;
+        final int kNumReaders = 4;
+        final long timeout = 2000;  // milliseconds
+        MessageQueue<Integer> queue = new LockFreeMessageQueue<Integer>(kNumValues);
+
+        CountDownLatch latch = new CountDownLatch(kNumReaders);
+        AtomicReference<AssertionError> failure = new AtomicReference<>();
+
+        Thread[] readerThreads = new Thread[kNumReaders];
+        for (int k=0; k<readerThreads.length; k++) {
+            MessageQueue<Integer>.QueueReader reader = queue.makeReader();
+            readerThreads[k] = new Thread(new Runnable() {
+                public void run() {
+                    int expected = 0;
+                    long end = System.currentTimeMillis() + timeout;
+                    try {
+                        while (expected < kNumValues && System.currentTimeMillis() < end) {
+                            Optional<Integer> opt = reader.read();
+                            if (opt.isPresent()) {
+                                assertEquals((Integer)expected, opt.get());
+                                expected++;
+                            }
+                        }
+                        assertEquals(kNumValues, expected);
+                    } catch (AssertionError e) {
+                        failure.set(e);
+                    }
+                    latch.countDown();
+                }
+            });
+            readerThreads[k].start();
+        }
+
+        for (int k=0; k<kNumValues; k++) {
+            queue.write(k);
+        }
+
+        try {
+            latch.await(timeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+
+        // throw any failures found in reader threads
+        assertNull(failure.get());
+    }
+
+
+    // a small queue that is constantly overrun: readers may skip values
+    // but must never see a value go backwards or see a torn slot
+    @Test
+    public void overrunReaderThreadTest() {
+        final int kNumValues = 200000;
+        final long timeout = 2000;  // milliseconds
+        MessageQueue<Integer> queue = new LockFreeMessageQueue<Integer>(4);
+        MessageQueue<Integer>.QueueReader reader = queue.makeReader();
+
+        AtomicReference<AssertionError> failure = new AtomicReference<>();
+        Thread readerThread = new Thread(new Runnable() {
+            public void run() {
+                int last = -1;
+                long end = System.currentTimeMillis() + timeout;
+                try {
+                    while (last < kNumValues-1 && System.currentTimeMillis() < end) {
+                        Optional<Integer> opt = reader.read();
+                        if (opt.isPresent()) {
+                            assertTrue(opt.get() > last);
+                            last = opt.get();
+                        }
+                        Optional<Integer> optLast = queue.readLast();
+                        if (optLast.isPresent()) {
+                            assertTrue(optLast.get() >= last);
+                        }
+                    }
+                } catch (AssertionError e) {
+                    failure.set(e);
+                }
+            }
+        });
+        readerThread.start();
+
+        for (int k=0; k<kNumValues; k++) {
+            queue.write(k);
+        }
+
+        try {
+            readerThread.join(timeout);
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+
+        assertNull(failure.get());
+    }
+
+
+    // readOrNull(), readLastOrNull() and readInto() return the same values as read() and readLast()
+    @Test
+    public void readOrNullTest() {
+        MessageQueue<Integer> queue = new LockFreeMessageQueue<Integer>(10);
+        MessageQueue<Integer>.QueueReader reader = queue.makeReader();
+
+        assertNull(reader.readOrNull());         // nothing written yet
+        assertNull(reader.readLastOrNull());
+        assertNull(queue.readLastOrNull());
+
+        queue.write(254);
+        queue.write(971);
+        queue.write(686);
+
+        assertEquals((Integer)254, reader.readOrNull());
+        List<Integer> values = new ArrayList<>();
+        assertTrue(reader.readInto(values::add));
+        assertEquals(List.of(971), values);
+        assertEquals((Integer)686, queue.readLastOrNull());
+        assertEquals((Integer)686, reader.readLastOrNull());
+        assertNull(reader.readOrNull());         // readLastOrNull() moved the reader to the back of the queue
+        assertFalse(reader.readInto(values::add));
+    }
+
+
+    // drainTo() passes the backlog in order, with the number of elements remaining
+    @Test
+    public void drainToTest() {
+        MessageQueue<Integer> queue = new LockFreeMessageQueue<Integer>(10);
+        MessageQueue<Integer>.QueueReader reader = queue.makeReader();
+
+        for (int k=0; k<15; k++) {
+            queue.write(k);                      // 0-4 are overwritten
+        }
+
+        List<Integer> values = new ArrayList<>();
+        List<Integer> remaining = new ArrayList<>();
+        BatchSink<Integer> sink = (value, numRemaining) -> {
+            values.add(value);
+            remaining.add(numRemaining);
+        };
+
+        assertEquals(3, reader.drainTo(sink, 3));    // at most max elements
+        assertEquals(List.of(5, 6, 7), values);
+        assertEquals(List.of(10, 9, 8), remaining);
+        assertEquals(8, reader.nextReadIndex);
+
+        values.clear();
+        remaining.clear();
+        assertEquals(7, reader.drainTo(sink, Integer.MAX_VALUE));
+        assertEquals(List.of(8, 9, 10, 11, 12, 13, 14), values);
+        assertEquals(List.of(7, 6, 5, 4, 3, 2, 1), remaining);
+        assertTrue(reader.isEmpty());
+
+        assertEquals(0, reader.drainTo(sink, Integer.MAX_VALUE));
+    }
+
+
+    // a reader that falls more than capacity behind counts what it missed
+    @Test
+    public void skippedCountTest() {
+        MessageQueue<Integer> queue = new LockFreeMessageQueue<Integer>(10);
+        MessageQueue<Integer>.QueueReader slowReader = queue.makeReader();
+        MessageQueue<Integer>.QueueReader fastReader = queue.makeReader();
+
+        for (int k = 0; k < 15; k++) {
+            queue.write(k);
+            assertEquals((Integer)k, fastReader.readOrNull());
+        }
+        assertEquals((Integer)5, slowReader.readOrNull());     // 0-4 were overwritten
+        assertEquals(5, slowReader.skippedCount());
+        assertEquals(15, slowReader.maxLag());
+        assertEquals(1, slowReader.readCount());
+
+        for (int k = 15; k < 27; k++) {
+            queue.write(k);
+        }
+        BatchSink<Integer> sink = (value, numRemaining) -> {};
+        assertEquals(10, slowReader.drainTo(sink, Integer.MAX_VALUE));   // 6-16 were overwritten
+        assertEquals(5 + 11, slowReader.skippedCount());
+        assertEquals(21, slowReader.maxLag());
+        assertEquals(11, slowReader.readCount());
+
+        assertEquals(0, fastReader.skippedCount());
+        assertEquals(1, fastReader.maxLag());
+        assertEquals(15, fastReader.readCount());
+
+        assertEquals(2, queue.numReaders());
+        assertEquals(16, queue.skippedCount());
+        assertEquals(26, queue.readCount());
+        assertEquals(21, queue.maxLag());
+    }
+
+
+    // the single writer parks until a BLOCK reader has read what it would overwrite
+    @Test
+    public void blockTest() throws InterruptedException {
+        MessageQueue<Integer> queue = new LockFreeMessageQueue<Integer>(4);
+        MessageQueue<Integer>.QueueReader reader = queue.makeReader(OverflowPolicy.BLOCK);
+
+        Thread writer = new Thread(() -> {
+            for (int k = 0; k < 20; k++) {
+                queue.write(k);
+            }
+        });
+        writer.start();
+
+        for (int k = 0; k < 20; k++) {
+            Integer value;
+            while ((value = reader.readOrNull()) == null) {
+                Thread.sleep(1);
+            }
+            assertEquals((Integer)k, value);
+        }
+        writer.join();
+        assertEquals(0, reader.skippedCount());
+    }
+}
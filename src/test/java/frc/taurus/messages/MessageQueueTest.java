@@ -2,13 +2,16 @@ package frc.taurus.messages;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.nio.ByteBuffer;
 import java.util.Optional;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import com.google.flatbuffers.FlatBufferBuilder;
@@ -582,4 +585,252 @@ public class MessageQueueTest {
         assertEquals(1, TestMessage1.getRootAsTestMessage1( opt.get() ).intValue());         
         assertEquals(3, reader.nextReadIndex);  
     }
-}
\ No newline at end of file
+
+
+    // a reader that falls more than capacity behind counts what it missed
+    @Test
+    public void skippedCountTest() {
+        MessageQueue<Integer> queue = new MessageQueue<Integer>(10);
+        MessageQueue<Integer>.QueueReader slowReader = queue.makeReader();
+        MessageQueue<Integer>.QueueReader fastReader = queue.makeReader();
+
+        for (int k = 0; k < 15; k++) {
+            queue.write(k);
+            assertEquals((Integer)k, fastReader.readOrNull());
+        }
+        assertEquals((Integer)5, slowReader.readOrNull());     // 0-4 were overwritten
+        assertEquals(5, slowReader.skippedCount());
+        assertEquals(15, slowReader.maxLag());
+        assertEquals(1, slowReader.readCount());
+
+        for (int k = 15; k < 27; k++) {
+            queue.write(k);
+        }
+        BatchSink<Integer> sink = (value, numRemaining) -> {};
+        assertEquals(10, slowReader.drainTo(sink, Integer.MAX_VALUE));   // 6-16 were overwritten
+        assertEquals(5 + 11, slowReader.skippedCount());
+        assertEquals(21, slowReader.maxLag());
+        assertEquals(11, slowReader.readCount());
+
+        assertEquals(0, fastReader.skippedCount());
+        assertEquals(1, fastReader.maxLag());
+        assertEquals(15, fastReader.readCount());
+
+        assertEquals(2, queue.numReaders());
+        assertEquals(16, queue.skippedCount());
+        assertEquals(26, queue.readCount());
+        assertEquals(21, queue.maxLag());
+    }
+
+
+    // a queue of any size keeps exactly that many elements, though its
+    // storage is a power of 2
+    @Test
+    public void powerOf2Test() {
+        assertEquals(1, MessageQueue.roundUpToPowerOf2(1));
+        assertEquals(16, MessageQueue.roundUpToPowerOf2(10));
+        assertEquals(16, MessageQueue.roundUpToPowerOf2(16));
+        assertEquals(32, MessageQueue.roundUpToPowerOf2(17));
+
+        MessageQueue<Integer> queue = new MessageQueue<Integer>(10);
+        MessageQueue<Integer>.QueueReader reader = queue.makeReader();
+        assertEquals(10, queue.capacity());
+        for (int k = 0; k < 40; k++) {
+            queue.write(k);
+        }
+        assertEquals(30, queue.front());
+        for (int k = 30; k < 40; k++) {
+            assertEquals((Integer)k, reader.readOrNull());
+        }
+        assertNull(reader.readOrNull());
+        assertEquals((Integer)39, queue.readLastOrNull());
+    }
+
+
+    // a closed reader no longer holds back minReaderIndex()
+    @Test
+    public void closeTest() {
+        MessageQueue<Integer> queue = new MessageQueue<Integer>(10);
+        MessageQueue<Integer>.QueueReader slowReader = queue.makeReader();
+        MessageQueue<Integer>.QueueReader fastReader = queue.makeReader();
+
+        for (int k = 0; k < 5; k++) {
+            queue.write(k);
+            fastReader.readOrNull();
+        }
+        assertEquals(0, queue.minReaderIndex());
+        assertEquals(2, queue.numReaders());
+
+        slowReader.close();
+        assertEquals(5, queue.minReaderIndex());
+        assertEquals(1, queue.numReaders());
+    }
+
+    // writes never fail: a FAIL_FAST reader throws on its next read instead,
+    // then carries on from the front of the queue
+    @Test
+    public void failFastTest() {
+        MessageQueue<Integer> queue = new MessageQueue<Integer>(4);
+        MessageQueue<Integer>.QueueReader reader = queue.makeReader(OverflowPolicy.FAIL_FAST);
+
+        for (int k = 0; k < 6; k++) {
+            queue.write(k);
+        }
+        assertEquals(6, queue.back());
+
+        try {
+            reader.readOrNull();
+            fail("expected IllegalStateException");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        assertEquals(2, reader.skippedCount());
+        assertEquals((Integer)2, reader.readOrNull());
+        assertEquals((Integer)3, reader.readOrNull());
+    }
+
+    // writes wait for a BLOCK reader to read what they would overwrite
+    @Test
+    public void blockTest() throws InterruptedException {
+        MessageQueue<Integer> queue = new MessageQueue<Integer>(4);
+        MessageQueue<Integer>.QueueReader reader = queue.makeReader(OverflowPolicy.BLOCK);
+
+        Thread writer = new Thread(() -> {
+            for (int k = 0; k < 20; k++) {
+                queue.write(k);
+            }
+        });
+        writer.start();
+
+        for (int k = 0; k < 20; k++) {
+            Integer value;
+            while ((value = reader.readOrNull()) == null) {
+                Thread.sleep(1);
+            }
+            assertEquals((Integer)k, value);
+        }
+        writer.join();
+        assertEquals(0, reader.skippedCount());
+    }
+
+    // a write waits for a BLOCK reader that stopped reading only once, then
+    // overwrites; it waits again once the reader has caught up
+    @Test
+    public void blockOnceTest() {
+        MessageQueue<Integer> queue = new MessageQueue<Integer>(4);
+        MessageQueue<Integer>.QueueReader reader = queue.makeReader(OverflowPolicy.BLOCK);
+
+        for (int k = 0; k < 4; k++) {
+            queue.write(k);
+        }
+        long start = System.nanoTime();
+        queue.write(4);
+        long firstMs = (System.nanoTime() - start) / 1000000;
+        assertTrue(firstMs >= MessageQueue.kMaxBlockMs);
+
+        start = System.nanoTime();
+        for (int k = 5; k < 20; k++) {
+            queue.write(k);
+        }
+        long restMs = (System.nanoTime() - start) / 1000000;
+        assertTrue(restMs < MessageQueue.kMaxBlockMs);
+
+        assertEquals((Integer)16, reader.readOrNull());
+        assertEquals(16, reader.skippedCount());
+        assertFalse(reader.overflowed);
+    }
+
+
+    // async listeners run on the dispatch thread, and writes made while one
+    // is busy are coalesced into one more call
+    @Test
+    public void asyncListenerTest() throws InterruptedException {
+        MessageQueue<Integer> queue = new MessageQueue<Integer>(10);
+        CountDownLatch firstCall = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger numCalls = new AtomicInteger(0);
+        AtomicReference<Thread> listenerThread = new AtomicReference<>();
+
+        queue.subscribeAsync(() -> {
+            listenerThread.set(Thread.currentThread());
+            numCalls.incrementAndGet();
+            firstCall.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        queue.write(0);
+        assertTrue(firstCall.await(1, TimeUnit.SECONDS));
+        for (int k = 1; k < 10; k++) {
+            queue.write(k);     // doesn't wait for the listener
+        }
+        release.countDown();
+
+        long deadline = System.currentTimeMillis() + 1000;
+        while (numCalls.get() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        Thread.sleep(20);
+        assertEquals(2, numCalls.get());
+        assertNotSame(Thread.currentThread(), listenerThread.get());
+    }
+
+
+    // readBlocking() parks until a write, or the timeout
+    @Test
+    public void readBlockingTest() throws InterruptedException {
+        MessageQueue<Integer> queue = new MessageQueue<Integer>(10);
+        MessageQueue<Integer>.QueueReader reader = queue.makeReader();
+
+        assertFalse(reader.await(10));
+        assertNull(reader.readBlocking(10));
+
+        Thread writer = new Thread(() -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue.write(1);
+        });
+        writer.start();
+        assertEquals((Integer)1, reader.readBlocking(5000));
+        writer.join();
+
+        queue.write(2);
+        assertTrue(reader.await(0));    // already there: no waiting
+        assertEquals((Integer)2, reader.readBlocking(0));
+    }
+
+    // select() returns the first reader with something to read
+    @Test
+    public void selectTest() throws InterruptedException {
+        MessageQueue<Integer> queue1 = new MessageQueue<Integer>(10);
+        MessageQueue<Integer> queue2 = new LockFreeMessageQueue<Integer>(10);
+        MessageQueue<Integer>.QueueReader reader1 = queue1.makeReader();
+        MessageQueue<Integer>.QueueReader reader2 = queue2.makeReader();
+
+        assertEquals(-1, QueueSelector.select(10, reader1, reader2));
+
+        Thread writer = new Thread(() -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                return;
+            }
+            queue2.write(2);
+        });
+        writer.start();
+        assertEquals(1, QueueSelector.select(5000, reader1, reader2));
+        writer.join();
+
+        queue1.write(1);
+        assertEquals(0, QueueSelector.select(0, reader1, reader2));
+        assertEquals((Integer)1, reader1.readOrNull());
+        assertEquals((Integer)2, reader2.readOrNull());
+        assertEquals(-1, QueueSelector.select(0, reader1, reader2));
+    }
+}
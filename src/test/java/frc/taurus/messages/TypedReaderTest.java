@@ -0,0 +1,57 @@
+package frc.taurus.messages;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import com.google.flatbuffers.FlatBufferBuilder;
+
+import org.junit.Test;
+
+import frc.taurus.messages.generated.TestMessage1;
+
+public class TypedReaderTest {
+
+    private void writeMessage(FlatBufferPool pool, int value) {
+        FlatBufferBuilder builder = pool.borrow();
+        int offset = TestMessage1.createTestMessage1(builder, value);
+        TestMessage1.finishTestMessage1Buffer(builder, offset);
+        pool.write(builder);
+    }
+
+
+    // every read re-points the same view at the next message
+    @Test
+    public void readTest() {
+        MessageQueue<ByteBuffer> queue = new MessageQueue<ByteBuffer>(10);
+        FlatBufferPool pool = new FlatBufferPool(queue);
+        TestMessage1 view = new TestMessage1();
+        TypedReader<TestMessage1> reader = new TypedReader<>(queue, view, TestMessage1::getRootAsTestMessage1);
+
+        assertTrue(reader.isEmpty());
+        assertNull(reader.readOrNull());
+        assertNull(reader.readLastOrNull());
+
+        for (int k = 0; k < 3; k++) {
+            writeMessage(pool, k);
+        }
+        assertEquals(3, reader.size());
+
+        for (int k = 0; k < 3; k++) {
+            TestMessage1 message = reader.readOrNull();
+            assertSame(view, message);
+            assertEquals(k, message.intValue());
+        }
+        assertNull(reader.readOrNull());
+        assertEquals(3, reader.getQueueReader().readCount());
+
+        writeMessage(pool, 3);
+        writeMessage(pool, 4);
+        assertSame(view, reader.readLastOrNull());
+        assertEquals(4, view.intValue());
+        assertTrue(reader.isEmpty());
+    }
+}
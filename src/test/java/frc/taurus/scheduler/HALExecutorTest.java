@@ -0,0 +1,117 @@
+package frc.taurus.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import frc.taurus.hal.IHAL;
+
+public class HALExecutorTest {
+
+  // records what it was asked to do, and on which thread
+  static class TestHAL implements IHAL {
+    final List<String> calls = Collections.synchronizedList(new ArrayList<>());
+    volatile Thread thread;
+    volatile boolean oneThread = true;
+    volatile int sleepMs = 0;
+
+    private void call(String name) {
+      if (thread == null) {
+        thread = Thread.currentThread();
+      }
+      oneThread &= (thread == Thread.currentThread());
+      calls.add(name);
+    }
+
+    public void zeroSensors()    { calls.add("zero"); }
+    public void readSensors()    { call("read"); sleep(); }
+    public void writeActuators() { call("write"); }
+    public void stop()           { calls.add("stop"); }
+
+    private void sleep() {
+      try {
+        Thread.sleep(sleepMs);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  // each HAL runs on its own thread, reading then writing every tick; a slow
+  // HAL doesn't slow down the others
+  @Test
+  public void threadsTest() throws InterruptedException {
+    TestHAL fast = new TestHAL();
+    TestHAL slow = new TestHAL();
+    slow.sleepMs = 50;    // a stalled CAN bus
+
+    HALExecutor executor = new HALExecutor();
+    executor.add("fast", fast, 200);
+    executor.add("slow", slow, 200);
+    executor.zeroSensors();
+    executor.start();
+    Thread.sleep(200);
+    executor.stop();
+
+    assertTrue(fast.oneThread);
+    assertTrue(slow.oneThread);
+    assertNotSame(fast.thread, slow.thread);
+
+    long fastTicks = executor.getTickCount("fast");
+    long slowTicks = executor.getTickCount("slow");
+    assertTrue(fastTicks > 4 * slowTicks);
+    assertTrue(executor.getOverruns("slow") > 0);
+
+    // zero first, then read/write pairs, and stop last
+    List<String> calls = new ArrayList<>(fast.calls);
+    assertEquals("zero", calls.get(0));
+    assertEquals("stop", calls.get(calls.size() - 1));
+    assertEquals(2 * fastTicks, calls.size() - 2);
+    for (int k = 1; k < calls.size() - 1; k += 2) {
+      assertEquals("read", calls.get(k));
+      assertEquals("write", calls.get(k + 1));
+    }
+  }
+
+  // while the actuators are disabled the HAL is stopped instead of written,
+  // and its sensors are still read
+  @Test
+  public void actuatorsEnabledTest() throws InterruptedException {
+    TestHAL hal = new TestHAL();
+    HALExecutor executor = new HALExecutor();
+    executor.add("hal", hal, 200);
+    executor.setActuatorsEnabled(() -> false);
+    executor.start();
+    Thread.sleep(50);
+    executor.stop();
+
+    List<String> calls = new ArrayList<>(hal.calls);
+    assertTrue(executor.getTickCount("hal") > 0);
+    assertEquals(2 * executor.getTickCount("hal") + 1, calls.size());
+    for (int k = 0; k < calls.size() - 1; k += 2) {
+      assertEquals("read", calls.get(k));
+      assertEquals("stop", calls.get(k + 1));
+    }
+    assertFalse(calls.contains("write"));
+  }
+
+  // HALs can't be added once the threads are running
+  @Test(expected = IllegalStateException.class)
+  public void addAfterStartTest() {
+    HALExecutor executor = new HALExecutor();
+    executor.add("first", new TestHAL(), 100);
+    executor.start();
+    try {
+      executor.add("second", new TestHAL(), 100);
+    } finally {
+      executor.stop();
+    }
+  }
+}
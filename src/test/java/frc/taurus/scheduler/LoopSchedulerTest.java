@@ -0,0 +1,144 @@
+package frc.taurus.scheduler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import frc.taurus.config.ChannelManager;
+import frc.taurus.config.Config;
+import frc.taurus.messages.MessageQueue;
+import frc.taurus.scheduler.generated.LoopStatus;
+import frc.taurus.scheduler.generated.StageStatus;
+
+public class LoopSchedulerTest {
+
+  static final double kPeriod = 0.005;  // 200 Hz
+
+  // stages run in order, each at its own rate
+  @Test
+  public void ratesTest() {
+    ChannelManager channelManager = new ChannelManager();
+    channelManager.setUnitTest();
+    LoopScheduler scheduler = new LoopScheduler(channelManager, kPeriod);
+
+    List<String> runs = new ArrayList<>();
+    scheduler.add("fast", () -> runs.add("fast"));
+    scheduler.add("slow", () -> runs.add("slow"), 50);
+
+    for (int k = 0; k < 8; k++) {
+      scheduler.tick(Long.MAX_VALUE);
+    }
+
+    assertEquals(List.of("fast", "slow", "fast", "fast", "fast",
+                         "fast", "slow", "fast", "fast", "fast"), runs);
+  }
+
+  // a rate that doesn't divide the loop rate is rejected
+  @Test(expected = IllegalArgumentException.class)
+  public void badRateTest() {
+    ChannelManager channelManager = new ChannelManager();
+    channelManager.setUnitTest();
+    LoopScheduler scheduler = new LoopScheduler(channelManager, kPeriod);
+
+    scheduler.add("bad", () -> {}, 30);
+  }
+
+  // every status period a LoopStatus is published with the stage timing
+  @Test
+  public void loopStatusTest() {
+    ChannelManager channelManager = new ChannelManager();
+    channelManager.setUnitTest();
+    MessageQueue<ByteBuffer>.QueueReader reader = channelManager.fetch(Config.LOOP_STATUS).makeReader();
+
+    LoopScheduler scheduler = new LoopScheduler(channelManager, kPeriod);
+    scheduler.setStatusPeriod(10 * kPeriod);
+    scheduler.add("fast", () -> {});
+    scheduler.add("slow", () -> {}, 50);
+
+    for (int k = 0; k < 9; k++) {
+      scheduler.tick(Long.MAX_VALUE);
+    }
+    assertNull(reader.readOrNull());
+
+    scheduler.tick(0);    // deadline long gone -- every stage is late
+    ByteBuffer bb = reader.readOrNull();
+    assertNotNull(bb);
+
+    LoopStatus status = LoopStatus.getRootAsLoopStatus(bb);
+    assertTrue(LoopStatus.LoopStatusBufferHasIdentifier(bb));
+    assertEquals(5000000, status.periodNs());
+    assertEquals(10, status.tickCount());
+    assertEquals(2, status.stagesLength());
+
+    StageStatus fast = status.stages(0);
+    assertEquals("fast", fast.name());
+    assertEquals(1, fast.period());
+    assertEquals(10, fast.count());
+    assertEquals(1, fast.overruns());
+    assertEquals(LoopScheduler.kNumBuckets, fast.histogramLength());
+    int histogramCount = 0;
+    for (int k = 0; k < fast.histogramLength(); k++) {
+      histogramCount += fast.histogram(k);
+    }
+    assertEquals(10, histogramCount);
+    assertTrue(fast.maxNs() * 10 >= fast.totalNs());
+
+    StageStatus slow = status.stages(1);
+    assertEquals("slow", slow.name());
+    assertEquals(4, slow.period());
+    assertEquals(3, slow.count());     // ticks 0, 4, 8
+    assertEquals(0, slow.overruns());
+
+    // counts start over for the next LoopStatus
+    for (int k = 0; k < 10; k++) {
+      scheduler.tick(Long.MAX_VALUE);
+    }
+    status = LoopStatus.getRootAsLoopStatus(reader.readOrNull());
+    assertEquals(20, status.tickCount());
+    assertEquals(10, status.stages(0).count());
+    assertEquals(0, status.stages(0).overruns());
+  }
+
+  // the scheduler thread runs the stages at the loop rate
+  @Test
+  public void threadTest() throws InterruptedException {
+    ChannelManager channelManager = new ChannelManager();
+    channelManager.setUnitTest();
+    LoopScheduler scheduler = new LoopScheduler(channelManager, kPeriod);
+
+    int[] count = new int[1];
+    scheduler.add("count", () -> count[0]++);
+
+    scheduler.start();
+    Thread.sleep(200);
+    scheduler.stop();
+
+    // 40 ticks expected -- allow for a slow test machine
+    assertTrue("count = " + count[0], count[0] >= 20 && count[0] <= 42);
+  }
+
+  @Test
+  public void bucketTest() {
+    assertEquals(0, LoopScheduler.bucket(0));
+    assertEquals(1, LoopScheduler.bucket(1));
+    assertEquals(2, LoopScheduler.bucket(2));
+    assertEquals(2, LoopScheduler.bucket(3));
+    assertEquals(11, LoopScheduler.bucket(1024));
+    assertEquals(LoopScheduler.kNumBuckets - 1, LoopScheduler.bucket(Long.MAX_VALUE));
+  }
+
+  @Test
+  public void ticksToSkipTest() {
+    // a tick that was due at 100 with a period of 10
+    assertEquals(0, LoopScheduler.ticksToSkip(105, 100, 10));   // next tick starts 5 late
+    assertEquals(1, LoopScheduler.ticksToSkip(110, 100, 10));
+    assertEquals(2, LoopScheduler.ticksToSkip(129, 100, 10));   // next tick starts 9 late
+  }
+}